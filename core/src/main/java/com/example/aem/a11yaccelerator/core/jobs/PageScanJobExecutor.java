@@ -0,0 +1,103 @@
+package com.example.aem.a11yaccelerator.core.jobs;
+
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutionResult;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scans the pages of one crawl job and stores their results.
+ * Parallelism, retry count and persistence come from the Sling job queue bound to {@link #TOPIC};
+ * a job with failed pages is rescheduled with an exponentially growing delay. Pages that already
+ * succeeded are cheap on retry because their stored content hash still matches.
+ */
+@Designate(ocd = PageScanJobExecutor.Config.class)
+@Component(service = JobExecutor.class,
+           property = JobExecutor.PROPERTY_TOPICS + "=" + PageScanJobExecutor.TOPIC)
+public class PageScanJobExecutor implements JobExecutor {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Page Scan Job Executor",
+                           description = "Executes site crawl jobs")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Base retry delay (ms)",
+                             description = "Delay before the first retry; doubled on every further retry")
+        long baseRetryDelayMs() default 60000;
+
+        @AttributeDefinition(name = "Maximum retry delay (ms)")
+        long maxRetryDelayMs() default 3600000;
+    }
+
+    public static final String TOPIC = "com/example/aem/a11yaccelerator/scan/pages";
+
+    public static final String PROPERTY_PAGE_PATHS = "pagePaths";
+
+    private static final Logger log = LoggerFactory.getLogger(PageScanJobExecutor.class);
+
+    @Reference
+    private PageScanService pageScanService;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    private long baseRetryDelayMs;
+    private long maxRetryDelayMs;
+
+    @Activate
+    protected void activate(final Config config) {
+        baseRetryDelayMs = Math.max(0, config.baseRetryDelayMs());
+        maxRetryDelayMs = Math.max(baseRetryDelayMs, config.maxRetryDelayMs());
+    }
+
+    @Override
+    public JobExecutionResult process(Job job, JobExecutionContext context) {
+        String[] pagePaths = job.getProperty(PROPERTY_PAGE_PATHS, String[].class);
+        if (pagePaths == null || pagePaths.length == 0) {
+            return context.result().message("No pages in job").cancelled();
+        }
+
+        context.initProgress(pagePaths.length, -1);
+        int failed = 0;
+        String lastError = null;
+        for (String pagePath : pagePaths) {
+            if (context.isStopped()) {
+                return context.result().message("Stopped").failed();
+            }
+            try {
+                PageScanResult result = pageScanService.scanPage(pagePath);
+                if (!result.isStored()) {
+                    scanResultStore.storeResult(pagePath, result.getResultJson(), result.getContentHash(),
+                            result.getAxeVersion());
+                }
+            } catch (Exception e) {
+                log.warn("Crawl scan failed for {}: {}", pagePath, e.getMessage());
+                failed++;
+                lastError = pagePath + ": " + e.getMessage();
+            }
+            context.incrementProgressCount(1);
+        }
+
+        if (failed > 0) {
+            return context.result()
+                    .message(failed + " of " + pagePaths.length + " pages failed, last: " + lastError)
+                    .failed(retryDelay(job.getRetryCount()));
+        }
+        return context.result().succeeded();
+    }
+
+    long retryDelay(int retryCount) {
+        long delay = baseRetryDelayMs << Math.min(retryCount, 20);
+        return delay < 0 ? maxRetryDelayMs : Math.min(delay, maxRetryDelayMs);
+    }
+}
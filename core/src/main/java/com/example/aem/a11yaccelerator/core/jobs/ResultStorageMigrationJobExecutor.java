@@ -0,0 +1,203 @@
+package com.example.aem.a11yaccelerator.core.jobs;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.JobManager;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutionResult;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Converts scanResult nodes that still hold their result as a plain string to the compressed binary
+ * format. The conversions are saved by the {@link ScanResultStore}'s writer, in the commits it shares
+ * with results being stored, and the job waits for them in batches. It can be stopped at any time; a
+ * rerun skips converted nodes. Once the whole tree is converted, {@value #STORAGE_FORMAT_PROPERTY} is
+ * set on /var/a11y-scans and the job is no longer submitted on startup.
+ */
+@Designate(ocd = ResultStorageMigrationJobExecutor.Config.class)
+@Component(service = JobExecutor.class,
+           immediate = true,
+           property = JobExecutor.PROPERTY_TOPICS + "=" + ResultStorageMigrationJobExecutor.TOPIC)
+public class ResultStorageMigrationJobExecutor implements JobExecutor {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Result Storage Migration",
+                           description = "Compresses scan results stored in the old string format")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Migrate on startup",
+                             description = "Submits the migration job when unconverted results may exist")
+        boolean migrateOnStartup() default true;
+
+        @AttributeDefinition(name = "Nodes per save")
+        int batchSize() default 100;
+    }
+
+    public static final String TOPIC = "com/example/aem/a11yaccelerator/migrate/storage";
+
+    static final String STORAGE_FORMAT_PROPERTY = "storageFormat";
+
+    private static final Logger log = LoggerFactory.getLogger(ResultStorageMigrationJobExecutor.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private JobManager jobManager;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    private int batchSize = 100;
+
+    @Activate
+    protected void activate(final Config config) {
+        batchSize = Math.max(1, config.batchSize());
+        if (config.migrateOnStartup() && !isMigrated()
+                && jobManager.findJobs(JobManager.QueryType.ALL, TOPIC, 1).isEmpty()) {
+            jobManager.addJob(TOPIC, null);
+            log.info("Submitted migration of stored scan results to the compressed format");
+        }
+    }
+
+    @Override
+    public JobExecutionResult process(Job job, JobExecutionContext context) {
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            if (!session.nodeExists(ScanResultStore.ROOT_PATH)) {
+                return context.result().succeeded();
+            }
+            List<CompletableFuture<Boolean>> queued = new ArrayList<>();
+            int[] converted = new int[1];
+            boolean finished = migrate(session.getNode(ScanResultStore.ROOT_PATH), context, queued, converted);
+            converted[0] += await(queued);
+            if (!finished) {
+                return context.result().message("Stopped after " + converted[0] + " nodes").failed();
+            }
+            await(Collections.singletonList(scanResultStore.submitChange("", writerSession -> {
+                writerSession.getNode(ScanResultStore.ROOT_PATH)
+                        .setProperty(STORAGE_FORMAT_PROPERTY, ScanResultCodec.GZIP);
+                return true;
+            })));
+            log.info("Compressed {} stored scan results", converted[0]);
+            return context.result().message(converted[0] + " results compressed").succeeded();
+        } catch (LoginException | RepositoryException e) {
+            log.error("Migrating stored scan results failed", e);
+            return context.result().message(e.getMessage()).failed();
+        }
+    }
+
+    /**
+     * Queues the conversion of every legacy result below the node with the store's writer, so a crawl
+     * storing results at the same time does not conflict with the migration. Waits for the queued
+     * conversions after every batch.
+     *
+     * @return false if the job was stopped before the subtree was converted
+     */
+    private boolean migrate(Node node, JobExecutionContext context, List<CompletableFuture<Boolean>> queued,
+                            int[] converted) throws RepositoryException {
+        NodeIterator children = node.getNodes();
+        while (children.hasNext()) {
+            if (context.isStopped()) {
+                return false;
+            }
+            Node child = children.nextNode();
+            if (ScanResultStore.RESULT_NODE.equals(child.getName())) {
+                // Issue and rollup nodes below a result never hold results themselves
+                if (ScanResultCodec.isLegacy(child)) {
+                    String pagePath = node.getPath().substring(ScanResultStore.ROOT_PATH.length());
+                    queued.add(scanResultStore.submitChange(pagePath, convert(child.getPath())));
+                    if (queued.size() >= batchSize) {
+                        converted[0] += await(queued);
+                        context.log("Compressed {0} results", converted[0]);
+                    }
+                }
+            } else if (!migrate(child, context, queued, converted)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the result again in the writer's session, which may have seen it rewritten since.
+     */
+    private static ScanResultStore.Change<Boolean> convert(String resultPath) {
+        return writerSession -> {
+            if (!writerSession.nodeExists(resultPath)) {
+                return false;
+            }
+            Node result = writerSession.getNode(resultPath);
+            if (!ScanResultCodec.isLegacy(result)) {
+                return false;
+            }
+            ScanResultCodec.write(result, result.getProperty(ScanResultCodec.LEGACY_PROPERTY).getString());
+            return true;
+        };
+    }
+
+    /**
+     * Waits until the queued conversions are saved and clears the list.
+     *
+     * @return the number of converted results
+     */
+    private static int await(List<CompletableFuture<Boolean>> queued) throws RepositoryException {
+        int converted = 0;
+        try {
+            for (CompletableFuture<Boolean> conversion : queued) {
+                converted += conversion.get() ? 1 : 0;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while waiting for the scan result writer", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RepositoryException
+                    ? (RepositoryException) e.getCause()
+                    : new RepositoryException(e.getCause());
+        } finally {
+            queued.clear();
+        }
+        return converted;
+    }
+
+    private boolean isMigrated() {
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            // Nothing stored yet means everything will be written in the new format
+            return !session.nodeExists(ScanResultStore.ROOT_PATH)
+                    || session.getNode(ScanResultStore.ROOT_PATH).hasProperty(STORAGE_FORMAT_PROPERTY);
+        } catch (LoginException | RepositoryException e) {
+            log.warn("Could not check the storage format of scan results: {}", e.getMessage());
+            return true;
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.aem.a11yaccelerator.core.jobs;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultIterator;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutionResult;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Prunes /var/a11y-scans: removes the results of pages that no longer exist and cuts every page's
+ * history down to the configured retention. Also removes the suggestions below
+ * {@value SuggestionCache#ROOT_PATH} that are older than the suggestion cache's maximum age.
+ * <p>
+ * Stored results are changed through the store's writer. After every {@code batchSize} pages the job
+ * waits until their changes are saved and pauses, so a large cleanup is spread over many small commits
+ * instead of one that competes with authoring and crawls. The job can
+ * be stopped at any time; a rerun continues with what is left.
+ */
+@Designate(ocd = ScanRetentionJobExecutor.Config.class)
+@Component(service = JobExecutor.class,
+           property = JobExecutor.PROPERTY_TOPICS + "=" + ScanRetentionJobExecutor.TOPIC)
+public class ScanRetentionJobExecutor implements JobExecutor {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Scan Retention",
+                           description = "Removes orphaned scan results and old scan history")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Remove orphaned results",
+                             description = "Removes the results of pages that were deleted or moved")
+        boolean removeOrphans() default true;
+
+        @AttributeDefinition(name = "Runs kept per page",
+                             description = "History runs beyond this count are removed; 0 keeps any number")
+        int maxRunsPerPage() default 50;
+
+        @AttributeDefinition(name = "Maximum run age in days",
+                             description = "History runs older than this are removed; 0 keeps runs of any age. "
+                                     + "The latest run of a page is always kept")
+        int maxAgeDays() default 365;
+
+        @AttributeDefinition(name = "Removals per save",
+                             description = "Pages pruned or removed, and suggestions removed, before the job waits "
+                                     + "for them to be saved and pauses")
+        int batchSize() default 100;
+
+        @AttributeDefinition(name = "Pause after save (ms)",
+                             description = "Throttles the cleanup between saves")
+        long pauseMillis() default 200;
+    }
+
+    public static final String TOPIC = "com/example/aem/a11yaccelerator/retention";
+
+    private static final Logger log = LoggerFactory.getLogger(ScanRetentionJobExecutor.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    @Reference
+    private SuggestionCache suggestionCache;
+
+    private Config config;
+
+    @Activate
+    protected void activate(final Config config) {
+        this.config = config;
+    }
+
+    @Override
+    public JobExecutionResult process(Job job, JobExecutionContext context) {
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            Batch batch = new Batch(session, context);
+            Calendar notBefore = null;
+            if (config.maxAgeDays() > 0) {
+                notBefore = Calendar.getInstance();
+                notBefore.add(Calendar.DAY_OF_MONTH, -config.maxAgeDays());
+            }
+            int maxRuns = config.maxRunsPerPage();
+            Calendar cutoff = notBefore;
+
+            // Orphans are only collected here; removing folders would break the running traversal
+            List<String> orphans = new ArrayList<>();
+            ScanResultIterator results = session.nodeExists(ScanResultStore.ROOT_PATH)
+                    ? new ScanResultIterator(session.getNode(ScanResultStore.ROOT_PATH), null)
+                    : null;
+            while (results != null && results.hasNext()) {
+                if (context.isStopped()) {
+                    return batch.stop();
+                }
+                String pagePath = results.next().getParent().getPath().substring(ScanResultStore.ROOT_PATH.length());
+                if (config.removeOrphans() && !session.nodeExists(pagePath)) {
+                    orphans.add(pagePath);
+                } else if (!batch.prune(scanResultStore.submitChange(pagePath,
+                        writerSession -> scanResultStore.pruneHistory(writerSession, pagePath, maxRuns, cutoff)))) {
+                    return batch.stop();
+                }
+            }
+
+            for (String pagePath : orphans) {
+                if (context.isStopped()) {
+                    return batch.stop();
+                }
+                if (!batch.remove(scanResultStore.submitChange(pagePath,
+                        writerSession -> scanResultStore.removeResult(writerSession, pagePath)))) {
+                    return batch.stop();
+                }
+            }
+
+            for (String entryPath : suggestionCache.findExpired(session)) {
+                if (context.isStopped()) {
+                    return batch.stop();
+                }
+                session.removeItem(entryPath);
+                if (!batch.expired()) {
+                    return batch.stop();
+                }
+            }
+            batch.save();
+            String message = batch.progress();
+            log.info("Scan retention finished: {}", message);
+            return context.result().message(message).succeeded();
+        } catch (LoginException | RepositoryException e) {
+            log.error("Scan retention failed", e);
+            return context.result().message(e.getMessage()).failed();
+        }
+    }
+
+    /**
+     * Collects removals until a batch is full, then waits until they are saved and pauses.
+     * <p>
+     * Stored results are pruned and removed by the store's writer, in the commits it shares with results
+     * being stored meanwhile, so a crawl running at the same time does not make the cleanup fail on
+     * conflicting changes to the folders and rollups both update. Expired suggestions are removed in the
+     * job's own session, which nothing else changes below the suggestion cache's root.
+     */
+    private final class Batch {
+
+        private final Session session;
+        private final JobExecutionContext context;
+        private final List<CompletableFuture<Integer>> prunes = new ArrayList<>();
+        private final List<CompletableFuture<Boolean>> removals = new ArrayList<>();
+        private int expiredUnsaved;
+        private int prunedRuns;
+        private int removedResults;
+        private int expiredSuggestions;
+
+        Batch(Session session, JobExecutionContext context) {
+            this.session = session;
+            this.context = context;
+        }
+
+        /**
+         * @return false if the job was interrupted while pausing
+         */
+        boolean prune(CompletableFuture<Integer> change) throws RepositoryException {
+            prunes.add(change);
+            return next();
+        }
+
+        boolean remove(CompletableFuture<Boolean> change) throws RepositoryException {
+            removals.add(change);
+            return next();
+        }
+
+        boolean expired() throws RepositoryException {
+            expiredUnsaved++;
+            return next();
+        }
+
+        private boolean next() throws RepositoryException {
+            if (prunes.size() + removals.size() + expiredUnsaved < Math.max(1, config.batchSize())) {
+                return true;
+            }
+            int saved = save();
+            context.log("Saved {0} removals", saved);
+            try {
+                Thread.sleep(Math.max(0, config.pauseMillis()));
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        /**
+         * Waits for the queued changes and saves the removed suggestions.
+         *
+         * @return the number of runs, results and suggestions removed
+         */
+        int save() throws RepositoryException {
+            int runs = 0;
+            for (CompletableFuture<Integer> prune : prunes) {
+                runs += await(prune);
+            }
+            int results = 0;
+            for (CompletableFuture<Boolean> removal : removals) {
+                results += await(removal) ? 1 : 0;
+            }
+            prunes.clear();
+            removals.clear();
+            session.save();
+            int suggestions = expiredUnsaved;
+            expiredUnsaved = 0;
+            prunedRuns += runs;
+            removedResults += results;
+            expiredSuggestions += suggestions;
+            return runs + results + suggestions;
+        }
+
+        /**
+         * Saves what was done so far and ends the job as cancelled, which Sling does not retry.
+         */
+        JobExecutionResult stop() throws RepositoryException {
+            save();
+            return context.result().message("Stopped after " + progress()).cancelled();
+        }
+
+        String progress() {
+            return prunedRuns + " runs pruned, " + removedResults + " orphaned results removed, "
+                    + expiredSuggestions + " expired suggestions removed";
+        }
+
+        private <T> T await(CompletableFuture<T> change) throws RepositoryException {
+            try {
+                return change.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RepositoryException("Interrupted while waiting for the scan result writer", e);
+            } catch (ExecutionException e) {
+                throw e.getCause() instanceof RepositoryException
+                        ? (RepositoryException) e.getCause()
+                        : new RepositoryException(e.getCause());
+            }
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+}
@@ -15,35 +15,188 @@
  */
 package com.example.aem.a11yaccelerator.core.listeners;
 
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.example.aem.a11yaccelerator.core.services.BatchScanService;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChangeListener;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.component.propertytypes.ServiceDescription;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * A service to demonstrate how changes in the resource tree
- * can be listened for. 
- * Please note, that apart from EventHandler services,
- * the immediate flag should not be set on a service.
+ * Rescans pages incrementally as they are edited.
+ * Every change below the configured roots marks its page as dirty; the component also runs
+ * periodically as a scheduled task and hands pages that have been quiet for the coalescing
+ * window to the {@link BatchScanService}, so a burst of edits results in a single scan.
  */
-@Component(service = ResourceChangeListener.class,
+@Designate(ocd = SimpleResourceListener.Config.class)
+@Component(service = { ResourceChangeListener.class, Runnable.class },
            immediate = true
 )
-@ServiceDescription("Demo to listen on changes in the resource tree")
-public class SimpleResourceListener implements ResourceChangeListener {
+@ServiceDescription("Queues edited pages for an accessibility rescan")
+public class SimpleResourceListener implements ResourceChangeListener, Runnable {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Incremental Rescan Listener",
+                           description = "Rescans pages after they have been edited")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Enabled")
+        boolean enabled() default true;
+
+        @AttributeDefinition(name = "Observed paths")
+        String[] resource_paths() default { "/content" };
+
+        @AttributeDefinition(name = "Observed change types")
+        String[] resource_change_types() default { "ADDED", "CHANGED", "REMOVED" };
+
+        @AttributeDefinition(name = "Coalescing window (seconds)",
+                             description = "A page is scanned once it has not changed for this long")
+        long coalesceWindowSeconds() default 30;
+
+        @AttributeDefinition(name = "Maximum delay (seconds)",
+                             description = "A page that keeps changing is scanned at the latest after this long")
+        long maxDelaySeconds() default 300;
+
+        @AttributeDefinition(name = "Flush period (seconds)",
+                             description = "How often dirty pages are checked")
+        long scheduler_period() default 10;
+
+        @AttributeDefinition(name = "Concurrent task")
+        boolean scheduler_concurrent() default false;
+    }
+
+    private static final String JCR_CONTENT = "/jcr:content";
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
+    private final Map<String, DirtyPage> dirtyPages = new ConcurrentHashMap<>();
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private BatchScanService batchScanService;
+
+    private boolean enabled = true;
+    private long coalesceWindowMillis = 30000;
+    private long maxDelayMillis = 300000;
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        coalesceWindowMillis = config.coalesceWindowSeconds() * 1000;
+        maxDelayMillis = config.maxDelaySeconds() * 1000;
+    }
+
     @Override
     public void onChange(List<ResourceChange> changes) {
+        long now = System.currentTimeMillis();
         changes.forEach(change -> {
             logger.debug("Resource event: {} at: {} isExternal", change.getType(), change.getPath(), change.isExternal());
+            if (enabled) {
+                dirtyPages.compute(toPageCandidate(change.getPath()),
+                        (path, dirty) -> dirty == null ? new DirtyPage(now) : dirty.touch(now));
+            }
         });
-        
     }
-}
 
+    /**
+     * Submits pages whose edits have settled.
+     */
+    @Override
+    public void run() {
+        long now = System.currentTimeMillis();
+        Set<String> due = new LinkedHashSet<>();
+        dirtyPages.forEach((path, dirty) -> {
+            if (now - dirty.lastChange >= coalesceWindowMillis || now - dirty.firstChange >= maxDelayMillis) {
+                if (dirtyPages.remove(path, dirty)) {
+                    due.add(path);
+                }
+            }
+        });
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Set<String> pagePaths = resolvePages(due);
+        if (pagePaths.isEmpty()) {
+            return;
+        }
+        try {
+            batchScanService.submit(pagePaths);
+            logger.info("Queued {} edited pages for rescan", pagePaths.size());
+        } catch (IllegalStateException e) {
+            logger.warn("Rescan queue full, retrying {} pages on the next run", pagePaths.size());
+            pagePaths.forEach(path -> dirtyPages.putIfAbsent(path, new DirtyPage(now)));
+        }
+    }
+
+    /**
+     * Maps a changed path to the page it most likely belongs to, without touching the repository.
+     */
+    static String toPageCandidate(String path) {
+        int contentIndex = path.indexOf(JCR_CONTENT + "/");
+        if (contentIndex < 0 && path.endsWith(JCR_CONTENT)) {
+            contentIndex = path.length() - JCR_CONTENT.length();
+        }
+        return contentIndex >= 0 ? path.substring(0, contentIndex) : path;
+    }
+
+    Set<String> getDirtyPaths() {
+        return dirtyPages.keySet();
+    }
+
+    private Set<String> resolvePages(Set<String> candidates) {
+        Set<String> pagePaths = new LinkedHashSet<>();
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        try (ResourceResolver resolver = factory.getServiceResourceResolver(authParams)) {
+            PageManager pageManager = resolver.adaptTo(PageManager.class);
+            for (String candidate : candidates) {
+                // Removed pages and non-page resources such as assets resolve to nothing or to their parent page
+                Page page = pageManager.getContainingPage(candidate);
+                if (page != null) {
+                    pagePaths.add(page.getPath());
+                }
+            }
+        } catch (LoginException e) {
+            logger.error("Could not resolve edited pages", e);
+        }
+        return pagePaths;
+    }
+
+    private static final class DirtyPage {
+        private final long firstChange;
+        private final long lastChange;
+
+        private DirtyPage(long now) {
+            this(now, now);
+        }
+
+        private DirtyPage(long firstChange, long lastChange) {
+            this.firstChange = firstChange;
+            this.lastChange = lastChange;
+        }
+
+        private DirtyPage touch(long now) {
+            return new DirtyPage(firstChange, now);
+        }
+    }
+}
@@ -12,8 +12,22 @@ public class Issue {
     private String remediation;
     private String recommendationLink;
     private String description;
-   
 
+    public Issue() {
+    }
+
+    public Issue(String id, String pagePath, String componentPath, String componentType, String issueType,
+                 String wcagLevel, String description, String remediation, String recommendationLink) {
+        this.id = id;
+        this.pagePath = pagePath;
+        this.componentPath = componentPath;
+        this.componentType = componentType;
+        this.issueType = issueType;
+        this.wcagLevel = wcagLevel;
+        this.description = description;
+        this.remediation = remediation;
+        this.recommendationLink = recommendationLink;
+    }
 
     public String getId() {
         return id;
@@ -0,0 +1,47 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import org.apache.sling.api.resource.Resource;
+import org.osgi.annotation.versioning.ConsumerType;
+
+import java.util.List;
+
+/**
+ * An accessibility check evaluated against stored page content, without rendering the page.
+ * <p>
+ * Rules are registered as OSGi services and picked up by the rules engine. For every page the engine
+ * calls {@link #checkPage} once and {@link #checkComponent} for each resource below the page's
+ * {@code jcr:content}. Implementations must only read properties; they run for thousands of pages
+ * in a single pre-scan.
+ */
+@ConsumerType
+public interface ContentRule {
+
+    /** Issue type of rule findings, matching the type used for axe-core violations. */
+    String VIOLATION = "violation";
+
+    /**
+     * @return identifier reported as the issue id
+     */
+    String getId();
+
+    /**
+     * Checks page-level properties.
+     *
+     * @param page the page being scanned
+     * @param issues collector for findings
+     */
+    default void checkPage(Page page, List<Issue> issues) {
+    }
+
+    /**
+     * Checks one component resource of the page.
+     *
+     * @param page the page being scanned
+     * @param component a resource below the page's content resource
+     * @param issues collector for findings
+     */
+    default void checkComponent(Page page, Resource component, List<Issue> issues) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.util.List;
+
+/**
+ * Image components need alternative text or must be marked decorative (WCAG 1.1.1 Non-text Content).
+ * When the alt text is taken from the asset, the asset's {@code dc:description} must be set.
+ */
+@Designate(ocd = ImageAltRule.Config.class)
+@Component(service = ContentRule.class)
+public class ImageAltRule implements ContentRule {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Image Alt Rule",
+                           description = "Flags image components without alternative text")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Image resource types",
+                             description = "Resource types (including super types) treated as images")
+        String[] resourceTypes() default {
+                "core/wcm/components/image/v1/image",
+                "core/wcm/components/image/v2/image",
+                "core/wcm/components/image/v3/image"
+        };
+    }
+
+    static final String ID = "image-alt-missing";
+
+    private String[] resourceTypes;
+
+    @Activate
+    protected void activate(final Config config) {
+        resourceTypes = config.resourceTypes();
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public void checkComponent(Page page, Resource component, List<Issue> issues) {
+        if (!RuleSupport.isAnyResourceType(component, resourceTypes)) {
+            return;
+        }
+        ValueMap properties = component.getValueMap();
+        if (properties.get("isDecorative", false) || StringUtils.isNotBlank(properties.get("alt", String.class))) {
+            return;
+        }
+        if (properties.get("altValueFromDAM", false) && hasAssetDescription(component.getResourceResolver(),
+                properties.get("fileReference", String.class))) {
+            return;
+        }
+        issues.add(new Issue(ID, page.getPath(), component.getPath(), component.getResourceType(), VIOLATION, "A",
+                "Image has no alternative text and is not marked decorative",
+                "Enter alternative text in the image dialog or mark the image as decorative",
+                "https://www.w3.org/WAI/WCAG21/Understanding/non-text-content.html"));
+    }
+
+    private static boolean hasAssetDescription(ResourceResolver resolver, String fileReference) {
+        if (StringUtils.isBlank(fileReference)) {
+            return false;
+        }
+        Resource metadata = resolver.getResource(fileReference + "/jcr:content/metadata");
+        return metadata != null && StringUtils.isNotBlank(metadata.getValueMap().get("dc:description", String.class));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ValueMap;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Links need an accessible name (WCAG 2.4.4 Link Purpose). Flags components that carry a link target
+ * but none of the text properties, and empty anchors in rich text.
+ */
+@Designate(ocd = LinkTextRule.Config.class)
+@Component(service = ContentRule.class)
+public class LinkTextRule implements ContentRule {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Link Text Rule",
+                           description = "Flags links without text")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Link properties",
+                             description = "Properties holding a link target")
+        String[] linkProperties() default { "linkURL", "link" };
+
+        @AttributeDefinition(name = "Text properties",
+                             description = "Properties that give the link an accessible name")
+        String[] textProperties() default { "text", "linkText", "jcr:title", "accessibilityLabel", "alt" };
+    }
+
+    static final String ID = "link-name-missing";
+
+    /** An anchor whose content is only whitespace or non-breaking spaces. */
+    private static final Pattern EMPTY_ANCHOR = Pattern.compile("<a\\b[^>]*>(\\s|&nbsp;)*</a>",
+            Pattern.CASE_INSENSITIVE);
+
+    private String[] linkProperties;
+    private String[] textProperties;
+
+    @Activate
+    protected void activate(final Config config) {
+        linkProperties = config.linkProperties();
+        textProperties = config.textProperties();
+    }
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public void checkComponent(Page page, Resource component, List<Issue> issues) {
+        ValueMap properties = component.getValueMap();
+        if (hasAny(properties, linkProperties) && !hasAny(properties, textProperties)) {
+            issues.add(issue(page, component, "Link has no text"));
+        }
+        String text = properties.get("text", String.class);
+        if (properties.get("textIsRich", false) && text != null && EMPTY_ANCHOR.matcher(text).find()) {
+            issues.add(issue(page, component, "Rich text contains a link without text"));
+        }
+    }
+
+    private static boolean hasAny(ValueMap properties, String[] names) {
+        for (String name : names) {
+            if (StringUtils.isNotBlank(properties.get(name, String.class))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Issue issue(Page page, Resource component, String description) {
+        return new Issue(ID, page.getPath(), component.getPath(), component.getResourceType(), VIOLATION, "A",
+                description,
+                "Give the link visible text or an accessibility label that describes its target",
+                "https://www.w3.org/WAI/WCAG21/Understanding/link-purpose-in-context.html");
+    }
+}
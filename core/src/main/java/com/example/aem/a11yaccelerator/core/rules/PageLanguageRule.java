@@ -0,0 +1,41 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import com.day.cq.commons.inherit.HierarchyNodeInheritanceValueMap;
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.sling.api.resource.Resource;
+import org.osgi.service.component.annotations.Component;
+
+import java.util.List;
+
+/**
+ * Pages need a language (WCAG 3.1.1 Language of Page). The language is inherited from the closest
+ * ancestor page that sets {@code jcr:language}, as the page component renders it.
+ */
+@Component(service = ContentRule.class)
+public class PageLanguageRule implements ContentRule {
+
+    static final String ID = "page-language-missing";
+
+    private static final String LANGUAGE_PROPERTY = "jcr:language";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public void checkPage(Page page, List<Issue> issues) {
+        Resource content = page.getContentResource();
+        String language = content != null
+                ? new HierarchyNodeInheritanceValueMap(content).getInherited(LANGUAGE_PROPERTY, String.class)
+                : null;
+        if (StringUtils.isBlank(language)) {
+            issues.add(new Issue(ID, page.getPath(), page.getPath() + "/jcr:content", null, VIOLATION, "A",
+                    "Neither the page nor its ancestors set jcr:language",
+                    "Set the language in the page properties of the page or its language root",
+                    "https://www.w3.org/WAI/WCAG21/Understanding/language-of-page.html"));
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.service.component.annotations.Component;
+
+import java.util.List;
+
+/**
+ * Pages need a title (WCAG 2.4.2 Page Titled).
+ */
+@Component(service = ContentRule.class)
+public class PageTitleRule implements ContentRule {
+
+    static final String ID = "page-title-missing";
+
+    @Override
+    public String getId() {
+        return ID;
+    }
+
+    @Override
+    public void checkPage(Page page, List<Issue> issues) {
+        if (StringUtils.isBlank(page.getTitle()) && StringUtils.isBlank(page.getPageTitle())) {
+            issues.add(new Issue(ID, page.getPath(), page.getPath() + "/jcr:content", null, VIOLATION, "A",
+                    "Page has no jcr:title or page title",
+                    "Set a title in the page properties",
+                    "https://www.w3.org/WAI/WCAG21/Understanding/page-titled.html"));
+        }
+    }
+}
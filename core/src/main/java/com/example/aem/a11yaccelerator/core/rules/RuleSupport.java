@@ -0,0 +1,24 @@
+package com.example.aem.a11yaccelerator.core.rules;
+
+import org.apache.sling.api.resource.Resource;
+
+/**
+ * Helpers shared by the built-in rules.
+ */
+final class RuleSupport {
+
+    private RuleSupport() {
+    }
+
+    /**
+     * @return whether the resource is of one of the given types or inherits from one of them
+     */
+    static boolean isAnyResourceType(Resource resource, String[] resourceTypes) {
+        for (String resourceType : resourceTypes) {
+            if (resource.isResourceType(resourceType)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
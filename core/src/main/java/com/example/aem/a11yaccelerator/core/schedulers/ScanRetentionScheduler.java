@@ -0,0 +1,64 @@
+package com.example.aem.a11yaccelerator.core.schedulers;
+
+import com.example.aem.a11yaccelerator.core.jobs.ScanRetentionJobExecutor;
+import org.apache.sling.event.jobs.JobManager;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Periodically submits the {@link ScanRetentionJobExecutor} job, unless one is still queued or running.
+ */
+@Designate(ocd=ScanRetentionScheduler.Config.class)
+@Component(service=Runnable.class)
+public class ScanRetentionScheduler implements Runnable {
+
+    @ObjectClassDefinition(name="A11y Accelerator - Scan Retention Scheduler",
+                           description = "Periodically prunes stored scan results")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cron-job expression")
+        String scheduler_expression() default "0 0 3 ? * SUN";
+
+        @AttributeDefinition(name = "Concurrent task",
+                             description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Run on",
+                             description = "SINGLE submits the job from one cluster member only")
+        String scheduler_runOn() default "SINGLE";
+
+        @AttributeDefinition(name = "Enabled")
+        boolean enabled() default true;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private JobManager jobManager;
+
+    private boolean enabled;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        if (!jobManager.findJobs(JobManager.QueryType.ALL, ScanRetentionJobExecutor.TOPIC, 1).isEmpty()) {
+            logger.info("Scan retention is still pending from an earlier run");
+            return;
+        }
+        jobManager.addJob(ScanRetentionJobExecutor.TOPIC, null);
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ *  Copyright 2015 Adobe Systems Incorporated
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.example.aem.a11yaccelerator.core.schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.example.aem.a11yaccelerator.core.jobs.PageScanJobExecutor;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.event.jobs.JobManager;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Scheduled full-site crawl. Enumerates the pages below the configured roots and submits
+ * one Sling Job per batch of pages on {@link PageScanJobExecutor#TOPIC}. The jobs are persisted,
+ * distributed across the cluster and retried by the job queue configured for that topic.
+ */
+@Designate(ocd=SiteCrawlScheduler.Config.class)
+@Component(service=Runnable.class)
+public class SiteCrawlScheduler implements Runnable {
+
+    @ObjectClassDefinition(name="A11y Accelerator - Site Crawl Scheduler",
+                           description = "Periodically scans every page below the configured roots")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Cron-job expression")
+        String scheduler_expression() default "0 0 1 * * ?";
+
+        @AttributeDefinition(name = "Concurrent task",
+                             description = "Whether or not to schedule this task concurrently")
+        boolean scheduler_concurrent() default false;
+
+        @AttributeDefinition(name = "Run on",
+                             description = "SINGLE runs the crawl enumeration on one cluster member only")
+        String scheduler_runOn() default "SINGLE";
+
+        @AttributeDefinition(name = "Enabled")
+        boolean enabled() default false;
+
+        @AttributeDefinition(name = "Root paths",
+                             description = "Pages below these paths are crawled")
+        String[] rootPaths() default { "/content" };
+
+        @AttributeDefinition(name = "Pages per job",
+                             description = "Number of pages scanned by one job")
+        int pagesPerJob() default 25;
+    }
+
+    private final Logger logger = LoggerFactory.getLogger(getClass());
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private JobManager jobManager;
+
+    private boolean enabled;
+    private String[] rootPaths;
+    private int pagesPerJob;
+
+    @Override
+    public void run() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        try (ResourceResolver resolver = factory.getServiceResourceResolver(authParams)) {
+            PageManager pageManager = resolver.adaptTo(PageManager.class);
+            int pages = 0;
+            int jobs = 0;
+            List<String> batch = new ArrayList<>(pagesPerJob);
+            for (String rootPath : rootPaths) {
+                Page root = pageManager.getPage(rootPath);
+                Iterator<Page> it = root != null ? root.listChildren(null, true) : Collections.emptyIterator();
+                if (root != null) {
+                    batch.add(root.getPath());
+                }
+                while (it.hasNext()) {
+                    batch.add(it.next().getPath());
+                    if (batch.size() >= pagesPerJob) {
+                        pages += submit(batch);
+                        jobs++;
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                pages += submit(batch);
+                jobs++;
+            }
+            logger.info("Site crawl submitted {} pages in {} jobs", pages, jobs);
+        } catch (LoginException e) {
+            logger.error("Site crawl could not log in as service user", e);
+        }
+    }
+
+    private int submit(List<String> batch) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(PageScanJobExecutor.PROPERTY_PAGE_PATHS, batch.toArray(new String[0]));
+        jobManager.addJob(PageScanJobExecutor.TOPIC, props);
+        int size = batch.size();
+        batch.clear();
+        return size;
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+        rootPaths = config.rootPaths();
+        pagesPerJob = Math.max(1, config.pagesPerJob());
+    }
+
+}
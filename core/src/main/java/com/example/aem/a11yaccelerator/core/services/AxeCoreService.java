@@ -1,6 +1,6 @@
 package com.example.aem.a11yaccelerator.core.services;
 
-import com.adobe.forms.foundation.transfer.AssetScanInfo.Issue;
+import com.example.aem.a11yaccelerator.core.models.Issue;
 import java.util.List;
 
 public interface AxeCoreService {
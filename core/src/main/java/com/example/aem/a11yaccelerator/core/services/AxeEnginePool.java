@@ -0,0 +1,53 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
+
+import javax.script.ScriptException;
+
+/**
+ * Pool of pre-initialized axe-core script engines shared by all scans in the bundle.
+ */
+public interface AxeEnginePool {
+
+    /**
+     * Borrows a warmed-up runner, waiting up to the configured timeout.
+     * Every borrowed runner must be handed back through {@link #release(AxeCoreRunner)}.
+     *
+     * @return a runner with axe-core already loaded
+     * @throws ScriptException if no runner becomes available in time
+     */
+    AxeCoreRunner borrow() throws ScriptException;
+
+    /**
+     * Returns a previously borrowed runner to the pool.
+     *
+     * @param runner the runner obtained from {@link #borrow()}
+     */
+    void release(AxeCoreRunner runner);
+
+    /**
+     * Borrows a runner, scans the given HTML and releases the runner again.
+     *
+     * @param html rendered page markup
+     * @return axe-core results as JSON
+     * @throws ScriptException if no runner becomes available in time
+     */
+    String runAccessibilityScan(String html) throws ScriptException;
+
+    /**
+     * @return the axe-core version loaded into the pooled engines, or an empty string if none is warm yet
+     */
+    String getAxeVersion();
+
+    int getPoolSize();
+
+    int getAvailableCount();
+
+    long getBorrowCount();
+
+    long getReturnCount();
+
+    long getBorrowTimeoutCount();
+
+    long getTotalBorrowWaitMillis();
+}
@@ -0,0 +1,86 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Progress of one server-side batch scan, polled by the console through its job id.
+ */
+public class BatchScanJob {
+
+    private static final int MAX_REPORTED_FAILURES = 100;
+
+    public enum Status { RUNNING, COMPLETED }
+
+    private final String id;
+    private final int total;
+    private final long createdAt = System.currentTimeMillis();
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private final Map<String, String> failures = Collections.synchronizedMap(new LinkedHashMap<>());
+    private volatile long finishedAt;
+
+    public BatchScanJob(String id, int total) {
+        this.id = id;
+        this.total = total;
+    }
+
+    public void pageSucceeded() {
+        succeeded.incrementAndGet();
+        checkFinished();
+    }
+
+    public void pageFailed(String pagePath, String reason) {
+        if (failures.size() < MAX_REPORTED_FAILURES) {
+            failures.put(pagePath, reason);
+        }
+        failed.incrementAndGet();
+        checkFinished();
+    }
+
+    private void checkFinished() {
+        if (getProcessed() >= total) {
+            finishedAt = System.currentTimeMillis();
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getProcessed() {
+        return succeeded.get() + failed.get();
+    }
+
+    public Status getStatus() {
+        return getProcessed() >= total ? Status.COMPLETED : Status.RUNNING;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+
+    public Map<String, String> getFailures() {
+        synchronized (failures) {
+            return new LinkedHashMap<>(failures);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.Collection;
+
+/**
+ * Scans many pages on the server, running fetch, axe and persist per page on a bounded worker pool.
+ */
+public interface BatchScanService {
+
+    /**
+     * Queues the given pages for scanning.
+     *
+     * @param pagePaths content paths of the pages to scan
+     * @return the job tracking the scan
+     * @throws IllegalStateException if the worker queue cannot take that many pages
+     */
+    BatchScanJob submit(Collection<String> pagePaths);
+
+    /**
+     * @param jobId id returned by {@link #submit(Collection)}
+     * @return the job, or null if it is unknown or has expired
+     */
+    BatchScanJob getJob(String jobId);
+}
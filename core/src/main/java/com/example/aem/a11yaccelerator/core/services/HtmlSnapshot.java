@@ -0,0 +1,51 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import com.example.aem.a11yaccelerator.core.utils.ContentHash;
+
+/**
+ * A fetched page as returned by {@link HtmlSnapshotService#fetchSnapshot}: its markup, or only the hash
+ * of its markup when the instance confirmed that it has not changed since an earlier fetch.
+ */
+public class HtmlSnapshot {
+
+    private final String html;
+    private final String markupHash;
+
+    private HtmlSnapshot(String html, String markupHash) {
+        this.html = html;
+        this.markupHash = markupHash;
+    }
+
+    public static HtmlSnapshot of(String html) {
+        return new HtmlSnapshot(html, markupHash(html));
+    }
+
+    public static HtmlSnapshot notModified(String markupHash) {
+        return new HtmlSnapshot(null, markupHash);
+    }
+
+    /**
+     * @return SHA-256 of the normalized markup, so markup that only differs in formatting has the same hash
+     */
+    public static String markupHash(String html) {
+        return ContentHash.sha256(ContentHash.normalizeHtml(html));
+    }
+
+    /**
+     * @return the markup, or null if the page was not modified
+     */
+    public String getHtml() {
+        return html;
+    }
+
+    /**
+     * @return {@link #markupHash(String)} of the page's current markup
+     */
+    public String getMarkupHash() {
+        return markupHash;
+    }
+
+    public boolean isModified() {
+        return html != null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+/**
+ * Provides the rendered HTML of an AEM page for accessibility scanning.
+ */
+public interface HtmlSnapshotService {
+
+    /**
+     * Fetches the rendered HTML of a page.
+     *
+     * @param pagePath e.g. /content/my-site/en
+     * @return HTML string or null if error
+     */
+    String fetchHtml(String pagePath);
+
+    /**
+     * Fetches a page like {@link #fetchHtml}, but may answer a page that has not changed since an earlier
+     * fetch with the hash of its markup alone.
+     *
+     * @param pagePath e.g. /content/my-site/en
+     * @return the snapshot, or null if error
+     */
+    default HtmlSnapshot fetchSnapshot(String pagePath) {
+        String html = fetchHtml(pagePath);
+        return html != null ? HtmlSnapshot.of(html) : null;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Client for the chat-completion endpoint of the language model provider, shared by everything in the
+ * bundle that talks to the model.
+ */
+public interface LlmClient {
+
+    /**
+     * Sends one chat completion.
+     *
+     * @param systemPrompt instructions for the model
+     * @param userPrompt the question
+     * @param onToken receives every piece of text as the model writes it; when null the answer is requested
+     *                in one piece
+     * @return the complete text of the answer
+     * @throws LlmException if the provider fails or times out, or if it is not called at all because too many
+     *                      calls are in flight or the provider is considered unhealthy
+     */
+    String complete(String systemPrompt, String userPrompt, Consumer<String> onToken) throws LlmException;
+
+    /**
+     * @return CLOSED while calls go through, OPEN while they fail fast, HALF_OPEN while a trial call runs
+     */
+    String getCircuitState();
+
+    int getInFlightCount();
+
+    /**
+     * @return calls that reached the provider
+     */
+    long getCallCount();
+
+    /**
+     * @return calls that reached the provider and failed
+     */
+    long getFailureCount();
+
+    /**
+     * @return calls refused without contacting the provider
+     */
+    long getRejectedCount();
+
+    long getTotalLatencyMillis();
+
+    long getMaxLatencyMillis();
+}
@@ -0,0 +1,31 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import com.adobe.granite.jmx.annotation.Description;
+
+/**
+ * Health and latency of the calls to the language model provider, as counted by {@link LlmClient}.
+ */
+@Description("A11y Accelerator - Language Model Client")
+public interface LlmClientMBean {
+
+    @Description("CLOSED while calls go through, OPEN while they fail fast, HALF_OPEN while a trial call runs")
+    String getCircuitState();
+
+    @Description("Calls to the provider running now")
+    int getInFlightCount();
+
+    @Description("Calls that reached the provider")
+    long getCallCount();
+
+    @Description("Calls that reached the provider and failed")
+    long getFailureCount();
+
+    @Description("Calls refused without contacting the provider")
+    long getRejectedCount();
+
+    @Description("Average duration of the calls that reached the provider, in milliseconds")
+    long getAverageLatencyMillis();
+
+    @Description("Longest call to the provider, in milliseconds")
+    long getMaxLatencyMillis();
+}
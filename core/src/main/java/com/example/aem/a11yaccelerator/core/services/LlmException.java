@@ -0,0 +1,42 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.io.IOException;
+
+/**
+ * A chat completion that produced no answer, with the HTTP status that best describes why.
+ */
+public class LlmException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int status;
+    private final String detail;
+
+    public LlmException(int status, String message) {
+        this(status, message, null, null);
+    }
+
+    public LlmException(int status, String message, String detail) {
+        this(status, message, detail, null);
+    }
+
+    public LlmException(int status, String message, String detail, Throwable cause) {
+        super(message, cause);
+        this.status = status;
+        this.detail = detail;
+    }
+
+    /**
+     * @return the provider's status, or 502, 503 or 504 when the provider did not answer
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the provider's response body or the underlying error message, may be null
+     */
+    public String getDetail() {
+        return detail;
+    }
+}
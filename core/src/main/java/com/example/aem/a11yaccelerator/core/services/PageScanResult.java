@@ -0,0 +1,63 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+/**
+ * Outcome of scanning one page with {@link PageScanService}.
+ */
+public class PageScanResult {
+
+    private final String pagePath;
+    private final String resultJson;
+    private final String contentHash;
+    private final String axeVersion;
+    private final boolean cached;
+    private final boolean stored;
+
+    public PageScanResult(String pagePath, String resultJson, String contentHash, String axeVersion,
+                          boolean cached, boolean stored) {
+        this.pagePath = pagePath;
+        this.resultJson = resultJson;
+        this.contentHash = contentHash;
+        this.axeVersion = axeVersion;
+        this.cached = cached;
+        this.stored = stored;
+    }
+
+    public String getPagePath() {
+        return pagePath;
+    }
+
+    /**
+     * @return the page's results as a JSON array, in the format kept under /var/a11y-scans
+     */
+    public String getResultJson() {
+        return resultJson;
+    }
+
+    /**
+     * @return cache key of the rendered markup the result belongs to
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    /**
+     * @return version of the axe-core engine the result was computed with
+     */
+    public String getAxeVersion() {
+        return axeVersion;
+    }
+
+    /**
+     * @return true if axe was not run because the markup was already scanned
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * @return true if this exact result is already stored for the page and does not need to be written again
+     */
+    public boolean isStored() {
+        return stored;
+    }
+}
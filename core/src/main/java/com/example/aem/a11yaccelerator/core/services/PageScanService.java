@@ -0,0 +1,18 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import javax.script.ScriptException;
+import java.io.IOException;
+
+/**
+ * Renders a page and runs axe-core on it, skipping the axe run when the markup was scanned before.
+ */
+public interface PageScanService {
+
+    /**
+     * @param pagePath content path of the page
+     * @return the page's results; not persisted unless {@link PageScanResult#isStored()} is true
+     * @throws IOException if the page markup cannot be obtained
+     * @throws ScriptException if axe-core cannot be run
+     */
+    PageScanResult scanPage(String pagePath) throws IOException, ScriptException;
+}
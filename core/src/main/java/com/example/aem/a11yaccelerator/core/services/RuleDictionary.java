@@ -0,0 +1,46 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+/**
+ * Metadata of axe rules, kept once per axe-core version below {@value #ROOT_PATH} instead of in every
+ * stored result. Each entry holds the rule's {@link #METADATA_FIELDS} as reported by axe, plus the
+ * {@code wcagLevel} and {@code wcagCriteria} derived from its tags.
+ * <p>
+ * Compact results keep the per-page fields of a rule ({@code id}, {@code impact}, {@code type},
+ * {@code nodes}) and are expanded again with the dictionary of the axe version they were scanned with.
+ */
+public interface RuleDictionary {
+
+    String ROOT_PATH = "/var/a11y-rules";
+
+    /** Rule fields that are the same on every page and move into the dictionary. */
+    String[] METADATA_FIELDS = { "help", "helpUrl", "description", "tags" };
+
+    /**
+     * Records the metadata of the rules in the dictionary of the version, without saving, and returns
+     * copies of the rules without it. Rules without an id, and rules whose metadata differs from the
+     * entry already recorded for their id, are returned unchanged.
+     *
+     * @param session session of the service user
+     * @param axeVersion version of axe-core that produced the rules
+     * @param rules a page's results
+     */
+    JSONArray compact(Session session, String axeVersion, JSONArray rules) throws RepositoryException;
+
+    /**
+     * Adds the dictionary metadata back to the rules of a compact result. Fields a rule already has are kept.
+     *
+     * @return the expanded result as a JSON array
+     */
+    String expand(Session session, String axeVersion, String scanResultJson) throws RepositoryException;
+
+    /**
+     * @return the entries of a version keyed by rule id, or null if no rule is recorded for it
+     */
+    JSONObject getRules(Session session, String axeVersion) throws RepositoryException;
+}
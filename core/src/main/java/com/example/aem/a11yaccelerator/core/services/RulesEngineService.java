@@ -1,8 +1,27 @@
 package com.example.aem.a11yaccelerator.core.services;
-import com.adobe.forms.foundation.transfer.AssetScanInfo.Issue;
-import org.osgi.service.component.annotations.Component;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+
 import java.util.List;
 
+/**
+ * Pre-scan that checks stored page content against the registered
+ * {@link com.example.aem.a11yaccelerator.core.rules.ContentRule}s without rendering the page.
+ */
 public interface RulesEngineService {
+
+    /**
+     * @param path content path of the page
+     * @return issues found; empty if the page does not exist
+     */
     List<Issue> scanPage(String path);
+
+    /**
+     * Checks a page with the caller's resolver, for callers walking many pages.
+     *
+     * @param page the page to check
+     * @return issues found
+     */
+    List<Issue> scanPage(Page page);
 }
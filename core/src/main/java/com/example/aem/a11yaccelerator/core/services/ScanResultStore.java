@@ -0,0 +1,216 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import org.apache.sling.api.resource.LoginException;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Persists per-page scan results under /var/a11y-scans, mirroring the content path of the page.
+ * Besides the result JSON, every element reported for a rule is stored as a node below
+ * {@value #ISSUES_NODE} with typed, indexed properties so issues can be queried across pages.
+ */
+public interface ScanResultStore {
+
+    String ROOT_PATH = "/var/a11y-scans";
+
+    String RESULT_NODE = "scanResult";
+
+    String CONTENT_HASH_PROPERTY = "contentHash";
+
+    /**
+     * axe-core version of a result stored in compact form, whose rules only keep their per-page fields;
+     * the rest is in the {@link RuleDictionary} of that version.
+     */
+    String AXE_VERSION_PROPERTY = "axeVersion";
+
+    /** Child of the scanResult node holding one node per reported element. */
+    String ISSUES_NODE = "issues";
+
+    String RULE_ID_PROPERTY = "ruleId";
+
+    String IMPACT_PROPERTY = "impact";
+
+    String TYPE_PROPERTY = "type";
+
+    String WCAG_LEVEL_PROPERTY = "wcagLevel";
+
+    String WCAG_CRITERIA_PROPERTY = "wcagCriteria";
+
+    String COMPONENT_PATH_PROPERTY = "componentPath";
+
+    String RESOURCE_TYPE_PROPERTY = "resourceType";
+
+    String FINGERPRINT_PROPERTY = "fingerprint";
+
+    String TARGET_PROPERTY = "target";
+
+    String HTML_PROPERTY = "html";
+
+    /**
+     * Child holding issue counts: on a scanResult node those of the page, on a folder those of its subtree.
+     * It has {@value #ROLLUP_TOTAL} and {@value #ROLLUP_PAGES} properties and a child per group. Only
+     * folders from the store's configured rollup level down have one; see {@link #readSummary}.
+     */
+    String ROLLUP_NODE = "rollup";
+
+    String ROLLUP_TOTAL = "total";
+
+    String ROLLUP_PAGES = "pages";
+
+    String ROLLUP_IMPACT = "impact";
+
+    String ROLLUP_RULE = "rule";
+
+    String ROLLUP_WCAG_LEVEL = "wcagLevel";
+
+    /**
+     * Time of the last change to a result in the subtree of a folder, set on the page's folder and its
+     * ancestors down to the rollup level so a subtree's change can be detected without visiting it. Writes
+     * that store the same result as before leave it alone, and every change moves it forward by at least a
+     * millisecond, so it can serve as a validator. See {@link #getSubtreeModified}.
+     */
+    String SUBTREE_MODIFIED_PROPERTY = "subtreeModified";
+
+    /** Child of the scanResult node holding the issue lists of earlier runs, stored as deltas. */
+    String HISTORY_NODE = "history";
+
+    /**
+     * Writes the result for one page into the given session without saving it,
+     * so callers can group several pages into one commit. The rollup counts of every ancestor
+     * folder are adjusted by the difference to the page's previous result, and the issues are
+     * appended to the page's history as a new run.
+     *
+     * @param session session of the service user
+     * @param pagePath content path of the scanned page
+     * @param scanResultJson the page's axe results as a JSON array
+     * @param contentHash cache key of the markup the result was computed from, or null if unknown
+     * @param axeVersion axe-core version that produced the result; if given, the result is stored in
+     *                   compact form, otherwise as it is
+     * @return the written scanResult node
+     */
+    Node writeResult(Session session, String pagePath, String scanResultJson, String contentHash, String axeVersion)
+            throws RepositoryException;
+
+    /**
+     * Queues the result for one page for the store's writer, which saves queued results in shared commits
+     * and retries commits that conflict with concurrent changes. Blocks while the queue is full.
+     *
+     * @param pagePath content path of the scanned page
+     * @param scanResultJson the page's axe results as a JSON array
+     * @param contentHash cache key of the markup the result was computed from, or null if unknown
+     * @param axeVersion axe-core version that produced the result, or null if unknown
+     * @return completes once the result is saved, or exceptionally with the
+     *         {@link RepositoryException} or {@link LoginException} that prevented it, which includes the
+     *         store being stopped before the result was saved
+     */
+    CompletableFuture<Void> submitResult(String pagePath, String scanResultJson, String contentHash,
+                                         String axeVersion);
+
+    /**
+     * Queues a change below /var/a11y-scans for the store's writer, which applies it in the same commits
+     * as queued results. Jobs that remove or rewrite stored results use it, so their changes to shared
+     * folders and rollups never conflict with results being stored at the same time. A change is applied
+     * again on the refreshed state if its commit conflicts with another cluster member, so it must read
+     * what it changes from the session it is given.
+     *
+     * @param pagePath content path of the page the change is about, for logging
+     * @param change the change, applied with the writer's session and saved by the writer
+     * @return completes with the change's value once it is saved, or exceptionally as for
+     *         {@link #submitResult}
+     */
+    <T> CompletableFuture<T> submitChange(String pagePath, Change<T> change);
+
+    /**
+     * Writes and saves the result for one page using the bundle's service user, through the same
+     * queue as {@link #submitResult}, and waits until it is saved, for at most the store's configured
+     * timeout.
+     *
+     * @param pagePath content path of the scanned page
+     * @param scanResultJson the page's axe results as a JSON array
+     * @param contentHash cache key of the markup the result was computed from, or null if unknown
+     * @param axeVersion axe-core version that produced the result, or null if unknown
+     */
+    void storeResult(String pagePath, String scanResultJson, String contentHash, String axeVersion)
+            throws LoginException, RepositoryException;
+
+    /**
+     * @param resultNode a scanResult node
+     * @return the stored result with the rule metadata of compact results restored, or null if the node
+     *         holds no result
+     */
+    String readResult(Node resultNode) throws RepositoryException, IOException;
+
+    /**
+     * Removes the result of one page in the given session without saving it. The page's counts are
+     * subtracted from the ancestor rollups and folders left without results are removed.
+     *
+     * @param session session of the service user
+     * @param pagePath content path of the page
+     * @return false if no result was stored for the page
+     */
+    boolean removeResult(Session session, String pagePath) throws RepositoryException;
+
+    /**
+     * Removes the oldest runs from a page's history in the given session without saving it.
+     * The latest run is always kept; the oldest kept run is rewritten as a full run if needed.
+     *
+     * @param session session of the service user
+     * @param pagePath content path of the page
+     * @param maxRuns number of runs to keep, or 0 for no limit
+     * @param notBefore runs older than this are removed, or null for no age limit
+     * @return the number of removed runs
+     */
+    int pruneHistory(Session session, String pagePath, int maxRuns, Calendar notBefore) throws RepositoryException;
+
+    /**
+     * @param session session able to read /var/a11y-scans
+     * @param pagePath content path of the page
+     * @return a JSON array with {@code {run, runAt, contentHash, total, added, removed}} per recorded run,
+     *         oldest first, or null if the page has no history
+     */
+    String readHistory(Session session, String pagePath) throws RepositoryException;
+
+    /**
+     * @param session session able to read /var/a11y-scans
+     * @param pagePath content path of the page
+     * @param run number of the run as listed by {@link #readHistory}
+     * @return the issues of that run as a JSON array of issue entries, or null if the run is not recorded
+     */
+    String readRun(Session session, String pagePath, long run) throws RepositoryException;
+
+    /**
+     * Issue counts of the results below a page or folder. Folders above the rollup level, which every
+     * site shares, keep no counts of their own and are summed from the folders at that level.
+     *
+     * @param session session able to read /var/a11y-scans
+     * @param contentPath content path of the page or folder, empty for all results
+     * @return a JSON object {@code {total, pages, impact, rule, wcagLevel}}, where the last three map each
+     *         impact, rule id or WCAG level to its count, or null if there are no counted results below it
+     */
+    String readSummary(Session session, String contentPath) throws RepositoryException;
+
+    /**
+     * @param session session able to read /var/a11y-scans
+     * @param contentPath content path of the page or folder, empty for all results
+     * @return the last change to a result below it, see {@link #SUBTREE_MODIFIED_PROPERTY}, or null if
+     *         none is recorded
+     */
+    Calendar getSubtreeModified(Session session, String contentPath) throws RepositoryException;
+
+    /**
+     * A change applied by the store's writer, see {@link #submitChange}.
+     */
+    @FunctionalInterface
+    interface Change<T> {
+
+        /**
+         * @param session the writer's session; the change must not save it
+         */
+        T apply(Session session) throws RepositoryException;
+    }
+}
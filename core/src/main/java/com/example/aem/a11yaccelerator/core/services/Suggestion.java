@@ -0,0 +1,69 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+/**
+ * Outcome of a {@link SuggestionRequest}: either the suggested remediation or the reason there is none.
+ */
+public class Suggestion {
+
+    private final String ruleId;
+    private final String text;
+    private final boolean cached;
+    private final int status;
+    private final String error;
+    private final String detail;
+
+    private Suggestion(String ruleId, String text, boolean cached, int status, String error, String detail) {
+        this.ruleId = ruleId;
+        this.text = text;
+        this.cached = cached;
+        this.status = status;
+        this.error = error;
+        this.detail = detail;
+    }
+
+    public static Suggestion of(String ruleId, String text, boolean cached) {
+        return new Suggestion(ruleId, text, cached, 200, null, null);
+    }
+
+    /**
+     * @param status HTTP status that best describes the failure
+     * @param detail further information, such as the model provider's response, or null
+     */
+    public static Suggestion failed(String ruleId, int status, String error, String detail) {
+        return new Suggestion(ruleId, null, false, status, error, detail);
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    /**
+     * @return the suggested remediation, or null if the request failed
+     */
+    public String getText() {
+        return text;
+    }
+
+    /**
+     * @return whether the suggestion was answered from the cache instead of the model
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public boolean isFailed() {
+        return error != null;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.List;
+
+/**
+ * Remediation suggestions already generated for an issue, so that the same rule reported on the same
+ * markup is only sent to the language model once.
+ * <p>
+ * Entries are keyed by the rule id and a hash of the normalized snippet, which ignores formatting and
+ * generated attribute values. The copy of a component's markup on every page of a site therefore
+ * shares one entry.
+ */
+public interface SuggestionCache {
+
+    String ROOT_PATH = "/var/a11y-suggestions";
+
+    /**
+     * @return the cached suggestion, or null if there is none
+     */
+    String get(String ruleId, String snippet);
+
+    /**
+     * Caches a suggestion. Failing to persist it is logged and does not fail the caller.
+     */
+    void put(String ruleId, String snippet, String suggestion);
+
+    /**
+     * @return paths of the persisted entries older than the configured maximum age, which are no longer
+     *         served and can be removed
+     */
+    List<String> findExpired(Session session) throws RepositoryException;
+}
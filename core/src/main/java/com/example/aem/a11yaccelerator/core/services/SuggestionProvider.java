@@ -0,0 +1,29 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.function.Consumer;
+
+/**
+ * Writes the text of a remediation suggestion. {@link SuggestionService} runs the provider named in its
+ * configuration and takes care of the pooling, deduplication, caching and streaming around it.
+ */
+public interface SuggestionProvider {
+
+    /**
+     * @return the name the suggestion service is configured with to use this provider
+     */
+    String getName();
+
+    /**
+     * @return whether answers should be cached; providers that answer at once from local data gain nothing
+     *         from the cache, and keeping them out of it keeps their answers reproducible
+     */
+    boolean isCacheable();
+
+    /**
+     * Writes a suggestion for one issue.
+     *
+     * @param onToken receives every piece of text as it is written; may be null
+     * @return the suggestion, or a failed one with the status that best describes why there is none
+     */
+    Suggestion suggest(SuggestionRequest request, Consumer<String> onToken);
+}
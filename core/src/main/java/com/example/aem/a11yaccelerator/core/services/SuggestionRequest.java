@@ -0,0 +1,29 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+/**
+ * An issue to suggest a remediation for: the axe rule, the offending markup and the rule's help text.
+ */
+public class SuggestionRequest {
+
+    private final String ruleId;
+    private final String snippet;
+    private final String help;
+
+    public SuggestionRequest(String ruleId, String snippet, String help) {
+        this.ruleId = ruleId != null ? ruleId : "";
+        this.snippet = snippet != null ? snippet : "";
+        this.help = help != null ? help : "";
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public String getHelp() {
+        return help;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.List;
+
+/**
+ * Suggests remediations for accessibility issues with a language model, answering repeated issues from
+ * the {@link SuggestionCache}.
+ * <p>
+ * Requests for the same rule and equivalent markup that are in flight at the same time share one model
+ * call, and all calls run on a bounded pool, so bursts of requests cannot open an unbounded number of
+ * connections to the model provider.
+ */
+public interface SuggestionService {
+
+    /**
+     * @return the suggestion; failures are reported in the result rather than thrown
+     */
+    Suggestion suggest(SuggestionRequest request);
+
+    /**
+     * Suggests remediations for many issues at once. Equivalent requests are sent to the model once and
+     * the rest are run concurrently up to the configured limit.
+     *
+     * @return one suggestion per request, in request order
+     * @throws IllegalArgumentException if there are more requests than a batch may have
+     */
+    List<Suggestion> suggestAll(List<SuggestionRequest> requests);
+
+    /**
+     * Starts generating a suggestion in the background and returns at once. The text can be read from
+     * the stream while the model produces it; a cached suggestion comes as an already completed stream.
+     * Equivalent requests made while a stream is running get that stream.
+     */
+    SuggestionStream stream(SuggestionRequest request);
+
+    /**
+     * @return the stream with the given id, or null if there is none or it ended too long ago
+     */
+    SuggestionStream getStream(String id);
+}
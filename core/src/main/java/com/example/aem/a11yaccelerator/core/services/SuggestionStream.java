@@ -0,0 +1,85 @@
+package com.example.aem.a11yaccelerator.core.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A suggestion being generated in the background, readable while its text arrives.
+ * <p>
+ * The text is kept as the list of chunks the model produced, so a reader can pick up at any chunk index,
+ * for example after reconnecting.
+ */
+public class SuggestionStream {
+
+    private final String id;
+    private final String ruleId;
+    private final List<String> chunks = new ArrayList<>();
+    private Suggestion result;
+    private long finishedAt;
+
+    public SuggestionStream(String id, String ruleId) {
+        this.id = id;
+        this.ruleId = ruleId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getRuleId() {
+        return ruleId;
+    }
+
+    public synchronized void append(String chunk) {
+        if (result == null && chunk != null && !chunk.isEmpty()) {
+            chunks.add(chunk);
+            notifyAll();
+        }
+    }
+
+    /**
+     * Ends the stream. A successful suggestion whose text was not streamed is added as a single chunk.
+     */
+    public synchronized void complete(Suggestion suggestion) {
+        if (result != null) {
+            return;
+        }
+        if (!suggestion.isFailed() && chunks.isEmpty() && suggestion.getText() != null) {
+            chunks.add(suggestion.getText());
+        }
+        result = suggestion;
+        finishedAt = System.currentTimeMillis();
+        notifyAll();
+    }
+
+    /**
+     * Waits until there are chunks from index {@code from} on or the stream has ended, at most for the
+     * given time.
+     *
+     * @return the chunks from index {@code from} on, possibly none
+     */
+    public synchronized List<String> await(int from, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long remaining = timeoutMillis;
+        while (chunks.size() <= from && result == null && remaining > 0) {
+            wait(remaining);
+            remaining = deadline - System.currentTimeMillis();
+        }
+        return from < chunks.size() ? new ArrayList<>(chunks.subList(from, chunks.size())) : Collections.emptyList();
+    }
+
+    /**
+     * @return the outcome, or null while the suggestion is still being generated
+     */
+    public synchronized Suggestion getResult() {
+        return result;
+    }
+
+    /**
+     * @return when the stream ended in epoch milliseconds, 0 while it is running
+     */
+    public synchronized long getFinishedAt() {
+        return finishedAt;
+    }
+}
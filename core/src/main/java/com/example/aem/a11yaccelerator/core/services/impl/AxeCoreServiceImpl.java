@@ -1,10 +1,13 @@
 package com.example.aem.a11yaccelerator.core.services.impl;
 
-import com.adobe.forms.foundation.transfer.AssetScanInfo.Issue;
+import com.example.aem.a11yaccelerator.core.models.Issue;
 import com.example.aem.a11yaccelerator.core.services.AxeCoreService;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshotService;
 import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -14,6 +17,9 @@ import java.util.List;
 @Component(service = AxeCoreService.class, immediate = true)
 public class AxeCoreServiceImpl implements AxeCoreService {
 
+    @Reference
+    private HtmlSnapshotService htmlSnapshotService;
+
     @Override
     public List<Issue> checkPage(String path) {
         List<Issue> issues = new ArrayList<>();
@@ -21,25 +27,6 @@ public class AxeCoreServiceImpl implements AxeCoreService {
         try {
             // 🔹 Step 1: Fetch HTML snapshot of the page
             String html = fetchPageHtml(path);
-                /*  1. Run AEM custom rules
-                    if (pageTitleEmpty(String path)) {
-                        issues.add(new Issue(
-                            "page-title-missing",
-                            "Page title is empty",
-                            path + "/jcr:content",
-                            "A"
-                        ));
-                    }
-
-                    if (imageAltMissing(path)) {
-                        issues.add(new Issue(
-                            "img-alt-missing",
-                            "Image missing alt attribute",
-                            path + "/jcr:content/image",
-                            "A"
-                        ));
-                    }
-*/
             // 🔹 Step 2: Run axe-core analysis (through JS runner / Node integration)
             List<Issue> axeIssues = runAxeCore(html);
 
@@ -57,10 +44,12 @@ public class AxeCoreServiceImpl implements AxeCoreService {
     /**
      * Fetch HTML snapshot for given AEM page.
      */
-    private String fetchPageHtml(String path) {
-        // TODO: Use HtmlSnapshotFetcher or Sling HTTP client
-        // Example placeholder return
-        return "<html><body><img src='test.png'></body></html>";
+    private String fetchPageHtml(String path) throws IOException {
+        String html = htmlSnapshotService.fetchHtml(path);
+        if (html == null) {
+            throw new IOException("Failed to fetch HTML snapshot");
+        }
+        return html;
     }
 
     /**
@@ -71,10 +60,8 @@ public class AxeCoreServiceImpl implements AxeCoreService {
         List<Issue> issues = new ArrayList<>();
 
         // Example stub issue for missing alt text
-        // Issue missingAlt = new Issue();
-        // missingAlt.setId("img-alt-missing");
-        // missingAlt.setDescription("Image is missing alt attribute");
-        // issues.add(missingAlt);
+        // issues.add(new Issue("image-alt", null, null, "image", "violation", "A",
+        //         "Image is missing alt attribute", null, null));
 
         return issues;
     }
@@ -0,0 +1,232 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.AxeEnginePool;
+import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.script.ScriptException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a fixed number of {@link AxeCoreRunner}s with axe-core already evaluated, so a scan
+ * only pays for the axe run and not for creating the engine and parsing axe.min.js.
+ * The pool is filled when the component activates. An engine that fails during a scan is closed and
+ * replaced by a new one; idle engines are closed when the component deactivates.
+ */
+@Designate(ocd = AxeEnginePoolImpl.Config.class)
+@Component(service = AxeEnginePool.class, immediate = true)
+public class AxeEnginePoolImpl implements AxeEnginePool {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - axe-core Engine Pool",
+                           description = "Pre-warmed script engines used to run axe-core on the server")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Pool size",
+                             description = "Number of engines kept warm; also the maximum number of concurrent axe runs")
+        int poolSize() default 4;
+
+        @AttributeDefinition(name = "Borrow timeout (ms)",
+                             description = "How long a scan waits for a free engine before failing")
+        long borrowTimeoutMs() default 30000;
+
+        @AttributeDefinition(name = "Script engine name",
+                             description = "JSR-223 engine name, e.g. 'graal.js' on GraalVM or 'nashorn'")
+        String engineName() default AxeCoreRunner.DEFAULT_ENGINE_NAME;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(AxeEnginePoolImpl.class);
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong returnCount = new AtomicLong();
+    private final AtomicLong borrowTimeoutCount = new AtomicLong();
+    private final AtomicLong totalBorrowWaitMillis = new AtomicLong();
+
+    private BlockingQueue<AxeCoreRunner> idle;
+    private volatile String axeVersion = "";
+    private volatile boolean closed;
+    private int poolSize;
+    private long borrowTimeoutMs;
+    private String engineName;
+
+    @Activate
+    protected void activate(final Config config) {
+        poolSize = Math.max(1, config.poolSize());
+        borrowTimeoutMs = Math.max(0, config.borrowTimeoutMs());
+        engineName = config.engineName();
+        idle = new LinkedBlockingQueue<>(poolSize);
+        created.set(0);
+        closed = false;
+
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < poolSize; i++) {
+            AxeCoreRunner runner = createRunner();
+            if (runner == null) {
+                break;
+            }
+            idle.offer(runner);
+        }
+        log.info("axe-core engine pool warmed up with {}/{} engines in {} ms",
+                idle.size(), poolSize, System.currentTimeMillis() - start);
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        closed = true;
+        if (idle == null) {
+            return;
+        }
+        List<AxeCoreRunner> drained = new ArrayList<>();
+        idle.drainTo(drained);
+        drained.forEach(AxeCoreRunner::close);
+        // Engines still borrowed are closed as they are released
+        log.info("Closed {} idle axe-core engines", drained.size());
+    }
+
+    @Override
+    public AxeCoreRunner borrow() throws ScriptException {
+        if (closed) {
+            throw new ScriptException("axe-core engine pool is closed");
+        }
+        long start = System.currentTimeMillis();
+        AxeCoreRunner runner = idle.poll();
+        if (runner == null) {
+            // Engines that failed to warm up are retried lazily, up to the pool size
+            runner = createRunner();
+        }
+        if (runner == null) {
+            try {
+                runner = idle.poll(borrowTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScriptException("Interrupted while waiting for an axe-core engine");
+            }
+        }
+        totalBorrowWaitMillis.addAndGet(System.currentTimeMillis() - start);
+        if (runner == null) {
+            borrowTimeoutCount.incrementAndGet();
+            throw new ScriptException("No axe-core engine available within " + borrowTimeoutMs + " ms");
+        }
+        borrowCount.incrementAndGet();
+        return runner;
+    }
+
+    @Override
+    public void release(AxeCoreRunner runner) {
+        if (runner == null) {
+            return;
+        }
+        if (closed) {
+            discard(runner);
+        } else if (!idle.offer(runner)) {
+            log.warn("axe-core engine returned to a full pool, discarding it");
+            discard(runner);
+        } else {
+            returnCount.incrementAndGet();
+        }
+    }
+
+    @Override
+    public String runAccessibilityScan(String html) throws ScriptException {
+        AxeCoreRunner runner = borrow();
+        boolean broken = true;
+        try {
+            String result = runner.runAccessibilityScan(html);
+            broken = false;
+            return result;
+        } finally {
+            if (broken) {
+                log.warn("axe-core engine failed during a scan, replacing it");
+                discard(runner);
+                // Scans waiting for an engine are only woken by one entering the pool
+                AxeCoreRunner replacement = closed ? null : createRunner();
+                if (replacement != null && !idle.offer(replacement)) {
+                    created.decrementAndGet();
+                    replacement.close();
+                }
+            } else {
+                release(runner);
+            }
+        }
+    }
+
+    /**
+     * Closes a borrowed runner instead of returning it, which frees its place for a new engine.
+     */
+    private void discard(AxeCoreRunner runner) {
+        returnCount.incrementAndGet();
+        created.decrementAndGet();
+        runner.close();
+    }
+
+    private AxeCoreRunner createRunner() {
+        if (created.incrementAndGet() > poolSize) {
+            created.decrementAndGet();
+            return null;
+        }
+        try {
+            AxeCoreRunner runner = newRunner(engineName);
+            axeVersion = runner.getAxeVersion();
+            return runner;
+        } catch (ScriptException e) {
+            created.decrementAndGet();
+            log.error("Could not create axe-core engine '{}': {}", engineName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Creates an engine with axe-core loaded; tests replace it to run without a script engine.
+     */
+    AxeCoreRunner newRunner(String engineName) throws ScriptException {
+        return new AxeCoreRunner(engineName);
+    }
+
+    @Override
+    public String getAxeVersion() {
+        return axeVersion;
+    }
+
+    @Override
+    public int getPoolSize() {
+        return poolSize;
+    }
+
+    @Override
+    public int getAvailableCount() {
+        return idle.size();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return borrowCount.get();
+    }
+
+    @Override
+    public long getReturnCount() {
+        return returnCount.get();
+    }
+
+    @Override
+    public long getBorrowTimeoutCount() {
+        return borrowTimeoutCount.get();
+    }
+
+    @Override
+    public long getTotalBorrowWaitMillis() {
+        return totalBorrowWaitMillis.get();
+    }
+}
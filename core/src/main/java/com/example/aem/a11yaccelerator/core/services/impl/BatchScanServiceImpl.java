@@ -0,0 +1,132 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.BatchScanJob;
+import com.example.aem.a11yaccelerator.core.services.BatchScanService;
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.WorkerPools;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs batch scans on a fixed-size executor with a bounded queue. Job progress is kept
+ * in memory for a configurable time after the job completes.
+ */
+@Designate(ocd = BatchScanServiceImpl.Config.class)
+@Component(service = BatchScanService.class)
+public class BatchScanServiceImpl implements BatchScanService {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Batch Scan Service",
+                           description = "Worker pool for server-side multi-page scans")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Worker threads",
+                             description = "Number of pages scanned in parallel")
+        int workerThreads() default 4;
+
+        @AttributeDefinition(name = "Max queued pages",
+                             description = "Pages waiting for a worker; submissions beyond this are rejected")
+        int maxQueuedPages() default 10000;
+
+        @AttributeDefinition(name = "Job retention (minutes)",
+                             description = "How long a finished job can still be polled")
+        long jobRetentionMinutes() default 60;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(BatchScanServiceImpl.class);
+
+    @Reference
+    private PageScanService pageScanService;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    private final Map<String, BatchScanJob> jobs = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+
+    private ThreadPoolExecutor executor;
+    private long jobRetentionMillis;
+
+    public BatchScanServiceImpl() {
+        this(System::currentTimeMillis);
+    }
+
+    BatchScanServiceImpl(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Activate
+    protected void activate(final Config config) {
+        jobRetentionMillis = TimeUnit.MINUTES.toMillis(Math.max(1, config.jobRetentionMinutes()));
+        executor = WorkerPools.bounded("a11y-batch-scan-", config.workerThreads(), config.maxQueuedPages());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        jobs.clear();
+    }
+
+    @Override
+    public BatchScanJob submit(Collection<String> pagePaths) {
+        purgeExpiredJobs();
+        if (pagePaths.size() > executor.getQueue().remainingCapacity()) {
+            throw new IllegalStateException("Scan queue is full, " + executor.getQueue().size()
+                    + " pages are already waiting");
+        }
+        BatchScanJob job = new BatchScanJob(UUID.randomUUID().toString(), pagePaths.size());
+        jobs.put(job.getId(), job);
+        for (String pagePath : pagePaths) {
+            try {
+                executor.execute(() -> scanPage(job, pagePath));
+            } catch (RejectedExecutionException e) {
+                job.pageFailed(pagePath, "Scan queue is full");
+            }
+        }
+        log.info("Batch scan {} queued with {} pages", job.getId(), pagePaths.size());
+        return job;
+    }
+
+    @Override
+    public BatchScanJob getJob(String jobId) {
+        return jobId != null ? jobs.get(jobId) : null;
+    }
+
+    private void scanPage(BatchScanJob job, String pagePath) {
+        try {
+            PageScanResult result = pageScanService.scanPage(pagePath);
+            if (!result.isStored()) {
+                scanResultStore.storeResult(pagePath, result.getResultJson(), result.getContentHash(),
+                        result.getAxeVersion());
+            }
+            job.pageSucceeded();
+        } catch (Exception e) {
+            log.warn("Batch scan {} failed for {}: {}", job.getId(), pagePath, e.getMessage());
+            job.pageFailed(pagePath, e.getMessage());
+        }
+    }
+
+    private void purgeExpiredJobs() {
+        long cutoff = clock.getAsLong() - jobRetentionMillis;
+        jobs.values().removeIf(job -> job.getFinishedAt() > 0 && job.getFinishedAt() < cutoff);
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.LlmClient;
+import com.example.aem.a11yaccelerator.core.services.LlmException;
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionProvider;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * Asks the language model for a suggestion through {@link LlmClient}.
+ */
+@Component(service = SuggestionProvider.class)
+public class ChatCompletionSuggestionProvider implements SuggestionProvider {
+
+    static final String NAME = "remote";
+
+    private static final String SYSTEM_PROMPT = "You are an accessibility expert specializing in WCAG compliance.";
+
+    private static final Logger log = LoggerFactory.getLogger(ChatCompletionSuggestionProvider.class);
+
+    @Reference
+    private LlmClient llmClient;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return true;
+    }
+
+    @Override
+    public Suggestion suggest(SuggestionRequest request, Consumer<String> onToken) {
+        String ruleId = request.getRuleId();
+        String prompt = "Accessibility issue (" + ruleId + "): Suggest a fix for this HTML snippet:\n"
+                + request.getSnippet()
+                + "\nReference: " + request.getHelp()
+                + "\nExplain briefly why this fix improves accessibility.";
+        try {
+            return Suggestion.of(ruleId, llmClient.complete(SYSTEM_PROMPT, prompt, onToken), false);
+        } catch (LlmException e) {
+            log.warn("Suggestion for {} failed: {}", ruleId, e.getMessage());
+            return Suggestion.failed(ruleId, e.getStatus(), e.getMessage(), e.getDetail());
+        }
+    }
+}
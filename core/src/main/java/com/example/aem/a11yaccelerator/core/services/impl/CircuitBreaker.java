@@ -0,0 +1,86 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops calls to a dependency that keeps failing.
+ * <p>
+ * After {@code failureThreshold} failures in a row the circuit opens and calls are refused for
+ * {@code openMillis}. Then a single trial call is let through: its success closes the circuit, its failure
+ * opens it again.
+ */
+final class CircuitBreaker {
+
+    static final String CLOSED = "CLOSED";
+    static final String OPEN = "OPEN";
+    static final String HALF_OPEN = "HALF_OPEN";
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final LongSupplier clock;
+
+    private String state = CLOSED;
+    private int failures;
+    private long openUntil;
+    private boolean trialRunning;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this(failureThreshold, openMillis, System::currentTimeMillis);
+    }
+
+    CircuitBreaker(int failureThreshold, long openMillis, LongSupplier clock) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+        this.clock = clock;
+    }
+
+    /**
+     * @return whether a call may be made now; every permitted call must be followed by
+     *         {@link #onSuccess()}, {@link #onFailure()} or {@link #release()}
+     */
+    synchronized boolean tryAcquire() {
+        if (OPEN.equals(state) && clock.getAsLong() >= openUntil) {
+            state = HALF_OPEN;
+        }
+        if (CLOSED.equals(state)) {
+            return true;
+        }
+        if (HALF_OPEN.equals(state) && !trialRunning) {
+            trialRunning = true;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        state = CLOSED;
+        failures = 0;
+        trialRunning = false;
+    }
+
+    /**
+     * Ends a permitted call whose outcome says nothing about the dependency's health, such as a rejected
+     * request. The state and the run of failures are left as they are.
+     */
+    synchronized void release() {
+        trialRunning = false;
+    }
+
+    /**
+     * @return whether this failure opened the circuit
+     */
+    synchronized boolean onFailure() {
+        trialRunning = false;
+        failures++;
+        if (OPEN.equals(state) || !HALF_OPEN.equals(state) && failures < failureThreshold) {
+            return false;
+        }
+        state = OPEN;
+        openUntil = clock.getAsLong() + openMillis;
+        return true;
+    }
+
+    synchronized String getState() {
+        return state;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Maps elements reported by axe-core back to the component resources that rendered them.
+ * <p>
+ * Core components render an {@code id} of the form {@code <name>-<first 10 hex chars of sha256(path)>},
+ * or the author-defined {@code id} property. Both are precomputed for every resource below the page's
+ * {@code jcr:content}, and the ids found in an element's selector or markup are looked up in them.
+ */
+final class ComponentLocator {
+
+    private static final Pattern SELECTOR_ID = Pattern.compile("#([A-Za-z][\\w-]*)");
+    private static final Pattern ATTRIBUTE_ID = Pattern.compile("\\bid=\"([^\"]+)\"");
+    private static final Pattern GENERATED_ID = Pattern.compile("-([0-9a-f]{10})$");
+
+    private static final ComponentLocator EMPTY = new ComponentLocator(new HashMap<>(), new HashMap<>());
+
+    private final Map<String, Node> byHash;
+    private final Map<String, Node> byExplicitId;
+
+    private ComponentLocator(Map<String, Node> byHash, Map<String, Node> byExplicitId) {
+        this.byHash = byHash;
+        this.byExplicitId = byExplicitId;
+    }
+
+    /**
+     * @return a locator for the page, or one that never matches if the page content cannot be read
+     */
+    static ComponentLocator forPage(Session session, String pagePath) throws RepositoryException {
+        String contentPath = pagePath.replaceAll("\\.html$", "") + "/jcr:content";
+        if (!session.nodeExists(contentPath)) {
+            return EMPTY;
+        }
+        Map<String, Node> byHash = new HashMap<>();
+        Map<String, Node> byExplicitId = new HashMap<>();
+        index(session.getNode(contentPath), byHash, byExplicitId);
+        return new ComponentLocator(byHash, byExplicitId);
+    }
+
+    private static void index(Node node, Map<String, Node> byHash, Map<String, Node> byExplicitId)
+            throws RepositoryException {
+        NodeIterator children = node.getNodes();
+        while (children.hasNext()) {
+            Node child = children.nextNode();
+            byHash.put(DigestUtils.sha256Hex(child.getPath()).substring(0, 10), child);
+            if (child.hasProperty("id")) {
+                byExplicitId.put(child.getProperty("id").getString(), child);
+            }
+            index(child, byHash, byExplicitId);
+        }
+    }
+
+    /**
+     * @param target axe-core selector of the element
+     * @param html markup of the element
+     * @return the rendering component, or null if no id in the selector or markup matches
+     */
+    Node locate(String target, String html) {
+        if (byHash.isEmpty()) {
+            return null;
+        }
+        Node found = locate(ATTRIBUTE_ID, html);
+        return found != null ? found : locate(SELECTOR_ID, target);
+    }
+
+    private Node locate(Pattern idPattern, String text) {
+        if (text == null) {
+            return null;
+        }
+        Node found = null;
+        Matcher ids = idPattern.matcher(text);
+        // The last id in a selector is the closest ancestor of the element
+        while (ids.find()) {
+            Node candidate = byId(ids.group(1));
+            if (candidate != null) {
+                found = candidate;
+            }
+        }
+        return found;
+    }
+
+    private Node byId(String id) {
+        Node explicit = byExplicitId.get(id);
+        if (explicit != null) {
+            return explicit;
+        }
+        Matcher generated = GENERATED_ID.matcher(id);
+        return generated.find() ? byHash.get(generated.group(1)) : null;
+    }
+}
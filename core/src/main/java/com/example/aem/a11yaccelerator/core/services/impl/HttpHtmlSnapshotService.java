@@ -0,0 +1,189 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshot;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshotService;
+import com.example.aem.a11yaccelerator.core.utils.LruCache;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Fetches rendered page HTML over HTTP with one long-lived, pooled client.
+ * Connections are kept alive between pages, responses are gzip-decoded, and
+ * ETag/Last-Modified validators are remembered with the hash of the markup they belong to.
+ * {@link #fetchSnapshot} sends them, so an unchanged page comes back as 304 and is answered with
+ * its hash alone, without transferring or keeping its body.
+ */
+@Designate(ocd = HttpHtmlSnapshotService.Config.class)
+@Component(service = HtmlSnapshotService.class)
+public class HttpHtmlSnapshotService implements HtmlSnapshotService {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - HTTP HTML Snapshot Fetcher",
+                           description = "Pooled HTTP client used to fetch rendered pages for scanning")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Base URL",
+                             description = "Instance the page HTML is fetched from, e.g. http://localhost:4502")
+        String baseUrl() default "http://localhost:4502";
+
+        @AttributeDefinition(name = "Max connections",
+                             description = "Total connections kept in the pool")
+        int maxConnections() default 20;
+
+        @AttributeDefinition(name = "Max connections per host")
+        int maxConnectionsPerRoute() default 20;
+
+        @AttributeDefinition(name = "Connect timeout (ms)")
+        int connectTimeoutMs() default 5000;
+
+        @AttributeDefinition(name = "Socket timeout (ms)",
+                             description = "Maximum time to wait for data while reading a page")
+        int socketTimeoutMs() default 30000;
+
+        @AttributeDefinition(name = "Connection request timeout (ms)",
+                             description = "Maximum time to wait for a free connection from the pool")
+        int connectionRequestTimeoutMs() default 10000;
+
+        @AttributeDefinition(name = "Validator cache size",
+                             description = "Pages whose ETag/Last-Modified and markup hash are kept for conditional requests; 0 disables")
+        int validatorCacheSize() default 500;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(HttpHtmlSnapshotService.class);
+
+    private CloseableHttpClient client;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private LruCache<String, CachedPage> validators;
+    private String baseUrl;
+
+    @Activate
+    protected void activate(final Config config) {
+        baseUrl = config.baseUrl().endsWith("/")
+                ? config.baseUrl().substring(0, config.baseUrl().length() - 1)
+                : config.baseUrl();
+
+        connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(config.maxConnections());
+        connectionManager.setDefaultMaxPerRoute(config.maxConnectionsPerRoute());
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.connectTimeoutMs())
+                .setSocketTimeout(config.socketTimeoutMs())
+                .setConnectionRequestTimeout(config.connectionRequestTimeoutMs())
+                .build();
+
+        // HttpClientBuilder adds Accept-Encoding: gzip,deflate and decodes responses transparently
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .build();
+
+        validators = config.validatorCacheSize() > 0 ? new LruCache<>(config.validatorCacheSize()) : null;
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        try {
+            if (client != null) {
+                client.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing HTML snapshot HTTP client", e);
+        }
+        if (validators != null) {
+            validators.clear();
+        }
+    }
+
+    @Override
+    public String fetchHtml(String pagePath) {
+        HtmlSnapshot snapshot = fetch(pagePath, false);
+        return snapshot != null ? snapshot.getHtml() : null;
+    }
+
+    @Override
+    public HtmlSnapshot fetchSnapshot(String pagePath) {
+        return fetch(pagePath, true);
+    }
+
+    private HtmlSnapshot fetch(String pagePath, boolean conditional) {
+        String url = baseUrl + pagePath + ".html";
+        HttpGet get = new HttpGet(url);
+
+        CachedPage cached = conditional && validators != null ? validators.get(url) : null;
+        if (cached != null) {
+            if (cached.etag != null) {
+                get.setHeader(HttpHeaders.IF_NONE_MATCH, cached.etag);
+            }
+            if (cached.lastModified != null) {
+                get.setHeader(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified);
+            }
+        }
+
+        try (CloseableHttpResponse response = client.execute(get)) {
+            int status = response.getStatusLine().getStatusCode();
+            if (status == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                EntityUtils.consume(response.getEntity());
+                log.debug("HTML snapshot for {} not modified", url);
+                return HtmlSnapshot.notModified(cached.markupHash);
+            }
+            if (status == HttpStatus.SC_OK) {
+                String html = EntityUtils.toString(response.getEntity(), StandardCharsets.UTF_8);
+                HtmlSnapshot snapshot = HtmlSnapshot.of(html);
+                remember(url, response, snapshot.getMarkupHash());
+                return snapshot;
+            }
+            EntityUtils.consume(response.getEntity());
+            log.error("Failed to fetch HTML snapshot for {} : {}", url, response.getStatusLine());
+        } catch (IOException e) {
+            log.error("IOException while fetching HTML snapshot for {}", url, e);
+        }
+        return null;
+    }
+
+    private void remember(String url, CloseableHttpResponse response, String markupHash) {
+        if (validators == null) {
+            return;
+        }
+        Header etag = response.getFirstHeader(HttpHeaders.ETAG);
+        Header lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            validators.remove(url);
+            return;
+        }
+        validators.put(url, new CachedPage(
+                etag != null ? etag.getValue() : null,
+                lastModified != null ? lastModified.getValue() : null,
+                markupHash));
+    }
+
+    private static final class CachedPage {
+        private final String etag;
+        private final String lastModified;
+        private final String markupHash;
+
+        private CachedPage(String etag, String lastModified, String markupHash) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.markupHash = markupHash;
+        }
+    }
+}
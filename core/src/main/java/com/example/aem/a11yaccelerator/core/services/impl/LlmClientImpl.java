@@ -0,0 +1,334 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.LlmClient;
+import com.example.aem.a11yaccelerator.core.services.LlmException;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.util.EntityUtils;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.AttributeType;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Calls an OpenAI-compatible chat-completion endpoint with one long-lived, pooled client.
+ * <p>
+ * Connections are kept alive between calls and every call is bounded by connect and read timeouts. At most
+ * {@code maxInFlight} calls run at once; further calls wait briefly for a slot and are then refused. After
+ * repeated provider failures the circuit opens and calls fail at once with 503 until a trial call succeeds,
+ * so a slow or dead provider cannot tie up the threads of its callers.
+ */
+@Designate(ocd = LlmClientImpl.Config.class)
+@Component(service = LlmClient.class)
+public class LlmClientImpl implements LlmClient {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Language Model Client",
+                           description = "Pooled HTTP client for the chat-completion endpoint of the model provider")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Endpoint",
+                             description = "URL of the OpenAI-compatible chat completions API")
+        String endpoint() default "https://api.sambanova.ai/v1/chat/completions";
+
+        @AttributeDefinition(name = "Model")
+        String model() default "Meta-Llama-3.3-70B-Instruct";
+
+        @AttributeDefinition(name = "API key",
+                             description = "Sent as a bearer token; leave empty for endpoints without authentication",
+                             type = AttributeType.PASSWORD)
+        String apiKey() default "";
+
+        @AttributeDefinition(name = "Max in-flight calls",
+                             description = "Calls to the provider running at once; also the size of the connection pool")
+        int maxInFlight() default 16;
+
+        @AttributeDefinition(name = "Slot wait (ms)",
+                             description = "How long a call waits for a free slot before it is refused")
+        int slotWaitMs() default 1000;
+
+        @AttributeDefinition(name = "Connect timeout (ms)")
+        int connectTimeoutMs() default 5000;
+
+        @AttributeDefinition(name = "Socket timeout (ms)",
+                             description = "Maximum time to wait for data from the provider")
+        int socketTimeoutMs() default 60000;
+
+        @AttributeDefinition(name = "Keep-alive (seconds)",
+                             description = "How long idle connections are kept unless the provider asks for less")
+        int keepAliveSeconds() default 30;
+
+        @AttributeDefinition(name = "Failure threshold",
+                             description = "Provider failures in a row after which calls fail fast")
+        int failureThreshold() default 5;
+
+        @AttributeDefinition(name = "Open circuit (ms)",
+                             description = "How long calls fail fast before a trial call is let through")
+        int circuitOpenMs() default 30000;
+    }
+
+    private static final String EVENT_STREAM = "text/event-stream";
+
+    private static final Logger log = LoggerFactory.getLogger(LlmClientImpl.class);
+
+    private final Gson gson = new Gson();
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong totalLatencyMillis = new AtomicLong();
+    private final AtomicLong maxLatencyMillis = new AtomicLong();
+
+    private CloseableHttpClient client;
+    private Semaphore slots;
+    private CircuitBreaker circuitBreaker;
+    private String endpoint;
+    private String model;
+    private String apiKey;
+    private int maxInFlight;
+    private long slotWaitMillis;
+    private long circuitOpenMillis;
+
+    @Activate
+    protected void activate(final Config config) {
+        endpoint = config.endpoint();
+        model = config.model();
+        apiKey = config.apiKey() != null ? config.apiKey().trim() : "";
+        if (apiKey.startsWith("$[")) {
+            // An unresolved secret placeholder would be sent as the key
+            log.warn("API key placeholder {} was not resolved, calling the model provider without a key", apiKey);
+            apiKey = "";
+        }
+        maxInFlight = Math.max(1, config.maxInFlight());
+        slotWaitMillis = Math.max(0, config.slotWaitMs());
+        circuitOpenMillis = Math.max(0, config.circuitOpenMs());
+        slots = new Semaphore(maxInFlight);
+        circuitBreaker = new CircuitBreaker(config.failureThreshold(), circuitOpenMillis);
+
+        // A connection for every slot, so calls never wait on the pool
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(maxInFlight);
+        connectionManager.setDefaultMaxPerRoute(maxInFlight);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(config.connectTimeoutMs())
+                .setSocketTimeout(config.socketTimeoutMs())
+                .setConnectionRequestTimeout(config.connectTimeoutMs())
+                .build();
+
+        long keepAliveMillis = TimeUnit.SECONDS.toMillis(Math.max(1, config.keepAliveSeconds()));
+        client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy((response, context) -> {
+                    long offered = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return offered > 0 ? Math.min(offered, keepAliveMillis) : keepAliveMillis;
+                })
+                .evictIdleConnections(keepAliveMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        try {
+            if (client != null) {
+                client.close();
+            }
+        } catch (IOException e) {
+            log.warn("Error closing language model HTTP client", e);
+        }
+    }
+
+    @Override
+    public String complete(String systemPrompt, String userPrompt, Consumer<String> onToken) throws LlmException {
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(slotWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejectedCount.incrementAndGet();
+            throw new LlmException(503, "Too many calls to the model provider in flight");
+        }
+        try {
+            if (!circuitBreaker.tryAcquire()) {
+                rejectedCount.incrementAndGet();
+                throw new LlmException(503, "Model provider is failing, not calling it for now");
+            }
+            long start = System.currentTimeMillis();
+            try {
+                String text = call(systemPrompt, userPrompt, onToken);
+                circuitBreaker.onSuccess();
+                return text;
+            } catch (LlmException e) {
+                failureCount.incrementAndGet();
+                // Rejected requests say nothing about the provider's health either way
+                if (e.getStatus() < 500 && e.getStatus() != 429) {
+                    circuitBreaker.release();
+                } else if (circuitBreaker.onFailure()) {
+                    log.warn("Model provider failed repeatedly, failing fast for {} ms: {}",
+                            circuitOpenMillis, e.getMessage());
+                }
+                throw e;
+            } finally {
+                long latency = System.currentTimeMillis() - start;
+                callCount.incrementAndGet();
+                totalLatencyMillis.addAndGet(latency);
+                maxLatencyMillis.accumulateAndGet(latency, Math::max);
+                log.debug("Model call took {} ms", latency);
+            }
+        } finally {
+            slots.release();
+        }
+    }
+
+    private String call(String systemPrompt, String userPrompt, Consumer<String> onToken) throws LlmException {
+        JsonArray messages = new JsonArray();
+        JsonObject sysMsg = new JsonObject();
+        sysMsg.addProperty("role", "system");
+        sysMsg.addProperty("content", systemPrompt);
+        messages.add(sysMsg);
+        JsonObject userMsg = new JsonObject();
+        userMsg.addProperty("role", "user");
+        userMsg.addProperty("content", userPrompt);
+        messages.add(userMsg);
+
+        JsonObject body = new JsonObject();
+        body.addProperty("model", model);
+        body.add("messages", messages);
+        if (onToken != null) {
+            body.addProperty("stream", true);
+        }
+
+        HttpPost post = new HttpPost(endpoint);
+        if (!apiKey.isEmpty()) {
+            post.setHeader("Authorization", "Bearer " + apiKey);
+        }
+        post.setEntity(new StringEntity(gson.toJson(body), ContentType.APPLICATION_JSON));
+
+        try (CloseableHttpResponse response = client.execute(post)) {
+            int status = response.getStatusLine().getStatusCode();
+            HttpEntity entity = response.getEntity();
+            if (status < 200 || status >= 300) {
+                String detail = entity != null ? EntityUtils.toString(entity, StandardCharsets.UTF_8) : null;
+                throw new LlmException(status, "Model provider returned status " + status, detail);
+            }
+            if (entity == null) {
+                throw new LlmException(502, "Empty answer from the model provider");
+            }
+            if (onToken != null && entity.getContentType() != null
+                    && entity.getContentType().getValue().startsWith(EVENT_STREAM)) {
+                return readEvents(entity, onToken);
+            }
+            return gson.fromJson(EntityUtils.toString(entity, StandardCharsets.UTF_8), JsonObject.class)
+                    .getAsJsonArray("choices")
+                    .get(0).getAsJsonObject()
+                    .getAsJsonObject("message")
+                    .get("content").getAsString();
+        } catch (LlmException e) {
+            throw e;
+        } catch (SocketTimeoutException | ConnectTimeoutException e) {
+            throw new LlmException(504, "Timed out calling the model provider", e.getMessage(), e);
+        } catch (IOException e) {
+            throw new LlmException(502, "Exception while calling the model provider", e.getMessage(), e);
+        } catch (RuntimeException e) {
+            throw new LlmException(502, "Unexpected answer from the model provider", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a streamed completion: server-sent events whose data are chunks with the next piece of text
+     * in {@code choices[0].delta.content}, ended by {@code [DONE]}.
+     *
+     * @return the complete text
+     */
+    private String readEvents(HttpEntity entity, Consumer<String> onToken) throws IOException {
+        StringBuilder text = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(entity.getContent(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("data:")) {
+                    continue;
+                }
+                String data = line.substring("data:".length()).trim();
+                if ("[DONE]".equals(data)) {
+                    break;
+                }
+                JsonArray choices = gson.fromJson(data, JsonObject.class).getAsJsonArray("choices");
+                JsonObject delta = choices != null && choices.size() > 0
+                        ? choices.get(0).getAsJsonObject().getAsJsonObject("delta") : null;
+                JsonElement content = delta != null ? delta.get("content") : null;
+                if (content != null && content.isJsonPrimitive()) {
+                    text.append(content.getAsString());
+                    onToken.accept(content.getAsString());
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    @Override
+    public String getCircuitState() {
+        return circuitBreaker.getState();
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return maxInFlight - slots.availablePermits();
+    }
+
+    @Override
+    public long getCallCount() {
+        return callCount.get();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    @Override
+    public long getTotalLatencyMillis() {
+        return totalLatencyMillis.get();
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return maxLatencyMillis.get();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.adobe.granite.jmx.annotation.AnnotatedStandardMBean;
+import com.example.aem.a11yaccelerator.core.services.LlmClient;
+import com.example.aem.a11yaccelerator.core.services.LlmClientMBean;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.management.DynamicMBean;
+import javax.management.NotCompliantMBeanException;
+
+/**
+ * Publishes the counters of {@link LlmClient} over JMX, so they can be read in the JMX console and
+ * collected by monitoring.
+ */
+@Component(
+    service = DynamicMBean.class,
+    property = "jmx.objectname=com.example.aem.a11yaccelerator:type=LanguageModelClient"
+)
+public class LlmClientMBeanImpl extends AnnotatedStandardMBean implements LlmClientMBean {
+
+    @Reference
+    private LlmClient llmClient;
+
+    public LlmClientMBeanImpl() throws NotCompliantMBeanException {
+        super(LlmClientMBean.class);
+    }
+
+    @Override
+    public String getCircuitState() {
+        return llmClient.getCircuitState();
+    }
+
+    @Override
+    public int getInFlightCount() {
+        return llmClient.getInFlightCount();
+    }
+
+    @Override
+    public long getCallCount() {
+        return llmClient.getCallCount();
+    }
+
+    @Override
+    public long getFailureCount() {
+        return llmClient.getFailureCount();
+    }
+
+    @Override
+    public long getRejectedCount() {
+        return llmClient.getRejectedCount();
+    }
+
+    @Override
+    public long getAverageLatencyMillis() {
+        long calls = llmClient.getCallCount();
+        return calls > 0 ? llmClient.getTotalLatencyMillis() / calls : 0;
+    }
+
+    @Override
+    public long getMaxLatencyMillis() {
+        return llmClient.getMaxLatencyMillis();
+    }
+}
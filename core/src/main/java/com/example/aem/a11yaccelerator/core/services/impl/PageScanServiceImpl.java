@@ -0,0 +1,142 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.AxeEnginePool;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshot;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshotService;
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
+import com.example.aem.a11yaccelerator.core.utils.AxeResults;
+import com.example.aem.a11yaccelerator.core.utils.ContentHash;
+import com.example.aem.a11yaccelerator.core.utils.LruCache;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.json.JSONException;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.script.ScriptException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Scans pages through the engine pool with a content-hash result cache in front of it.
+ * The cache key is a SHA-256 of the markup hash, the axe-core version and the run options.
+ * A page whose stored scanResult node carries the same contentHash returns that result without
+ * running axe or writing again; other hits (identical markup on another page, or results that were
+ * never persisted) are served from a bounded in-memory LRU.
+ * <p>
+ * Pages are fetched conditionally, so for an unchanged page with a stored result the markup is not
+ * transferred at all.
+ */
+@Designate(ocd = PageScanServiceImpl.Config.class)
+@Component(service = PageScanService.class)
+public class PageScanServiceImpl implements PageScanService {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Page Scan Service",
+                           description = "Runs axe-core on rendered pages with a content-hash result cache")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Result cache size",
+                             description = "Results kept in memory, keyed by content hash; 0 disables the in-memory tier")
+        int resultCacheSize() default 1000;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(PageScanServiceImpl.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private AxeEnginePool axeEnginePool;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    @Reference(policyOption = ReferencePolicyOption.GREEDY)
+    private HtmlSnapshotService htmlSnapshotService;
+
+    private LruCache<String, String> resultCache;
+
+    @Activate
+    protected void activate(final Config config) {
+        resultCache = config.resultCacheSize() > 0 ? new LruCache<>(config.resultCacheSize()) : null;
+    }
+
+    @Override
+    public PageScanResult scanPage(String pagePath) throws IOException, ScriptException {
+        HtmlSnapshot snapshot = htmlSnapshotService.fetchSnapshot(pagePath);
+        if (snapshot == null) {
+            throw new IOException("Failed to fetch HTML snapshot");
+        }
+
+        String axeVersion = axeEnginePool.getAxeVersion();
+        String contentHash = ContentHash.sha256(snapshot.getMarkupHash(), axeVersion, AxeCoreRunner.RUN_OPTIONS);
+
+        String stored = readStoredResult(pagePath, contentHash);
+        if (stored != null) {
+            log.debug("Markup of {} unchanged, reusing stored result", pagePath);
+            return new PageScanResult(pagePath, stored, contentHash, axeVersion, true, true);
+        }
+        String cached = resultCache != null ? resultCache.get(contentHash) : null;
+        if (cached != null) {
+            return new PageScanResult(pagePath, cached, contentHash, axeVersion, true, false);
+        }
+
+        // Not modified, but scanned with another axe version or its result is gone
+        String html = snapshot.isModified() ? snapshot.getHtml() : htmlSnapshotService.fetchHtml(pagePath);
+        if (html == null) {
+            throw new IOException("Failed to fetch HTML snapshot");
+        }
+        String resultJson;
+        try {
+            resultJson = AxeResults.toScanResultArray(axeEnginePool.runAccessibilityScan(html));
+        } catch (JSONException e) {
+            throw new ScriptException(e.getMessage());
+        }
+        if (resultCache != null) {
+            resultCache.put(contentHash, resultJson);
+        }
+        return new PageScanResult(pagePath, resultJson, contentHash, axeVersion, false, false);
+    }
+
+    private String readStoredResult(String pagePath, String contentHash) {
+        String relativePath = pagePath.startsWith("/") ? pagePath.substring(1) : pagePath;
+        String resultPath = ScanResultStore.ROOT_PATH + "/" + relativePath + "/" + ScanResultStore.RESULT_NODE;
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            if (session == null || !session.nodeExists(resultPath)) {
+                return null;
+            }
+            Node resultNode = session.getNode(resultPath);
+            if (resultNode.hasProperty(ScanResultStore.CONTENT_HASH_PROPERTY)
+                    && contentHash.equals(resultNode.getProperty(ScanResultStore.CONTENT_HASH_PROPERTY).getString())
+                    && ScanResultCodec.hasResult(resultNode)) {
+                return scanResultStore.readResult(resultNode);
+            }
+        } catch (LoginException | RepositoryException | IOException e) {
+            log.warn("Could not read stored result for {}: {}", pagePath, e.getMessage());
+        }
+        return null;
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, ScanResultStoreImpl.SUBSERVICE);
+        return factory.getServiceResourceResolver(authParams);
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.AxeResults;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
+import javax.jcr.RepositoryException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Issue counts of a page or subtree, grouped by impact, rule and WCAG level.
+ * <p>
+ * Stored in a {@value ScanResultStore#ROLLUP_NODE} child with {@code total} and {@code pages}
+ * properties and one child per group whose properties are the counts. A page keeps its own counts on
+ * its scanResult node; folders from the store's rollup level down hold the sum of everything below them
+ * and are only changed by deltas. Shallower folders are summed from those when read.
+ */
+final class Rollup {
+
+    private static final String[] GROUPS = {
+            ScanResultStore.ROLLUP_IMPACT, ScanResultStore.ROLLUP_RULE, ScanResultStore.ROLLUP_WCAG_LEVEL
+    };
+
+    private final Map<String, Map<String, Long>> groups = new LinkedHashMap<>();
+    private long total;
+    private long pages;
+
+    private Rollup() {
+        for (String group : GROUPS) {
+            groups.put(group, new HashMap<>());
+        }
+    }
+
+    static Rollup empty() {
+        return new Rollup();
+    }
+
+    /**
+     * Counts the rules of one page result, the unit the dashboard reports as issues.
+     * Rules without an impact count as minor, as in the dashboard.
+     */
+    static Rollup ofPage(JSONArray rules) {
+        Rollup rollup = new Rollup();
+        rollup.pages = 1;
+        for (int i = 0; rules != null && i < rules.length(); i++) {
+            JSONObject rule = rules.optJSONObject(i);
+            if (rule == null) {
+                continue;
+            }
+            String impact = rule.optString("impact", "");
+            rollup.increment(ScanResultStore.ROLLUP_IMPACT, impact.isEmpty() || "null".equals(impact) ? "minor" : impact);
+            rollup.increment(ScanResultStore.ROLLUP_RULE, rule.optString("id", "unknown"));
+            rollup.increment(ScanResultStore.ROLLUP_WCAG_LEVEL, AxeResults.wcagLevel(rule.optJSONArray("tags")));
+            rollup.total++;
+        }
+        return rollup;
+    }
+
+    /**
+     * @return the counts stored on the owner, empty if it has none
+     */
+    static Rollup read(Node owner) throws RepositoryException {
+        Rollup rollup = new Rollup();
+        if (!owner.hasNode(ScanResultStore.ROLLUP_NODE)) {
+            return rollup;
+        }
+        Node node = owner.getNode(ScanResultStore.ROLLUP_NODE);
+        rollup.total = longProperty(node, ScanResultStore.ROLLUP_TOTAL);
+        rollup.pages = longProperty(node, ScanResultStore.ROLLUP_PAGES);
+        for (String group : GROUPS) {
+            if (!node.hasNode(group)) {
+                continue;
+            }
+            PropertyIterator properties = node.getNode(group).getProperties();
+            while (properties.hasNext()) {
+                Property property = properties.nextProperty();
+                if (!property.getName().startsWith("jcr:")) {
+                    rollup.groups.get(group).put(property.getName(), property.getLong());
+                }
+            }
+        }
+        return rollup;
+    }
+
+    static boolean exists(Node owner) throws RepositoryException {
+        return owner.hasNode(ScanResultStore.ROLLUP_NODE);
+    }
+
+    /**
+     * @return this minus other, group by group
+     */
+    Rollup minus(Rollup other) {
+        return combine(other, -1);
+    }
+
+    /**
+     * @return this plus other, group by group
+     */
+    Rollup plus(Rollup other) {
+        return combine(other, 1);
+    }
+
+    private Rollup combine(Rollup other, long sign) {
+        Rollup result = new Rollup();
+        result.total = total + sign * other.total;
+        result.pages = pages + sign * other.pages;
+        for (String group : GROUPS) {
+            Map<String, Long> counts = result.groups.get(group);
+            counts.putAll(groups.get(group));
+            other.groups.get(group).forEach((key, value) -> counts.merge(key, sign * value, Long::sum));
+            counts.values().removeIf(value -> value == 0);
+        }
+        return result;
+    }
+
+    boolean isZero() {
+        return total == 0 && pages == 0 && groups.values().stream().allMatch(Map::isEmpty);
+    }
+
+    /**
+     * @return {@code {total, pages}} and an object per group mapping each key to its count
+     */
+    JSONObject toJson() {
+        JSONObject json = new JSONObject();
+        try {
+            json.put(ScanResultStore.ROLLUP_TOTAL, total);
+            json.put(ScanResultStore.ROLLUP_PAGES, pages);
+            for (String group : GROUPS) {
+                json.put(group, new JSONObject(groups.get(group)));
+            }
+        } catch (JSONException e) {
+            // Only thrown for non-finite numbers
+            throw new IllegalStateException(e);
+        }
+        return json;
+    }
+
+    /**
+     * Replaces the counts stored on the owner with these.
+     */
+    void writeTo(Node owner) throws RepositoryException {
+        if (owner.hasNode(ScanResultStore.ROLLUP_NODE)) {
+            owner.getNode(ScanResultStore.ROLLUP_NODE).remove();
+        }
+        Node node = owner.addNode(ScanResultStore.ROLLUP_NODE, "nt:unstructured");
+        node.setProperty(ScanResultStore.ROLLUP_TOTAL, total);
+        node.setProperty(ScanResultStore.ROLLUP_PAGES, pages);
+        for (String group : GROUPS) {
+            Node groupNode = node.addNode(group, "nt:unstructured");
+            for (Map.Entry<String, Long> count : groups.get(group).entrySet()) {
+                groupNode.setProperty(count.getKey(), count.getValue());
+            }
+        }
+    }
+
+    /**
+     * Adds these counts, typically a delta, to the counts stored on the owner.
+     * Counts that drop to zero are removed.
+     */
+    void addTo(Node owner) throws RepositoryException {
+        Node node = owner.hasNode(ScanResultStore.ROLLUP_NODE)
+                ? owner.getNode(ScanResultStore.ROLLUP_NODE)
+                : owner.addNode(ScanResultStore.ROLLUP_NODE, "nt:unstructured");
+        node.setProperty(ScanResultStore.ROLLUP_TOTAL, longProperty(node, ScanResultStore.ROLLUP_TOTAL) + total);
+        node.setProperty(ScanResultStore.ROLLUP_PAGES, longProperty(node, ScanResultStore.ROLLUP_PAGES) + pages);
+        for (String group : GROUPS) {
+            Map<String, Long> counts = groups.get(group);
+            if (counts.isEmpty()) {
+                continue;
+            }
+            Node groupNode = node.hasNode(group) ? node.getNode(group) : node.addNode(group, "nt:unstructured");
+            for (Map.Entry<String, Long> count : counts.entrySet()) {
+                long value = longProperty(groupNode, count.getKey()) + count.getValue();
+                if (value > 0) {
+                    groupNode.setProperty(count.getKey(), value);
+                } else if (groupNode.hasProperty(count.getKey())) {
+                    groupNode.getProperty(count.getKey()).remove();
+                }
+            }
+        }
+    }
+
+    private void increment(String group, String key) {
+        groups.get(group).merge(key, 1L, Long::sum);
+    }
+
+    private static long longProperty(Node node, String name) throws RepositoryException {
+        return node.hasProperty(name) ? node.getProperty(name).getLong() : 0;
+    }
+}
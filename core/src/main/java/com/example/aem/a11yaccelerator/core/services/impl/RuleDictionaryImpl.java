@@ -0,0 +1,194 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.RuleDictionary;
+import com.example.aem.a11yaccelerator.core.utils.AxeResults;
+import com.example.aem.a11yaccelerator.core.utils.ContentHash;
+import org.apache.jackrabbit.util.Text;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.service.component.annotations.Component;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps one node per rule below {@code /var/a11y-rules/<axe version>}. The entries of a version are read
+ * once and cached; a rule missing from the cached copy reloads the version, which picks up rules
+ * recorded since.
+ * <p>
+ * An entry is never rewritten: a rule whose metadata differs from the recorded one, such as from a
+ * localized or patched build reporting the same version, keeps its metadata in the result instead.
+ */
+@Component(service = RuleDictionary.class)
+public class RuleDictionaryImpl implements RuleDictionary {
+
+    static final String WCAG_LEVEL = "wcagLevel";
+    static final String WCAG_CRITERIA = "wcagCriteria";
+    static final String METADATA_HASH_PROPERTY = "metadataHash";
+
+    private static final Set<String> METADATA = new HashSet<>(Arrays.asList(METADATA_FIELDS));
+
+    private final Map<String, JSONObject> cache = new ConcurrentHashMap<>();
+
+    @Override
+    public JSONArray compact(Session session, String axeVersion, JSONArray rules) throws RepositoryException {
+        JSONArray compacted = new JSONArray();
+        Node versionNode = null;
+        try {
+            for (int i = 0; i < rules.length(); i++) {
+                JSONObject rule = rules.optJSONObject(i);
+                String ruleId = rule != null ? rule.optString("id", "") : "";
+                if (ruleId.isEmpty()) {
+                    compacted.put(rules.opt(i));
+                    continue;
+                }
+                if (versionNode == null) {
+                    versionNode = getOrCreateVersionNode(session, axeVersion);
+                }
+                if (!record(versionNode, ruleId, rule)) {
+                    compacted.put(rule);
+                    continue;
+                }
+
+                JSONObject compact = new JSONObject();
+                for (Iterator<?> keys = rule.keys(); keys.hasNext(); ) {
+                    String key = (String) keys.next();
+                    if (!METADATA.contains(key)) {
+                        compact.put(key, rule.get(key));
+                    }
+                }
+                compacted.put(compact);
+            }
+        } catch (JSONException e) {
+            // Only thrown for values that were already valid in the source array
+            throw new IllegalStateException(e);
+        }
+        return compacted;
+    }
+
+    @Override
+    public String expand(Session session, String axeVersion, String scanResultJson) throws RepositoryException {
+        JSONObject dictionary = getRules(session, axeVersion);
+        boolean reloaded = false;
+        try {
+            JSONArray rules = new JSONArray(scanResultJson);
+            for (int i = 0; i < rules.length(); i++) {
+                JSONObject rule = rules.optJSONObject(i);
+                String ruleId = rule != null ? rule.optString("id", "") : "";
+                if (ruleId.isEmpty()) {
+                    continue;
+                }
+                if (!reloaded && (dictionary == null || !dictionary.has(ruleId))) {
+                    // Recorded after the version was cached
+                    reloaded = true;
+                    cache.remove(axeVersion);
+                    dictionary = getRules(session, axeVersion);
+                }
+                JSONObject entry = dictionary != null ? dictionary.optJSONObject(ruleId) : null;
+                if (entry == null) {
+                    continue;
+                }
+                for (String field : METADATA_FIELDS) {
+                    if (!rule.has(field) && entry.has(field)) {
+                        rule.put(field, entry.get(field));
+                    }
+                }
+            }
+            return rules.toString();
+        } catch (JSONException e) {
+            throw new RepositoryException("Stored result is not a JSON array", e);
+        }
+    }
+
+    @Override
+    public JSONObject getRules(Session session, String axeVersion) throws RepositoryException {
+        JSONObject rules = cache.get(axeVersion);
+        if (rules != null) {
+            return rules;
+        }
+        String versionPath = ROOT_PATH + "/" + Text.escapeIllegalJcrChars(axeVersion);
+        if (!session.nodeExists(versionPath)) {
+            return null;
+        }
+        rules = new JSONObject();
+        try {
+            NodeIterator ruleNodes = session.getNode(versionPath).getNodes();
+            while (ruleNodes.hasNext()) {
+                Node ruleNode = ruleNodes.nextNode();
+                JSONObject entry = new JSONObject();
+                for (String field : METADATA_FIELDS) {
+                    if (ruleNode.hasProperty(field)) {
+                        entry.put(field, ruleNode.getProperty(field).isMultiple()
+                                ? toArray(ruleNode.getProperty(field).getValues())
+                                : ruleNode.getProperty(field).getString());
+                    }
+                }
+                entry.put(WCAG_LEVEL, ruleNode.getProperty(WCAG_LEVEL).getString());
+                entry.put(WCAG_CRITERIA, toArray(ruleNode.getProperty(WCAG_CRITERIA).getValues()));
+                rules.put(Text.unescapeIllegalJcrChars(ruleNode.getName()), entry);
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        cache.put(axeVersion, rules);
+        return rules;
+    }
+
+    /**
+     * Writes the rule's metadata unless an entry for the rule is already stored.
+     *
+     * @return whether the stored entry holds the rule's metadata
+     */
+    private boolean record(Node versionNode, String ruleId, JSONObject rule) throws RepositoryException {
+        JSONArray tags = rule.optJSONArray("tags");
+        String hash = ContentHash.sha256(rule.optString("help"), rule.optString("helpUrl"),
+                rule.optString("description"), tags != null ? tags.toString() : "");
+        String name = Text.escapeIllegalJcrChars(ruleId);
+        if (versionNode.hasNode(name)) {
+            // Results compacted against the entry would otherwise be expanded with the other metadata
+            return hash.equals(versionNode.getNode(name).getProperty(METADATA_HASH_PROPERTY).getString());
+        }
+        Node ruleNode = versionNode.addNode(name, "nt:unstructured");
+        for (String field : new String[] { "help", "helpUrl", "description" }) {
+            ruleNode.setProperty(field, rule.optString(field, null));
+        }
+        String[] tagValues = new String[tags != null ? tags.length() : 0];
+        for (int i = 0; i < tagValues.length; i++) {
+            tagValues[i] = tags.optString(i);
+        }
+        ruleNode.setProperty("tags", tagValues);
+        ruleNode.setProperty(WCAG_LEVEL, AxeResults.wcagLevel(tags));
+        List<String> criteria = AxeResults.wcagCriteria(tags);
+        ruleNode.setProperty(WCAG_CRITERIA, criteria.toArray(new String[0]));
+        ruleNode.setProperty(METADATA_HASH_PROPERTY, hash);
+        cache.remove(Text.unescapeIllegalJcrChars(versionNode.getName()));
+        return true;
+    }
+
+    private static Node getOrCreateVersionNode(Session session, String axeVersion) throws RepositoryException {
+        Node varNode = session.getNode("/var");
+        String rootName = ROOT_PATH.substring("/var/".length());
+        Node root = varNode.hasNode(rootName) ? varNode.getNode(rootName) : varNode.addNode(rootName, "sling:Folder");
+        String name = Text.escapeIllegalJcrChars(axeVersion);
+        return root.hasNode(name) ? root.getNode(name) : root.addNode(name, "nt:unstructured");
+    }
+
+    private static JSONArray toArray(Value[] values) throws RepositoryException {
+        JSONArray array = new JSONArray();
+        for (Value value : values) {
+            array.put(value.getString());
+        }
+        return array;
+    }
+}
@@ -1,32 +1,104 @@
 package com.example.aem.a11yaccelerator.core.services.impl;
 
-import com.adobe.forms.foundation.transfer.AssetScanInfo.Issue;
-import com.example.aem.a11yaccelerator.core.services.AxeCoreService;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import com.example.aem.a11yaccelerator.core.rules.ContentRule;
 import com.example.aem.a11yaccelerator.core.services.RulesEngineService;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.Resource;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Runs the registered content rules over a page and every resource below its {@code jcr:content}.
+ * The content tree is walked once and each resource is offered to all rules, so the cost per page is
+ * one read of its component nodes.
+ */
 @Component(service = RulesEngineService.class, immediate = true)
 public class RulesEngineServiceImpl implements RulesEngineService {
 
+    private static final Logger log = LoggerFactory.getLogger(RulesEngineServiceImpl.class);
+
+    @Reference(service = ContentRule.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile List<ContentRule> rules = Collections.emptyList();
+
     @Reference
-    private AxeCoreService axeCoreService;
+    private ResourceResolverFactory factory;
 
     @Override
     public List<Issue> scanPage(String path) {
-        List<Issue> issues = new ArrayList<>();
-
-        // Example static rule: Missing alt text
-        // (here you’d traverse page content and add issues if alt missing)
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, ScanResultStoreImpl.SUBSERVICE);
+        try (ResourceResolver resolver = factory.getServiceResourceResolver(authParams)) {
+            PageManager pageManager = resolver.adaptTo(PageManager.class);
+            Page page = pageManager != null ? pageManager.getPage(path) : null;
+            return page != null ? scanPage(page) : new ArrayList<>();
+        } catch (LoginException e) {
+            log.error("Could not log in to pre-scan {}", path, e);
+            return new ArrayList<>();
+        }
+    }
 
-        // Delegate to AxeCoreService for actual axe-core checks
-        if (axeCoreService != null) {
-            issues.addAll(axeCoreService.checkPage(path));
+    @Override
+    public List<Issue> scanPage(Page page) {
+        List<Issue> issues = new ArrayList<>();
+        List<ContentRule> activeRules = rules;
+        for (ContentRule rule : activeRules) {
+            try {
+                rule.checkPage(page, issues);
+            } catch (RuntimeException e) {
+                log.warn("Rule {} failed on page {}: {}", rule.getId(), page.getPath(), e.getMessage());
+            }
         }
 
+        Resource content = page.getContentResource();
+        if (content == null) {
+            return issues;
+        }
+        Deque<Resource> pending = new ArrayDeque<>();
+        pushChildren(content, pending);
+        while (!pending.isEmpty()) {
+            Resource component = pending.pop();
+            for (ContentRule rule : activeRules) {
+                try {
+                    rule.checkComponent(page, component, issues);
+                } catch (RuntimeException e) {
+                    log.warn("Rule {} failed on {}: {}", rule.getId(), component.getPath(), e.getMessage());
+                }
+            }
+            pushChildren(component, pending);
+        }
         return issues;
     }
+
+    private static void pushChildren(Resource resource, Deque<Resource> pending) {
+        // Children are pushed in reverse so components are visited in document order
+        List<Resource> children = new ArrayList<>();
+        for (Iterator<Resource> it = resource.listChildren(); it.hasNext(); ) {
+            children.add(it.next());
+        }
+        for (int i = children.size() - 1; i >= 0; i--) {
+            pending.push(children.get(i));
+        }
+    }
 }
@@ -0,0 +1,229 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps the issue lists of earlier scans of a page below its scanResult node.
+ * <p>
+ * Runs are numbered child nodes of {@value ScanResultStore#HISTORY_NODE}. Most runs only store the
+ * issues that appeared since the previous run, in the compressed {@link ScanResultCodec} format, and the
+ * fingerprints of the issues that disappeared. Every {@code keyframeInterval} runs the full list is
+ * stored instead, so a run is rebuilt from its nearest keyframe and at most that many deltas, and
+ * unchanged issues are not stored again for every scan. The fingerprints of the latest run are kept
+ * once on the history node to compute the next delta without rebuilding anything.
+ */
+final class ScanHistory {
+
+    static final String LAST_RUN_PROPERTY = "lastRun";
+    static final String LAST_KEYFRAME_PROPERTY = "lastKeyframe";
+    static final String LATEST_FINGERPRINTS_PROPERTY = "latestFingerprints";
+
+    static final String RUN_AT_PROPERTY = "runAt";
+    static final String KEYFRAME_PROPERTY = "keyframe";
+    static final String ADDED_PROPERTY = "added";
+    static final String REMOVED_PROPERTY = "removed";
+    static final String REMOVED_FINGERPRINTS_PROPERTY = "removedFingerprints";
+
+    private ScanHistory() {
+    }
+
+    /**
+     * Appends a run with the given issue entries, as written by the store, to the history of a result.
+     *
+     * @return the new run node
+     */
+    static Node record(Node resultNode, List<JSONObject> entries, String contentHash, int keyframeInterval)
+            throws RepositoryException {
+        Node history = resultNode.hasNode(ScanResultStore.HISTORY_NODE)
+                ? resultNode.getNode(ScanResultStore.HISTORY_NODE)
+                : resultNode.addNode(ScanResultStore.HISTORY_NODE, "nt:unstructured");
+        long run = longProperty(history, LAST_RUN_PROPERTY) + 1;
+        boolean keyframe = !history.hasProperty(LATEST_FINGERPRINTS_PROPERTY)
+                || run - longProperty(history, LAST_KEYFRAME_PROPERTY) >= keyframeInterval;
+
+        Set<String> previous = new HashSet<>();
+        if (history.hasProperty(LATEST_FINGERPRINTS_PROPERTY)) {
+            for (Value value : history.getProperty(LATEST_FINGERPRINTS_PROPERTY).getValues()) {
+                previous.add(value.getString());
+            }
+        }
+        JSONArray added = new JSONArray();
+        String[] fingerprints = new String[entries.size()];
+        for (int i = 0; i < fingerprints.length; i++) {
+            JSONObject entry = entries.get(i);
+            fingerprints[i] = entry.optString(ScanResultStore.FINGERPRINT_PROPERTY);
+            if (keyframe || !previous.remove(fingerprints[i])) {
+                added.put(entry);
+            }
+        }
+        // What is left of the previous run was not reported again
+        String[] removed = keyframe ? new String[0] : previous.toArray(new String[0]);
+
+        Node runNode = history.addNode(String.valueOf(run), "nt:unstructured");
+        runNode.setProperty(RUN_AT_PROPERTY, Calendar.getInstance());
+        runNode.setProperty(ScanResultStore.CONTENT_HASH_PROPERTY, contentHash);
+        runNode.setProperty(ScanResultStore.ROLLUP_TOTAL, entries.size());
+        runNode.setProperty(KEYFRAME_PROPERTY, keyframe);
+        runNode.setProperty(ADDED_PROPERTY, keyframe ? 0 : added.length());
+        runNode.setProperty(REMOVED_PROPERTY, removed.length);
+        runNode.setProperty(REMOVED_FINGERPRINTS_PROPERTY, removed);
+        ScanResultCodec.write(runNode, added.toString());
+
+        history.setProperty(LAST_RUN_PROPERTY, run);
+        if (keyframe) {
+            history.setProperty(LAST_KEYFRAME_PROPERTY, run);
+        }
+        history.setProperty(LATEST_FINGERPRINTS_PROPERTY, fingerprints);
+        return runNode;
+    }
+
+    /**
+     * Removes runs beyond the newest {@code maxRuns} and runs recorded before {@code notBefore}, but never
+     * the latest one. When the oldest kept run is a delta, it is rebuilt and stored as a keyframe first.
+     *
+     * @return the number of removed runs
+     */
+    static int prune(Node history, int maxRuns, Calendar notBefore) throws RepositoryException {
+        List<Node> runs = runNodes(history);
+        int firstKept = maxRuns > 0 ? Math.max(0, runs.size() - maxRuns) : 0;
+        while (notBefore != null && firstKept < runs.size() - 1
+                && runs.get(firstKept).getProperty(RUN_AT_PROPERTY).getDate().before(notBefore)) {
+            firstKept++;
+        }
+        if (firstKept == 0) {
+            return 0;
+        }
+        Node oldest = runs.get(firstKept);
+        if (!oldest.hasProperty(KEYFRAME_PROPERTY) || !oldest.getProperty(KEYFRAME_PROPERTY).getBoolean()) {
+            JSONArray issues = reconstruct(history, Long.parseLong(oldest.getName()));
+            ScanResultCodec.write(oldest, issues.toString());
+            oldest.setProperty(KEYFRAME_PROPERTY, true);
+            oldest.setProperty(REMOVED_FINGERPRINTS_PROPERTY, new String[0]);
+        }
+        // Now the first run, which has no earlier run to differ from
+        oldest.setProperty(ADDED_PROPERTY, 0);
+        oldest.setProperty(REMOVED_PROPERTY, 0);
+        for (int i = 0; i < firstKept; i++) {
+            runs.get(i).remove();
+        }
+        return firstKept;
+    }
+
+    /**
+     * @return summaries of the recorded runs, oldest first
+     */
+    static JSONArray listRuns(Node history) throws RepositoryException {
+        JSONArray runs = new JSONArray();
+        try {
+            for (Node runNode : runNodes(history)) {
+                JSONObject summary = new JSONObject();
+                summary.put("run", Long.parseLong(runNode.getName()));
+                summary.put(RUN_AT_PROPERTY, runNode.getProperty(RUN_AT_PROPERTY).getDate().getTimeInMillis());
+                if (runNode.hasProperty(ScanResultStore.CONTENT_HASH_PROPERTY)) {
+                    summary.put(ScanResultStore.CONTENT_HASH_PROPERTY,
+                            runNode.getProperty(ScanResultStore.CONTENT_HASH_PROPERTY).getString());
+                }
+                summary.put(ScanResultStore.ROLLUP_TOTAL, longProperty(runNode, ScanResultStore.ROLLUP_TOTAL));
+                summary.put(ADDED_PROPERTY, longProperty(runNode, ADDED_PROPERTY));
+                summary.put(REMOVED_PROPERTY, longProperty(runNode, REMOVED_PROPERTY));
+                runs.put(summary);
+            }
+        } catch (JSONException e) {
+            throw new IllegalStateException(e);
+        }
+        return runs;
+    }
+
+    /**
+     * Rebuilds the issue entries of a run from its nearest keyframe.
+     *
+     * @return the entries, or null if the run is not recorded
+     */
+    static JSONArray reconstruct(Node history, long run) throws RepositoryException {
+        if (!history.hasNode(String.valueOf(run))) {
+            return null;
+        }
+        long keyframe = run;
+        while (!isKeyframe(history, keyframe)) {
+            keyframe--;
+            if (!history.hasNode(String.valueOf(keyframe))) {
+                throw new RepositoryException("No keyframe before run " + run + " in " + history.getPath());
+            }
+        }
+
+        Map<String, JSONObject> issues = new LinkedHashMap<>();
+        for (long r = keyframe; r <= run; r++) {
+            Node runNode = history.getNode(String.valueOf(r));
+            if (runNode.hasProperty(REMOVED_FINGERPRINTS_PROPERTY)) {
+                for (Value value : runNode.getProperty(REMOVED_FINGERPRINTS_PROPERTY).getValues()) {
+                    issues.remove(value.getString());
+                }
+            }
+            JSONArray added = readEntries(runNode);
+            for (int i = 0; i < added.length(); i++) {
+                JSONObject entry = added.optJSONObject(i);
+                if (entry != null) {
+                    issues.put(entry.optString(ScanResultStore.FINGERPRINT_PROPERTY), entry);
+                }
+            }
+        }
+        return new JSONArray(issues.values());
+    }
+
+    private static boolean isKeyframe(Node history, long run) throws RepositoryException {
+        Node runNode = history.getNode(String.valueOf(run));
+        return runNode.hasProperty(KEYFRAME_PROPERTY) && runNode.getProperty(KEYFRAME_PROPERTY).getBoolean();
+    }
+
+    private static JSONArray readEntries(Node runNode) throws RepositoryException {
+        try {
+            String json = ScanResultCodec.read(runNode);
+            return json != null ? new JSONArray(json) : new JSONArray();
+        } catch (IOException | JSONException e) {
+            throw new RepositoryException("Unreadable history run " + runNode.getPath(), e);
+        }
+    }
+
+    /**
+     * @return the run nodes in run order; child order is insertion order, so this only guards against reordering
+     */
+    static List<Node> runNodes(Node history) throws RepositoryException {
+        List<Node> runs = new ArrayList<>();
+        NodeIterator children = history.getNodes();
+        while (children.hasNext()) {
+            Node child = children.nextNode();
+            if (child.getName().matches("\\d+")) {
+                runs.add(child);
+            }
+        }
+        runs.sort((a, b) -> {
+            try {
+                return Long.compare(Long.parseLong(a.getName()), Long.parseLong(b.getName()));
+            } catch (RepositoryException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        return runs;
+    }
+
+    private static long longProperty(Node node, String name) throws RepositoryException {
+        return node.hasProperty(name) ? node.getProperty(name).getLong() : 0;
+    }
+}
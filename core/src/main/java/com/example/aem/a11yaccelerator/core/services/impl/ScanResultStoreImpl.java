@@ -0,0 +1,753 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.RuleDictionary;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.AxeResults;
+import com.example.aem.a11yaccelerator.core.utils.ContentHash;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Stores scan results as scanResult nodes below /var/a11y-scans, with one issue node per reported
+ * element. Issue nodes are replaced as a whole on every write and are mapped to the rendering
+ * component where its id can be recognised in the element's selector or markup. Every write also
+ * keeps the {@link Rollup} counts of the page and its ancestor folders up to date and appends a run
+ * to the page's {@link ScanHistory}.
+ * <p>
+ * Counts and subtree modification times stop at the configured rollup level, by default the site
+ * folders below /var/a11y-scans/content. The folders above it would otherwise be changed by every write
+ * to every site and serialize them all; they are summed from the level below when read instead.
+ * <p>
+ * Results submitted through {@link #submitResult} and {@link #storeResult} are written by a single
+ * writer thread that groups whatever is queued into one commit and reapplies it on conflicts.
+ */
+@Designate(ocd = ScanResultStoreImpl.Config.class)
+@Component(service = ScanResultStore.class)
+public class ScanResultStoreImpl implements ScanResultStore {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Scan Result Store",
+                           description = "Persists scan results below /var/a11y-scans")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Maximum issue nodes per page",
+                             description = "Elements beyond this count are kept in the result JSON only")
+        int maxIssuesPerPage() default 500;
+
+        @AttributeDefinition(name = "Maximum stored markup length",
+                             description = "The element markup stored on an issue node is cut to this many characters")
+        int maxHtmlLength() default 1000;
+
+        @AttributeDefinition(name = "History keyframe interval",
+                             description = "Every this many runs the full issue list is stored instead of a delta, "
+                                     + "bounding the deltas applied to reconstruct a run")
+        int historyKeyframeInterval() default 20;
+
+        @AttributeDefinition(name = "Write queue capacity",
+                             description = "Results waiting for the writer; submitting beyond this blocks the caller")
+        int writeQueueCapacity() default 1000;
+
+        @AttributeDefinition(name = "Results per save",
+                             description = "Queued results written by the writer in one commit")
+        int writeBatchSize() default 50;
+
+        @AttributeDefinition(name = "Conflict retries",
+                             description = "How often a commit that conflicts with a concurrent change is reapplied")
+        int conflictRetries() default 5;
+
+        @AttributeDefinition(name = "Conflict retry delay (ms)",
+                             description = "Base delay before reapplying a conflicting commit, doubled per retry")
+        long conflictRetryDelayMs() default 50;
+
+        @AttributeDefinition(name = "Rollup level",
+                             description = "Folders this many levels below /var/a11y-scans and deeper keep issue "
+                                     + "counts and modification times; shallower folders are summed from them "
+                                     + "when read, so writes to different sites do not change the same nodes")
+        int rollupLevel() default 2;
+
+        @AttributeDefinition(name = "Store timeout (seconds)",
+                             description = "How long a synchronous store waits for the writer before failing")
+        long storeTimeoutSeconds() default 60;
+    }
+
+    static final String SUBSERVICE = "serviceUserA11yAccelerator";
+
+    /** Hash of the stored result, compared on rewrites to tell whether the page's result changed. */
+    static final String RESULT_HASH_PROPERTY = "resultHash";
+
+    private static final Logger log = LoggerFactory.getLogger(ScanResultStoreImpl.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private RuleDictionary ruleDictionary;
+
+    private int maxIssuesPerPage = 500;
+    private int maxHtmlLength = 1000;
+    private int historyKeyframeInterval = 20;
+    private int writeBatchSize = 50;
+    private int conflictRetries = 5;
+    private long conflictRetryDelayMs = 50;
+    private long storeTimeoutSeconds = 60;
+    private int rollupLevel = 2;
+
+    private BlockingQueue<PendingWrite> writeQueue;
+    private ExecutorService writer;
+    private volatile boolean stopped;
+
+    @Activate
+    protected void activate(final Config config) {
+        maxIssuesPerPage = Math.max(0, config.maxIssuesPerPage());
+        maxHtmlLength = Math.max(0, config.maxHtmlLength());
+        historyKeyframeInterval = Math.max(1, config.historyKeyframeInterval());
+        writeBatchSize = Math.max(1, config.writeBatchSize());
+        conflictRetries = Math.max(0, config.conflictRetries());
+        conflictRetryDelayMs = Math.max(0, config.conflictRetryDelayMs());
+        storeTimeoutSeconds = Math.max(1, config.storeTimeoutSeconds());
+        rollupLevel = Math.max(0, config.rollupLevel());
+        stopped = false;
+        writeQueue = new LinkedBlockingQueue<>(Math.max(1, config.writeQueueCapacity()));
+        writer = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "a11y-scan-result-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.execute(this::drainWriteQueue);
+    }
+
+    /**
+     * Stops the writer. Results it has not saved yet, whether queued, in the batch it was writing or
+     * submitted from now on, fail instead of waiting for a writer that no longer runs.
+     */
+    @Deactivate
+    protected void deactivate() {
+        stopped = true;
+        if (writer != null) {
+            writer.shutdownNow();
+        }
+        failQueued();
+    }
+
+    private void failQueued() {
+        List<PendingWrite> abandoned = new ArrayList<>();
+        writeQueue.drainTo(abandoned);
+        for (PendingWrite write : abandoned) {
+            write.future.completeExceptionally(stoppedException());
+        }
+    }
+
+    private static RepositoryException stoppedException() {
+        return new RepositoryException("Scan result store was stopped");
+    }
+
+    @Override
+    public Node writeResult(Session session, String pagePath, String scanResultJson, String contentHash,
+                            String axeVersion) throws RepositoryException {
+        // Ensure /var/a11y-scans exists
+        Node varNode = session.getNode("/var");
+        Node a11yRootNode = varNode.hasNode("a11y-scans")
+                ? varNode.getNode("a11y-scans")
+                : varNode.addNode("a11y-scans", "sling:Folder");
+
+        // convert pagePath to relative under /var/a11y-scans
+        String relativePath = pagePath.startsWith("/") ? pagePath.substring(1) : pagePath;
+
+        // Create all intermediate folders
+        Node pageParentNode = createIntermediateNodes(a11yRootNode, relativePath);
+
+        // Create or update scanResult node
+        Node resultNode;
+        if (pageParentNode.hasNode(RESULT_NODE)) {
+            resultNode = pageParentNode.getNode(RESULT_NODE);
+        } else {
+            resultNode = pageParentNode.addNode(RESULT_NODE, "nt:unstructured");
+        }
+        // Results stored before rollups existed were never counted in the folders
+        boolean counted = Rollup.exists(resultNode);
+        Rollup previous = Rollup.read(resultNode);
+
+        JSONArray rules = parseRules(pagePath, scanResultJson);
+        boolean compact = rules != null && axeVersion != null && !axeVersion.isEmpty();
+
+        String stored = compact ? ruleDictionary.compact(session, axeVersion, rules).toString() : scanResultJson;
+        // Identifies what readers of the result get, so a rescan that finds the same issues leaves the
+        // ancestor folders untouched
+        String resultHash = ContentHash.sha256(pagePath, stored, compact ? axeVersion : "");
+        boolean changed = !resultNode.hasProperty(RESULT_HASH_PROPERTY)
+                || !resultHash.equals(resultNode.getProperty(RESULT_HASH_PROPERTY).getString());
+
+        // Set or update properties
+        resultNode.setProperty("pagePath", pagePath);
+        ScanResultCodec.write(resultNode, stored);
+        resultNode.setProperty(RESULT_HASH_PROPERTY, resultHash);
+        resultNode.setProperty(AXE_VERSION_PROPERTY, compact ? axeVersion : null);
+        resultNode.setProperty("lastModified", Calendar.getInstance());
+        // A null value removes a hash left over from an earlier server-side scan
+        resultNode.setProperty(CONTENT_HASH_PROPERTY, contentHash);
+
+        List<JSONObject> entries = toIssueEntries(session, pagePath, rules);
+        writeIssueNodes(resultNode, pagePath, entries);
+        ScanHistory.record(resultNode, entries, contentHash, historyKeyframeInterval);
+
+        Rollup current = Rollup.ofPage(rules);
+        current.writeTo(resultNode);
+        Rollup delta = current.minus(counted ? previous : Rollup.empty());
+        if (changed || !delta.isZero()) {
+            updateAncestors(pageParentNode, delta, System.currentTimeMillis());
+        }
+        log.debug("Wrote scan result of {} to {} ({} rules, changed: {})", pagePath, resultNode.getPath(),
+                rules != null ? rules.length() : 0, changed);
+        return resultNode;
+    }
+
+    /**
+     * Adds a delta to the counts of a page's folder and its ancestors down to the rollup level, and stamps
+     * them as modified. The page's own folder is stamped even above the rollup level.
+     *
+     * @return the latest of the stamped times
+     */
+    private long updateAncestors(Node pageFolder, Rollup delta, long now) throws RepositoryException {
+        long latest = now;
+        for (Node folder = pageFolder; folder.isSame(pageFolder) || level(folder) >= rollupLevel;
+                folder = folder.getParent()) {
+            if (!delta.isZero() && level(folder) >= rollupLevel) {
+                delta.addTo(folder);
+            }
+            latest = Math.max(latest, stampSubtreeModified(folder, now));
+        }
+        return latest;
+    }
+
+    /**
+     * @return the number of levels between /var/a11y-scans and the folder, or -1 if it is not below it
+     */
+    private static int level(Node folder) throws RepositoryException {
+        String path = folder.getPath();
+        if (!path.equals(ROOT_PATH) && !path.startsWith(ROOT_PATH + "/")) {
+            return -1;
+        }
+        int level = 0;
+        for (int i = path.indexOf('/', ROOT_PATH.length()); i >= 0; i = path.indexOf('/', i + 1)) {
+            level++;
+        }
+        return level;
+    }
+
+    /**
+     * Sets the subtree modification of a folder to now, or to just after its current value if that is not
+     * earlier. Every change thus gives the folder a new value, even two changes in the same millisecond or
+     * a change made by a cluster member whose clock is behind.
+     *
+     * @return the stamped time
+     */
+    private static long stampSubtreeModified(Node folder, long now) throws RepositoryException {
+        long previous = folder.hasProperty(SUBTREE_MODIFIED_PROPERTY)
+                ? folder.getProperty(SUBTREE_MODIFIED_PROPERTY).getDate().getTimeInMillis()
+                : Long.MIN_VALUE;
+        Calendar modified = Calendar.getInstance();
+        modified.setTimeInMillis(Math.max(now, previous + 1));
+        folder.setProperty(SUBTREE_MODIFIED_PROPERTY, modified);
+        return modified.getTimeInMillis();
+    }
+
+    private static JSONArray parseRules(String pagePath, String scanResultJson) {
+        try {
+            return new JSONArray(scanResultJson);
+        } catch (JSONException e) {
+            log.warn("Result for {} is not a JSON array, storing it without issue nodes", pagePath);
+            return null;
+        }
+    }
+
+    /**
+     * Flattens a result into one entry per reported element, keyed by the issue node property names.
+     * Fingerprints repeated on a page get a running suffix so every entry has a unique one.
+     */
+    private List<JSONObject> toIssueEntries(Session session, String pagePath, JSONArray rules)
+            throws RepositoryException {
+        List<JSONObject> entries = new ArrayList<>();
+        if (rules == null) {
+            return entries;
+        }
+        ComponentLocator locator = ComponentLocator.forPage(session, pagePath);
+        Map<String, Integer> seen = new HashMap<>();
+        try {
+            for (int i = 0; i < rules.length(); i++) {
+                JSONObject rule = rules.optJSONObject(i);
+                if (rule == null) {
+                    continue;
+                }
+                String ruleId = rule.optString("id");
+                JSONArray tags = rule.optJSONArray("tags");
+                String wcagLevel = AxeResults.wcagLevel(tags);
+                List<String> criteria = AxeResults.wcagCriteria(tags);
+                JSONArray elements = rule.optJSONArray("nodes");
+                for (int j = 0; elements != null && j < elements.length(); j++) {
+                    JSONObject element = elements.optJSONObject(j);
+                    if (element == null) {
+                        continue;
+                    }
+                    String target = AxeResults.target(element);
+                    String html = element.optString("html", "");
+                    Node component = locator.locate(target, html);
+                    String componentPath = component != null ? component.getPath() : null;
+                    // Stable across rescans of unchanged content, so runs can be compared issue by issue
+                    String fingerprint = ContentHash.sha256(ruleId,
+                            componentPath != null ? componentPath : target, ContentHash.normalizeHtml(html));
+                    int occurrence = seen.merge(fingerprint, 1, Integer::sum);
+
+                    JSONObject entry = new JSONObject();
+                    entry.put(RULE_ID_PROPERTY, ruleId);
+                    entry.put(IMPACT_PROPERTY, element.optString("impact", rule.optString("impact", null)));
+                    entry.put(TYPE_PROPERTY, rule.optString("type", null));
+                    entry.put(WCAG_LEVEL_PROPERTY, wcagLevel);
+                    entry.put(WCAG_CRITERIA_PROPERTY, new JSONArray(criteria));
+                    entry.put(COMPONENT_PATH_PROPERTY, componentPath);
+                    entry.put(RESOURCE_TYPE_PROPERTY, component != null && component.hasProperty("sling:resourceType")
+                            ? component.getProperty("sling:resourceType").getString() : null);
+                    entry.put(FINGERPRINT_PROPERTY, occurrence > 1 ? fingerprint + "~" + occurrence : fingerprint);
+                    entry.put(TARGET_PROPERTY, target);
+                    entry.put(HTML_PROPERTY, html.length() > maxHtmlLength ? html.substring(0, maxHtmlLength) : html);
+                    entries.add(entry);
+                }
+            }
+        } catch (JSONException e) {
+            // Only thrown for non-finite numbers, which none of the values are
+            throw new IllegalStateException(e);
+        }
+        return entries;
+    }
+
+    /**
+     * Replaces the issue nodes of a result with one node per entry, up to the configured maximum.
+     */
+    private void writeIssueNodes(Node resultNode, String pagePath, List<JSONObject> entries)
+            throws RepositoryException {
+        if (resultNode.hasNode(ISSUES_NODE)) {
+            resultNode.getNode(ISSUES_NODE).remove();
+        }
+        Node issuesNode = resultNode.addNode(ISSUES_NODE, "nt:unstructured");
+        int count = 0;
+        for (JSONObject entry : entries) {
+            if (count >= maxIssuesPerPage) {
+                break;
+            }
+            Node issue = issuesNode.addNode(String.valueOf(count++), "nt:unstructured");
+            issue.setProperty("pagePath", pagePath);
+            for (String property : new String[] { RULE_ID_PROPERTY, IMPACT_PROPERTY, TYPE_PROPERTY,
+                    WCAG_LEVEL_PROPERTY, COMPONENT_PATH_PROPERTY, RESOURCE_TYPE_PROPERTY, FINGERPRINT_PROPERTY,
+                    TARGET_PROPERTY, HTML_PROPERTY }) {
+                issue.setProperty(property, entry.isNull(property) ? null : entry.optString(property));
+            }
+            JSONArray criteria = entry.optJSONArray(WCAG_CRITERIA_PROPERTY);
+            String[] values = new String[criteria != null ? criteria.length() : 0];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = criteria.optString(i);
+            }
+            issue.setProperty(WCAG_CRITERIA_PROPERTY, values);
+        }
+    }
+
+    @Override
+    public void storeResult(String pagePath, String scanResultJson, String contentHash, String axeVersion)
+            throws LoginException, RepositoryException {
+        try {
+            submitResult(pagePath, scanResultJson, contentHash, axeVersion).get(storeTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            throw new RepositoryException("Timed out after " + storeTimeoutSeconds
+                    + "s waiting for the result of " + pagePath + " to be stored", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryException("Interrupted while storing the result of " + pagePath, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof LoginException) {
+                throw (LoginException) cause;
+            }
+            throw cause instanceof RepositoryException
+                    ? (RepositoryException) cause
+                    : new RepositoryException("Storing the result of " + pagePath + " failed", cause);
+        }
+    }
+
+    @Override
+    public String readResult(Node resultNode) throws RepositoryException, IOException {
+        String json = ScanResultCodec.read(resultNode);
+        if (json == null || !resultNode.hasProperty(AXE_VERSION_PROPERTY)) {
+            return json;
+        }
+        return ruleDictionary.expand(resultNode.getSession(),
+                resultNode.getProperty(AXE_VERSION_PROPERTY).getString(), json);
+    }
+
+    @Override
+    public CompletableFuture<Void> submitResult(String pagePath, String scanResultJson, String contentHash,
+                                                String axeVersion) {
+        return enqueue(new PendingWrite(pagePath, scanResultJson, contentHash, axeVersion))
+                .thenApply(value -> null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> submitChange(String pagePath, Change<T> change) {
+        return enqueue(new PendingWrite(pagePath, change)).thenApply(value -> (T) value);
+    }
+
+    private CompletableFuture<Object> enqueue(PendingWrite write) {
+        if (stopped) {
+            write.future.completeExceptionally(stoppedException());
+            return write.future;
+        }
+        try {
+            writeQueue.put(write);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            write.future.completeExceptionally(
+                    new RepositoryException("Interrupted while queueing a change of " + write.pagePath, e));
+        }
+        if (stopped) {
+            // Queued after deactivate() drained the queue
+            failQueued();
+        }
+        return write.future;
+    }
+
+    /**
+     * Body of the writer thread. Everything queued while a commit runs goes into the next one, so
+     * concurrent producers share commits instead of each saving its own and conflicting on the
+     * ancestor folders and rollups that all results update.
+     */
+    private void drainWriteQueue() {
+        List<PendingWrite> batch = new ArrayList<>(writeBatchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(writeQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            writeQueue.drainTo(batch, writeBatchSize - 1);
+            try {
+                commit(coalesce(batch));
+            } catch (RuntimeException e) {
+                log.error("Writing {} scan results failed", batch.size(), e);
+                batch.forEach(write -> write.fail(e));
+            } finally {
+                // Left open only when the writer was stopped in the middle of the batch
+                for (PendingWrite write : batch) {
+                    write.future.completeExceptionally(stoppedException());
+                }
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Keeps the latest of several queued results of the same page; the others complete with it. Other
+     * changes keep their place, and results queued before a change of their page are not replaced by
+     * results queued after it.
+     */
+    static List<PendingWrite> coalesce(List<PendingWrite> batch) {
+        List<PendingWrite> coalesced = new ArrayList<>(batch.size());
+        Map<String, PendingWrite> latest = new HashMap<>();
+        for (PendingWrite write : batch) {
+            if (write.change != null) {
+                latest.remove(write.pagePath);
+                coalesced.add(write);
+                continue;
+            }
+            PendingWrite replaced = latest.put(write.pagePath, write);
+            if (replaced != null) {
+                coalesced.remove(replaced);
+                write.superseded.add(replaced);
+                write.superseded.addAll(replaced.superseded);
+            }
+            coalesced.add(write);
+        }
+        return coalesced;
+    }
+
+    /**
+     * Writes and saves a batch. A conflict with a concurrent change, typically another cluster member
+     * updating the same rollups, discards the batch and writes it again on the refreshed state, which
+     * merges its rollup deltas with the other change. A result or change that cannot be written fails
+     * alone.
+     */
+    void commit(List<PendingWrite> batch) {
+        List<PendingWrite> remaining = new ArrayList<>(batch);
+        int conflicts = 0;
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            while (!remaining.isEmpty()) {
+                PendingWrite current = null;
+                try {
+                    for (PendingWrite write : remaining) {
+                        current = write;
+                        if (write.change != null) {
+                            write.value = write.change.apply(session);
+                        } else {
+                            writeResult(session, write.pagePath, write.scanResultJson, write.contentHash,
+                                    write.axeVersion);
+                        }
+                    }
+                    current = null;
+                    session.save();
+                    remaining.forEach(PendingWrite::complete);
+                    return;
+                } catch (InvalidItemStateException e) {
+                    session.refresh(false);
+                    if (stopped) {
+                        remaining.forEach(write -> write.fail(stoppedException()));
+                        return;
+                    }
+                    if (++conflicts > conflictRetries) {
+                        log.warn("Giving up on {} scan results after {} conflicts", remaining.size(), conflicts);
+                        remaining.forEach(write -> write.fail(e));
+                        return;
+                    }
+                    pause(conflictRetryDelayMs << (conflicts - 1));
+                } catch (RepositoryException e) {
+                    session.refresh(false);
+                    if (current != null) {
+                        log.warn("Writing the scan result of {} failed: {}", current.pagePath, e.getMessage());
+                        current.fail(e);
+                        remaining.remove(current);
+                    } else if (remaining.size() > 1) {
+                        // Isolate the result that breaks the save
+                        for (PendingWrite write : remaining) {
+                            commit(Collections.singletonList(write));
+                        }
+                        return;
+                    } else {
+                        log.warn("Saving the scan result of {} failed: {}", remaining.get(0).pagePath, e.getMessage());
+                        remaining.get(0).fail(e);
+                        return;
+                    }
+                }
+            }
+        } catch (LoginException | RepositoryException e) {
+            log.error("Scan result writer could not use its session", e);
+            remaining.forEach(write -> write.fail(e));
+        }
+    }
+
+    private static void pause(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A queued result, or a queued {@link Change} if {@code change} is set.
+     */
+    static final class PendingWrite {
+        private final String pagePath;
+        private final String scanResultJson;
+        private final String contentHash;
+        private final String axeVersion;
+        private final Change<?> change;
+        final CompletableFuture<Object> future = new CompletableFuture<>();
+        private final List<PendingWrite> superseded = new ArrayList<>();
+        private Object value;
+
+        PendingWrite(String pagePath, String scanResultJson, String contentHash, String axeVersion) {
+            this.pagePath = pagePath;
+            this.scanResultJson = scanResultJson;
+            this.contentHash = contentHash;
+            this.axeVersion = axeVersion;
+            this.change = null;
+        }
+
+        PendingWrite(String pagePath, Change<?> change) {
+            this.pagePath = pagePath;
+            this.scanResultJson = null;
+            this.contentHash = null;
+            this.axeVersion = null;
+            this.change = change;
+        }
+
+        private void complete() {
+            future.complete(value);
+            superseded.forEach(write -> write.future.complete(null));
+        }
+
+        private void fail(Exception e) {
+            future.completeExceptionally(e);
+            superseded.forEach(write -> write.future.completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public String readHistory(Session session, String pagePath) throws RepositoryException {
+        Node history = historyNode(session, pagePath);
+        return history != null ? ScanHistory.listRuns(history).toString() : null;
+    }
+
+    @Override
+    public String readRun(Session session, String pagePath, long run) throws RepositoryException {
+        Node history = historyNode(session, pagePath);
+        JSONArray issues = history != null ? ScanHistory.reconstruct(history, run) : null;
+        return issues != null ? issues.toString() : null;
+    }
+
+    @Override
+    public boolean removeResult(Session session, String pagePath) throws RepositoryException {
+        String folderPath = ROOT_PATH + pagePath;
+        if (!session.nodeExists(folderPath + "/" + RESULT_NODE)) {
+            return false;
+        }
+        Node pageFolder = session.getNode(folderPath);
+        Node resultNode = pageFolder.getNode(RESULT_NODE);
+        Rollup delta = Rollup.exists(resultNode) ? Rollup.empty().minus(Rollup.read(resultNode)) : Rollup.empty();
+        long stamped = updateAncestors(pageFolder, delta, System.currentTimeMillis());
+        resultNode.remove();
+
+        Node folder = pageFolder;
+        while (!ROOT_PATH.equals(folder.getPath()) && holdsNoResults(folder)) {
+            Node parent = folder.getParent();
+            folder.remove();
+            folder = parent;
+        }
+        if (level(folder) < rollupLevel) {
+            // The removed folders took the latest change with them; record a later one on the shared folder
+            // that kept them, beyond every other so all shared folders above it report a change too
+            Calendar latest = subtreeModified(session.getNode(ROOT_PATH));
+            stampSubtreeModified(folder, Math.max(stamped + 1, latest != null ? latest.getTimeInMillis() + 1 : 0));
+        }
+        return true;
+    }
+
+    @Override
+    public String readSummary(Session session, String contentPath) throws RepositoryException {
+        String path = ROOT_PATH + contentPath;
+        if (!session.nodeExists(path)) {
+            return null;
+        }
+        Rollup rollup = subtreeRollup(session.getNode(path));
+        return rollup.isZero() ? null : rollup.toJson().toString();
+    }
+
+    private Rollup subtreeRollup(Node folder) throws RepositoryException {
+        if (level(folder) >= rollupLevel) {
+            return Rollup.read(folder);
+        }
+        Rollup sum = folder.hasNode(RESULT_NODE) ? Rollup.read(folder.getNode(RESULT_NODE)) : Rollup.empty();
+        for (NodeIterator children = folder.getNodes(); children.hasNext(); ) {
+            Node child = children.nextNode();
+            if (!RESULT_NODE.equals(child.getName()) && !ROLLUP_NODE.equals(child.getName())) {
+                sum = sum.plus(subtreeRollup(child));
+            }
+        }
+        return sum;
+    }
+
+    @Override
+    public Calendar getSubtreeModified(Session session, String contentPath) throws RepositoryException {
+        String path = ROOT_PATH + contentPath;
+        return session.nodeExists(path) ? subtreeModified(session.getNode(path)) : null;
+    }
+
+    private Calendar subtreeModified(Node folder) throws RepositoryException {
+        Calendar latest = folder.hasProperty(SUBTREE_MODIFIED_PROPERTY)
+                ? folder.getProperty(SUBTREE_MODIFIED_PROPERTY).getDate()
+                : null;
+        if (level(folder) >= rollupLevel) {
+            return latest;
+        }
+        for (NodeIterator children = folder.getNodes(); children.hasNext(); ) {
+            Node child = children.nextNode();
+            if (!RESULT_NODE.equals(child.getName()) && !ROLLUP_NODE.equals(child.getName())) {
+                Calendar modified = subtreeModified(child);
+                if (modified != null && (latest == null || modified.after(latest))) {
+                    latest = modified;
+                }
+            }
+        }
+        return latest;
+    }
+
+    @Override
+    public int pruneHistory(Session session, String pagePath, int maxRuns, Calendar notBefore)
+            throws RepositoryException {
+        Node history = historyNode(session, pagePath);
+        return history != null ? ScanHistory.prune(history, maxRuns, notBefore) : 0;
+    }
+
+    /**
+     * @return whether the folder has no children apart from its rollup
+     */
+    private static boolean holdsNoResults(Node folder) throws RepositoryException {
+        NodeIterator children = folder.getNodes();
+        while (children.hasNext()) {
+            if (!ROLLUP_NODE.equals(children.nextNode().getName())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Node historyNode(Session session, String pagePath) throws RepositoryException {
+        String path = ROOT_PATH + pagePath + "/" + RESULT_NODE + "/" + HISTORY_NODE;
+        return session.nodeExists(path) ? session.getNode(path) : null;
+    }
+
+    /**
+     * Creates intermediate folder nodes under /var/a11y-scans for a given relative path.
+     */
+    private Node createIntermediateNodes(Node baseNode, String relativePath) throws RepositoryException {
+        String[] parts = relativePath.split("/");
+        Node current = baseNode;
+        for (String part : parts) {
+            if (part.isEmpty()) continue;
+            if (!current.hasNode(part)) {
+                current = current.addNode(part, "nt:unstructured");
+            } else {
+                current = current.getNode(part);
+            }
+        }
+        return current;
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, SUBSERVICE);
+        return factory.getServiceResourceResolver(authParams);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.day.cq.contentsync.handler.util.RequestResponseFactory;
+import com.day.cq.wcm.api.WCMMode;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshot;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshotService;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.engine.SlingRequestProcessor;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Renders pages in-process through Sling's request processing with the service user,
+ * so scans get the page markup without a socket, authentication or a second servlet thread.
+ * Pages that cannot be rendered this way are fetched over HTTP by {@link HttpHtmlSnapshotService}.
+ */
+@Designate(ocd = SlingHtmlSnapshotService.Config.class)
+@Component(service = HtmlSnapshotService.class,
+           property = Constants.SERVICE_RANKING + ":Integer=100")
+public class SlingHtmlSnapshotService implements HtmlSnapshotService {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - In-process HTML Renderer",
+                           description = "Renders pages for scanning without an HTTP round trip")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Enabled",
+                             description = "If disabled, every page is fetched over HTTP")
+        boolean enabled() default true;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SlingHtmlSnapshotService.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private SlingRequestProcessor requestProcessor;
+
+    @Reference
+    private RequestResponseFactory requestResponseFactory;
+
+    @Reference(target = "(component.name=com.example.aem.a11yaccelerator.core.services.impl.HttpHtmlSnapshotService)")
+    private HtmlSnapshotService httpFallback;
+
+    private boolean enabled;
+
+    @Activate
+    protected void activate(final Config config) {
+        enabled = config.enabled();
+    }
+
+    @Override
+    public String fetchHtml(String pagePath) {
+        if (enabled) {
+            String html = render(pagePath);
+            if (html != null) {
+                return html;
+            }
+        }
+        return httpFallback.fetchHtml(pagePath);
+    }
+
+    @Override
+    public HtmlSnapshot fetchSnapshot(String pagePath) {
+        if (enabled) {
+            String html = render(pagePath);
+            if (html != null) {
+                return HtmlSnapshot.of(html);
+            }
+        }
+        return httpFallback.fetchSnapshot(pagePath);
+    }
+
+    private String render(String pagePath) {
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            HttpServletRequest request = requestResponseFactory.createRequest("GET", pagePath + ".html");
+            // Render the publish view of the page, without authoring decoration
+            WCMMode.DISABLED.toRequest(request);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            HttpServletResponse response = requestResponseFactory.createResponse(out);
+            requestProcessor.processRequest(request, response, resolver);
+            response.getWriter().flush();
+
+            if (response.getStatus() != HttpServletResponse.SC_OK) {
+                log.warn("In-process rendering of {} returned {}, falling back to HTTP", pagePath, response.getStatus());
+                return null;
+            }
+            return out.toString(StandardCharsets.UTF_8.name());
+        } catch (LoginException | ServletException | IOException e) {
+            log.warn("In-process rendering of {} failed, falling back to HTTP: {}", pagePath, e.getMessage());
+            return null;
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, ScanResultStoreImpl.SUBSERVICE);
+        return factory.getServiceResourceResolver(authParams);
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import com.example.aem.a11yaccelerator.core.utils.ContentHash;
+import com.example.aem.a11yaccelerator.core.utils.LruCache;
+import org.apache.jackrabbit.util.Text;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.ItemExistsException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps suggestions in a bounded in-memory LRU in front of nodes below {@value SuggestionCache#ROOT_PATH},
+ * laid out as {@code <rule id>/<first two hex digits of the key>/<key>} so no folder grows beyond a few
+ * hundred children. The repository tier survives restarts and is shared by every instance reading the same
+ * repository; a hit there is copied into memory.
+ */
+@Designate(ocd = SuggestionCacheImpl.Config.class)
+@Component(service = SuggestionCache.class)
+public class SuggestionCacheImpl implements SuggestionCache {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - AI Suggestion Cache",
+                           description = "Caches remediation suggestions per rule and normalized snippet")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Memory cache size",
+                             description = "Suggestions kept in memory; 0 disables the in-memory tier")
+        int memoryCacheSize() default 2000;
+
+        @AttributeDefinition(name = "Persist suggestions",
+                             description = "Stores suggestions below /var/a11y-suggestions")
+        boolean persist() default true;
+
+        @AttributeDefinition(name = "Maximum age in days",
+                             description = "Older suggestions are generated again and are removed by the scan "
+                                     + "retention job; 0 keeps them indefinitely")
+        int maxAgeDays() default 90;
+    }
+
+    static final String SUGGESTION_PROPERTY = "suggestion";
+    static final String RULE_ID_PROPERTY = "ruleId";
+    static final String CREATED_PROPERTY = "created";
+
+    /** Attributes whose values differ between renderings of the same markup. */
+    private static final Pattern VOLATILE_ATTRIBUTES = Pattern.compile(
+            "\\s(?:nonce|data-cmp-data-layer|data-cq-[\\w-]*|data-(?:[\\w-]*-)?id)\\s*=\\s*(?:\"[^\"]*\"|'[^']*'|[^\\s>]*)",
+            Pattern.CASE_INSENSITIVE);
+
+    /** Attributes holding or referring to element ids, the only values with generated suffixes. */
+    private static final Pattern ID_ATTRIBUTES = Pattern.compile(
+            "(\\s(?:id|for|aria-[\\w-]+)\\s*=\\s*)(\"[^\"]*\"|'[^']*'|[^\\s>]*)", Pattern.CASE_INSENSITIVE);
+
+    /** Hash suffixes that make generated ids unique, as in {@code teaser-4f0a8a3e5c}. */
+    private static final Pattern GENERATED_ID_SUFFIX = Pattern.compile("-(?=[0-9a-f]*\\d)[0-9a-f]{8,}\\b");
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionCacheImpl.class);
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    private LruCache<String, CachedSuggestion> memory;
+    private boolean persist;
+    private long maxAgeMillis;
+
+    @Activate
+    protected void activate(final Config config) {
+        memory = config.memoryCacheSize() > 0 ? new LruCache<>(config.memoryCacheSize()) : null;
+        persist = config.persist();
+        maxAgeMillis = TimeUnit.DAYS.toMillis(Math.max(0, config.maxAgeDays()));
+    }
+
+    @Override
+    public String get(String ruleId, String snippet) {
+        String key = key(ruleId, snippet);
+        CachedSuggestion cached = memory != null ? memory.get(key) : null;
+        if (cached != null && !isExpired(cached.created)) {
+            return cached.suggestion;
+        }
+        if (!persist) {
+            return null;
+        }
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            cached = load(resolver.adaptTo(Session.class), ruleId, key);
+        } catch (LoginException | RepositoryException e) {
+            log.warn("Could not read cached suggestion for {}: {}", ruleId, e.getMessage());
+            return null;
+        }
+        if (cached == null) {
+            return null;
+        }
+        if (memory != null) {
+            memory.put(key, cached);
+        }
+        return cached.suggestion;
+    }
+
+    @Override
+    public void put(String ruleId, String snippet, String suggestion) {
+        String key = key(ruleId, snippet);
+        CachedSuggestion cached = new CachedSuggestion(suggestion, System.currentTimeMillis());
+        if (memory != null) {
+            memory.put(key, cached);
+        }
+        if (!persist) {
+            return;
+        }
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            try {
+                store(session, ruleId, key, cached);
+                session.save();
+            } catch (ItemExistsException | InvalidItemStateException e) {
+                // Stored concurrently for the same key, possibly by another instance; keep the stored one so
+                // every instance serves the same suggestion
+                log.debug("Suggestion for {} was cached concurrently", ruleId);
+                session.refresh(false);
+                CachedSuggestion winner = load(session, ruleId, key);
+                if (winner != null && memory != null) {
+                    memory.put(key, winner);
+                }
+            }
+        } catch (LoginException | RepositoryException e) {
+            log.warn("Could not persist suggestion for {}: {}", ruleId, e.getMessage());
+        }
+    }
+
+    /**
+     * @return the cache key of an issue: a hash of the rule id and the normalized snippet
+     */
+    static String key(String ruleId, String snippet) {
+        return ContentHash.sha256(ruleId, normalizeSnippet(snippet));
+    }
+
+    /**
+     * Drops volatile attributes and generated id suffixes, then comments and formatting.
+     */
+    static String normalizeSnippet(String snippet) {
+        if (snippet == null) {
+            return "";
+        }
+        String stable = VOLATILE_ATTRIBUTES.matcher(snippet).replaceAll("");
+        // Only in id values: hex in a src or href names a different resource
+        Matcher ids = ID_ATTRIBUTES.matcher(stable);
+        StringBuffer withoutSuffixes = new StringBuffer();
+        while (ids.find()) {
+            ids.appendReplacement(withoutSuffixes, Matcher.quoteReplacement(
+                    ids.group(1) + GENERATED_ID_SUFFIX.matcher(ids.group(2)).replaceAll("-*")));
+        }
+        ids.appendTail(withoutSuffixes);
+        return ContentHash.normalizeHtml(withoutSuffixes.toString());
+    }
+
+    @Override
+    public List<String> findExpired(Session session) throws RepositoryException {
+        List<String> expired = new ArrayList<>();
+        if (maxAgeMillis <= 0 || !session.nodeExists(ROOT_PATH)) {
+            return expired;
+        }
+        // <rule id>/<prefix>/<key>
+        for (NodeIterator rules = session.getNode(ROOT_PATH).getNodes(); rules.hasNext(); ) {
+            for (NodeIterator prefixes = rules.nextNode().getNodes(); prefixes.hasNext(); ) {
+                for (NodeIterator entries = prefixes.nextNode().getNodes(); entries.hasNext(); ) {
+                    Node entry = entries.nextNode();
+                    if (!entry.hasProperty(CREATED_PROPERTY)
+                            || isExpired(entry.getProperty(CREATED_PROPERTY).getDate().getTimeInMillis())) {
+                        expired.add(entry.getPath());
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    CachedSuggestion load(Session session, String ruleId, String key) throws RepositoryException {
+        String path = entryPath(ruleId, key);
+        if (!session.nodeExists(path)) {
+            return null;
+        }
+        Node entry = session.getNode(path);
+        long created = entry.hasProperty(CREATED_PROPERTY)
+                ? entry.getProperty(CREATED_PROPERTY).getDate().getTimeInMillis() : 0;
+        if (!entry.hasProperty(SUGGESTION_PROPERTY) || isExpired(created)) {
+            return null;
+        }
+        return new CachedSuggestion(entry.getProperty(SUGGESTION_PROPERTY).getString(), created);
+    }
+
+    /**
+     * Writes the entry without saving, replacing an expired one.
+     */
+    void store(Session session, String ruleId, String key, CachedSuggestion cached) throws RepositoryException {
+        Node folder = getOrCreateFolder(session, ROOT_PATH);
+        folder = getOrCreateChild(folder, Text.escapeIllegalJcrChars(ruleId));
+        folder = getOrCreateChild(folder, key.substring(0, 2));
+        Node entry = folder.hasNode(key) ? folder.getNode(key) : folder.addNode(key, "nt:unstructured");
+        Calendar created = Calendar.getInstance();
+        created.setTimeInMillis(cached.created);
+        entry.setProperty(RULE_ID_PROPERTY, ruleId);
+        entry.setProperty(SUGGESTION_PROPERTY, cached.suggestion);
+        entry.setProperty(CREATED_PROPERTY, created);
+    }
+
+    private boolean isExpired(long created) {
+        return maxAgeMillis > 0 && System.currentTimeMillis() - created > maxAgeMillis;
+    }
+
+    private static String entryPath(String ruleId, String key) {
+        return ROOT_PATH + "/" + Text.escapeIllegalJcrChars(ruleId) + "/" + key.substring(0, 2) + "/" + key;
+    }
+
+    private static Node getOrCreateFolder(Session session, String path) throws RepositoryException {
+        Node varNode = session.getNode("/var");
+        String name = path.substring("/var/".length());
+        return varNode.hasNode(name) ? varNode.getNode(name) : varNode.addNode(name, "sling:Folder");
+    }
+
+    private static Node getOrCreateChild(Node parent, String name) throws RepositoryException {
+        return parent.hasNode(name) ? parent.getNode(name) : parent.addNode(name, "sling:Folder");
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, ScanResultStoreImpl.SUBSERVICE);
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    static final class CachedSuggestion {
+
+        final String suggestion;
+        final long created;
+
+        CachedSuggestion(String suggestion, long created) {
+            this.suggestion = suggestion;
+            this.created = created;
+        }
+    }
+}
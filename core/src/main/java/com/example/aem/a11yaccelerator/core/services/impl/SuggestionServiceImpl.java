@@ -0,0 +1,290 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import com.example.aem.a11yaccelerator.core.services.SuggestionProvider;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import com.example.aem.a11yaccelerator.core.services.SuggestionService;
+import com.example.aem.a11yaccelerator.core.services.SuggestionStream;
+import com.example.aem.a11yaccelerator.core.utils.WorkerPools;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
+import org.osgi.service.component.annotations.ReferencePolicyOption;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs suggestion requests through the configured {@link SuggestionProvider} on a fixed-size pool. The
+ * pool size is the number of suggestions being written at any time, across all callers; calls beyond it
+ * wait in a bounded queue. Requests that are equivalent by {@link SuggestionCacheImpl#key} are joined
+ * while a call for them is running, whether they wait for the answer or stream it.
+ * <p>
+ * Streams are kept by id until some minutes after they end, so readers can reconnect and resume.
+ */
+@Designate(ocd = SuggestionServiceImpl.Config.class)
+@Component(service = SuggestionService.class)
+public class SuggestionServiceImpl implements SuggestionService {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - AI Suggestion Service",
+                           description = "Generates remediation suggestions with a language model")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Concurrent model calls",
+                             description = "Maximum number of requests to the model provider in flight")
+        int maxConcurrentRequests() default 8;
+
+        @AttributeDefinition(name = "Max queued calls",
+                             description = "Calls waiting for a free slot; calls beyond this are rejected")
+        int maxQueuedRequests() default 1000;
+
+        @AttributeDefinition(name = "Max batch size",
+                             description = "Maximum number of items in one batch request")
+        int maxBatchSize() default 500;
+
+        @AttributeDefinition(name = "Batch timeout (seconds)",
+                             description = "Items of a batch not answered by then are reported as timed out")
+        int batchTimeoutSeconds() default 120;
+
+        @AttributeDefinition(name = "Stream retention (minutes)",
+                             description = "How long a finished suggestion stream can still be read")
+        int streamRetentionMinutes() default 10;
+
+        @AttributeDefinition(name = "Suggestion provider",
+                             description = "remote asks the language model; local writes suggestions from the built-in "
+                                     + "fix catalogue, offline and without caching")
+        String provider() default ChatCompletionSuggestionProvider.NAME;
+    }
+
+    private static final Logger log = LoggerFactory.getLogger(SuggestionServiceImpl.class);
+
+    private final Map<String, Call> inFlight = new ConcurrentHashMap<>();
+
+    private final Map<String, SuggestionStream> streams = new ConcurrentHashMap<>();
+
+    @Reference
+    private SuggestionCache suggestionCache;
+
+    @Reference(service = SuggestionProvider.class,
+               cardinality = ReferenceCardinality.MULTIPLE,
+               policy = ReferencePolicy.DYNAMIC,
+               policyOption = ReferencePolicyOption.GREEDY)
+    private volatile List<SuggestionProvider> providers = Collections.emptyList();
+
+    private ThreadPoolExecutor executor;
+    private int maxBatchSize;
+    private long batchTimeoutMillis;
+    private long streamRetentionMillis;
+    private String providerName;
+
+    @Activate
+    protected void activate(final Config config) {
+        maxBatchSize = Math.max(1, config.maxBatchSize());
+        batchTimeoutMillis = TimeUnit.SECONDS.toMillis(Math.max(1, config.batchTimeoutSeconds()));
+        streamRetentionMillis = TimeUnit.MINUTES.toMillis(Math.max(1, config.streamRetentionMinutes()));
+        providerName = config.provider() != null ? config.provider().trim() : ChatCompletionSuggestionProvider.NAME;
+        executor = WorkerPools.bounded("a11y-ai-suggestion-", config.maxConcurrentRequests(),
+                config.maxQueuedRequests());
+    }
+
+    @Deactivate
+    protected void deactivate() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        // Release callers still waiting for calls that will not run any more
+        inFlight.values().forEach(call -> call.finish(
+                Suggestion.failed(call.stream.getRuleId(), 503, "Suggestion service is shutting down", null)));
+        inFlight.clear();
+        streams.clear();
+    }
+
+    @Override
+    public Suggestion suggest(SuggestionRequest request) {
+        try {
+            return submit(request).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Suggestion.failed(request.getRuleId(), 503, "Interrupted while waiting for the suggestion", null);
+        } catch (ExecutionException e) {
+            return failure(request, e.getCause());
+        }
+    }
+
+    @Override
+    public List<Suggestion> suggestAll(List<SuggestionRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new IllegalArgumentException("A batch may have at most " + maxBatchSize + " items");
+        }
+        // Equivalent items of the batch share one future
+        Map<String, CompletableFuture<Suggestion>> unique = new HashMap<>();
+        List<CompletableFuture<Suggestion>> futures = new ArrayList<>(requests.size());
+        for (SuggestionRequest request : requests) {
+            futures.add(unique.computeIfAbsent(SuggestionCacheImpl.key(request.getRuleId(), request.getSnippet()),
+                    key -> submit(request)));
+        }
+
+        long deadline = System.currentTimeMillis() + batchTimeoutMillis;
+        List<Suggestion> suggestions = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            SuggestionRequest request = requests.get(i);
+            try {
+                suggestions.add(futures.get(i).get(Math.max(0, deadline - System.currentTimeMillis()),
+                        TimeUnit.MILLISECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                suggestions.add(Suggestion.failed(request.getRuleId(), 503, "Interrupted while waiting", null));
+            } catch (ExecutionException e) {
+                suggestions.add(failure(request, e.getCause()));
+            } catch (TimeoutException e) {
+                suggestions.add(Suggestion.failed(request.getRuleId(), 504, "Timed out waiting for the model", null));
+            }
+        }
+        log.debug("Batch of {} suggestion requests had {} distinct issues", requests.size(), unique.size());
+        return suggestions;
+    }
+
+    @Override
+    public SuggestionStream stream(SuggestionRequest request) {
+        purgeExpiredStreams();
+        SuggestionProvider provider = provider();
+        String cached = cachedSuggestion(provider, request);
+        if (cached != null) {
+            SuggestionStream stream = new SuggestionStream(UUID.randomUUID().toString(), request.getRuleId());
+            stream.complete(Suggestion.of(request.getRuleId(), cached, true));
+            streams.put(stream.getId(), stream);
+            return stream;
+        }
+        SuggestionStream stream = start(provider, request).stream;
+        streams.putIfAbsent(stream.getId(), stream);
+        return stream;
+    }
+
+    @Override
+    public SuggestionStream getStream(String id) {
+        // Reconnecting readers purge too, so streams expire while no new ones are started
+        purgeExpiredStreams();
+        return id != null ? streams.get(id) : null;
+    }
+
+    private void purgeExpiredStreams() {
+        long cutoff = System.currentTimeMillis() - streamRetentionMillis;
+        streams.values().removeIf(stream -> stream.getFinishedAt() > 0 && stream.getFinishedAt() < cutoff);
+    }
+
+    /**
+     * Answers from the cache or from the running or new call for the request.
+     */
+    private CompletableFuture<Suggestion> submit(SuggestionRequest request) {
+        SuggestionProvider provider = provider();
+        String cached = cachedSuggestion(provider, request);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(Suggestion.of(request.getRuleId(), cached, true));
+        }
+        return start(provider, request).future;
+    }
+
+    /**
+     * Joins a running call for an equivalent request or queues a new one.
+     */
+    private Call start(SuggestionProvider provider, SuggestionRequest request) {
+        String key = SuggestionCacheImpl.key(request.getRuleId(), request.getSnippet());
+        Call call = new Call(request.getRuleId());
+        Call running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            return running;
+        }
+        try {
+            executor.execute(() -> {
+                Suggestion suggestion = generate(provider, request, call.stream);
+                // Later requests find the suggestion in the cache
+                inFlight.remove(key, call);
+                call.finish(suggestion);
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, call);
+            call.finish(Suggestion.failed(request.getRuleId(), 503, "Too many pending suggestion requests", null));
+        }
+        return call;
+    }
+
+    /**
+     * @return the configured provider, or null if it is not registered
+     */
+    private SuggestionProvider provider() {
+        for (SuggestionProvider provider : providers) {
+            if (providerName.equals(provider.getName())) {
+                return provider;
+            }
+        }
+        return null;
+    }
+
+    private String cachedSuggestion(SuggestionProvider provider, SuggestionRequest request) {
+        return provider != null && provider.isCacheable()
+                ? suggestionCache.get(request.getRuleId(), request.getSnippet()) : null;
+    }
+
+    /**
+     * Writes the suggestion with the provider. Every piece of text is appended to the stream as it is
+     * written.
+     */
+    private Suggestion generate(SuggestionProvider provider, SuggestionRequest request, SuggestionStream stream) {
+        if (provider == null) {
+            return Suggestion.failed(request.getRuleId(), 503,
+                    "Suggestion provider '" + providerName + "' is not available", null);
+        }
+        try {
+            Suggestion suggestion = provider.suggest(request, stream::append);
+            if (!suggestion.isFailed() && provider.isCacheable()) {
+                suggestionCache.put(request.getRuleId(), request.getSnippet(), suggestion.getText());
+            }
+            return suggestion;
+        } catch (RuntimeException e) {
+            return failure(request, e);
+        }
+    }
+
+    private static Suggestion failure(SuggestionRequest request, Throwable e) {
+        log.warn("Suggestion for {} failed: {}", request.getRuleId(), e.getMessage());
+        return Suggestion.failed(request.getRuleId(), 500, "Unexpected error while writing the suggestion", e.getMessage());
+    }
+
+    /**
+     * A running provider call. Callers waiting for the answer use the future, readers of the text the
+     * stream, which is registered for reading only once a reader asks for it.
+     */
+    private static final class Call {
+        private final CompletableFuture<Suggestion> future = new CompletableFuture<>();
+        private final SuggestionStream stream;
+
+        private Call(String ruleId) {
+            stream = new SuggestionStream(UUID.randomUUID().toString(), ruleId);
+        }
+
+        private void finish(Suggestion suggestion) {
+            stream.complete(suggestion);
+            future.complete(suggestion);
+        }
+    }
+}
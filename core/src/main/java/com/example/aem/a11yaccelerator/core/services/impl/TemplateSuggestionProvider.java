@@ -0,0 +1,150 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionProvider;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.Designate;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes suggestions from a template without calling a model: the fix and rationale of the rule from the
+ * catalogue at {@value #CATALOGUE_PATH}, the axe help text and the offending markup. The same issue always
+ * gets the same text, at once and offline, which makes it suitable for load tests and for sites that do not
+ * want their markup sent to a model provider.
+ * <p>
+ * Rules missing from the catalogue get a suggestion built from their help text alone.
+ */
+@Designate(ocd = TemplateSuggestionProvider.Config.class)
+@Component(service = SuggestionProvider.class)
+public class TemplateSuggestionProvider implements SuggestionProvider {
+
+    @ObjectClassDefinition(name = "A11y Accelerator - Template Suggestion Provider",
+                           description = "Suggests remediations from a fix catalogue instead of a language model")
+    public static @interface Config {
+
+        @AttributeDefinition(name = "Additional fixes",
+                             description = "Entries of the form ruleId=fix that add to or replace the built-in catalogue")
+        String[] fixes() default {};
+
+        @AttributeDefinition(name = "Max snippet length",
+                             description = "Longer snippets are shortened in the suggestion")
+        int maxSnippetLength() default 300;
+    }
+
+    static final String NAME = "local";
+
+    static final String CATALOGUE_PATH = "/a11y/fix-catalogue.json";
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateSuggestionProvider.class);
+
+    private final Map<String, Fix> catalogue = new HashMap<>();
+
+    private int maxSnippetLength;
+
+    @Activate
+    protected void activate(final Config config) {
+        maxSnippetLength = Math.max(0, config.maxSnippetLength());
+        catalogue.clear();
+        try (InputStream in = getClass().getResourceAsStream(CATALOGUE_PATH)) {
+            if (in != null) {
+                JsonObject entries = new Gson().fromJson(new InputStreamReader(in, StandardCharsets.UTF_8),
+                        JsonObject.class);
+                for (Map.Entry<String, JsonElement> entry : entries.entrySet()) {
+                    JsonObject fix = entry.getValue().getAsJsonObject();
+                    catalogue.put(entry.getKey(), new Fix(fix.get("fix").getAsString(),
+                            fix.has("why") ? fix.get("why").getAsString() : null));
+                }
+            } else {
+                log.error("Fix catalogue {} not found in resources", CATALOGUE_PATH);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Error loading fix catalogue {}", CATALOGUE_PATH, e);
+        }
+        for (String entry : config.fixes()) {
+            int separator = entry != null ? entry.indexOf('=') : -1;
+            if (separator > 0) {
+                String ruleId = entry.substring(0, separator).trim();
+                Fix builtIn = catalogue.get(ruleId);
+                catalogue.put(ruleId, new Fix(entry.substring(separator + 1).trim(),
+                        builtIn != null ? builtIn.why : null));
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean isCacheable() {
+        return false;
+    }
+
+    @Override
+    public Suggestion suggest(SuggestionRequest request, Consumer<String> onToken) {
+        String text = write(request);
+        if (onToken != null) {
+            // One piece per line, so streaming readers see the same text arrive as with a model
+            int start = 0;
+            while (start < text.length()) {
+                int end = text.indexOf('\n', start);
+                end = end < 0 ? text.length() : end + 1;
+                onToken.accept(text.substring(start, end));
+                start = end;
+            }
+        }
+        return Suggestion.of(request.getRuleId(), text, false);
+    }
+
+    private String write(SuggestionRequest request) {
+        String ruleId = request.getRuleId();
+        String help = request.getHelp().trim();
+        Fix fix = catalogue.get(ruleId);
+
+        StringBuilder text = new StringBuilder();
+        if (!help.isEmpty()) {
+            text.append("Issue (").append(ruleId).append("): ").append(help).append("\n\n");
+        }
+        text.append("Fix: ").append(fix != null ? fix.fix
+                : help.isEmpty() ? "Change the element so that it passes the axe rule " + ruleId + "."
+                : "Change the element so that it meets the requirement above.");
+
+        String snippet = request.getSnippet().trim();
+        if (!snippet.isEmpty()) {
+            if (snippet.length() > maxSnippetLength) {
+                snippet = snippet.substring(0, maxSnippetLength) + "...";
+            }
+            text.append("\n\nElement:\n").append(snippet);
+        }
+        text.append("\n\nWhy: ").append(fix != null && fix.why != null ? fix.why
+                : "Elements that fail this rule are hard or impossible to use with assistive technologies.");
+        return text.toString();
+    }
+
+    private static final class Fix {
+        private final String fix;
+        private final String why;
+
+        private Fix(String fix, String why) {
+            this.fix = fix;
+            this.why = why;
+        }
+    }
+}
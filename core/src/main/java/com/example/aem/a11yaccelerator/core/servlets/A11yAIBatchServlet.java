@@ -0,0 +1,89 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import com.example.aem.a11yaccelerator.core.services.SuggestionService;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingAllMethodsServlet;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.servlet.Servlet;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Suggests remediations for many issues in one request.
+ * <p>
+ * POST {@code {"items": [{ruleId, snippet, help}, ...]}} answers with {@code {suggestions: [...]}}, one entry
+ * per item in the same order and shaped like the answer of /bin/a11yaccelerator/a11y-ai-suggestions.
+ * Equivalent items are sent to the model once and the rest run concurrently, so a page full of issues
+ * takes about as long as its slowest suggestion.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Scan AI Batch Suggestion Servlet",
+        "sling.servlet.paths=/bin/a11yaccelerator/a11y-ai-suggestions/batch",
+        "sling.servlet.methods=POST"
+    }
+)
+public class A11yAIBatchServlet extends SlingAllMethodsServlet {
+
+    private final Gson gson = new Gson();
+
+    @Reference
+    private SuggestionService suggestionService;
+
+    @Override
+    protected void doPost(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        JsonArray items;
+        try {
+            JsonObject input = gson.fromJson(request.getReader(), JsonObject.class);
+            JsonElement itemsElement = input != null ? input.get("items") : null;
+            if (itemsElement == null || !itemsElement.isJsonArray()) {
+                writeError(response, 400, "Invalid JSON. Expected 'items' array.");
+                return;
+            }
+            items = itemsElement.getAsJsonArray();
+        } catch (JsonParseException e) {
+            writeError(response, 400, "Invalid JSON: " + e.getMessage());
+            return;
+        }
+
+        List<SuggestionRequest> requests = new ArrayList<>(items.size());
+        for (JsonElement item : items) {
+            requests.add(A11yAIServlet.toRequest(item.isJsonObject() ? item.getAsJsonObject() : null));
+        }
+        List<Suggestion> suggestions;
+        try {
+            suggestions = suggestionService.suggestAll(requests);
+        } catch (IllegalArgumentException e) {
+            writeError(response, 413, e.getMessage());
+            return;
+        }
+
+        JsonArray output = new JsonArray();
+        suggestions.forEach(suggestion -> output.add(A11yAIServlet.toJson(suggestion)));
+        JsonObject body = new JsonObject();
+        body.add("suggestions", output);
+        response.getWriter().write(gson.toJson(body));
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionService;
+import com.example.aem.a11yaccelerator.core.services.SuggestionStream;
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.servlets.SlingAllMethodsServlet;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.servlet.Servlet;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Delivers AI suggestions while the model writes them.
+ * <p>
+ * POST with the body of /bin/a11yaccelerator/a11y-ai-suggestions starts the suggestion on the
+ * suggestion service's pool and answers at once with 202 and {@code {id, ruleId}}. GET {@code ?id=} then
+ * sends the text as server-sent events: a {@code token} event per piece of text, whose data is a JSON
+ * string, then a {@code done} event with the answer of the single endpoint, or a {@code failure} event.
+ * <p>
+ * A GET holds its request thread for at most {@value #WINDOW_MILLIS} ms. If the suggestion is not finished
+ * by then, the response ends and the browser's EventSource reconnects. It sends the id of the last token
+ * it received as Last-Event-ID, and the stream resumes after that token.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Scan AI Suggestion Stream Servlet",
+        "sling.servlet.paths=/bin/a11yaccelerator/a11y-ai-suggestions/stream",
+        "sling.servlet.methods=[GET,POST]"
+    }
+)
+public class A11yAIStreamServlet extends SlingAllMethodsServlet {
+
+    static final long WINDOW_MILLIS = 20000;
+
+    /** Interval of keep-alive comments, which also reveal a client that has gone away. */
+    private static final long HEARTBEAT_MILLIS = 5000;
+
+    private final Gson gson = new Gson();
+
+    @Reference
+    private SuggestionService suggestionService;
+
+    @Override
+    protected void doPost(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        JsonObject input;
+        try {
+            input = gson.fromJson(request.getReader(), JsonObject.class);
+        } catch (JsonParseException e) {
+            writeError(response, 400, "Invalid JSON: " + e.getMessage());
+            return;
+        }
+        SuggestionStream stream = suggestionService.stream(A11yAIServlet.toRequest(input));
+        JsonObject accepted = new JsonObject();
+        accepted.addProperty("id", stream.getId());
+        accepted.addProperty("ruleId", stream.getRuleId());
+        response.setStatus(202);
+        response.getWriter().write(gson.toJson(accepted));
+    }
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response) throws IOException {
+        SuggestionStream stream = suggestionService.getStream(request.getParameter("id"));
+        if (stream == null) {
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            writeError(response, 404, "Unknown or expired suggestion stream");
+            return;
+        }
+        int from = parseIndex(request.getHeader("Last-Event-ID"));
+        if (from == 0) {
+            from = parseIndex(request.getParameter("from"));
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // Keeps buffering proxies from holding back the events
+        response.setHeader("X-Accel-Buffering", "no");
+        PrintWriter writer = response.getWriter();
+        writer.write("retry: 500\n\n");
+        writer.flush();
+
+        long deadline = System.currentTimeMillis() + WINDOW_MILLIS;
+        try {
+            while (true) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return;
+                }
+                List<String> chunks = stream.await(from, Math.min(remaining, HEARTBEAT_MILLIS));
+                for (String chunk : chunks) {
+                    from++;
+                    writer.write("id: " + from + "\nevent: token\ndata: " + gson.toJson(chunk) + "\n\n");
+                }
+                Suggestion result = stream.getResult();
+                if (result != null && stream.await(from, 0).isEmpty()) {
+                    writer.write((result.isFailed() ? "event: failure\ndata: " : "event: done\ndata: ")
+                            + gson.toJson(A11yAIServlet.toJson(result)) + "\n\n");
+                    writer.flush();
+                    return;
+                }
+                if (chunks.isEmpty()) {
+                    writer.write(": keep-alive\n\n");
+                }
+                writer.flush();
+                if (writer.checkError()) {
+                    // The browser went away; the suggestion is still finished and cached
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int parseIndex(String value) {
+        try {
+            return value != null ? Math.max(0, Integer.parseInt(value.trim())) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -1,12 +1,13 @@
 package com.example.aem.a11yaccelerator.core.servlets;
 //import com.adobe.forms.foundation.transfer.AssetScanInfo.Issue;
-//import com.day.cq.wcm.api.Page;
-//import com.day.cq.wcm.api.PageManager;
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
 import com.example.aem.a11yaccelerator.core.services.RulesEngineService;
-//import com.google.gson.Gson;
+import com.google.gson.Gson;
 
-import com.example.aem.a11yaccelerator.core.utils.HtmlSnapshotFetcher;
-import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
 import org.apache.sling.api.SlingHttpServletRequest;
 import org.apache.sling.api.SlingHttpServletResponse;
 //import org.apache.sling.api.resource.Resource;
@@ -16,6 +17,9 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 import org.osgi.framework.Constants;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Iterator;
+import java.util.List;
 //import java.util.*;
 
 import javax.servlet.Servlet;
@@ -34,6 +38,11 @@ public class AccessibilityScanService  extends SlingAllMethodsServlet {
     @Reference
     private RulesEngineService rulesEngine;
 
+    @Reference
+    private PageScanService pageScanService;
+
+    private final Gson gson = new Gson();
+
     @Override
     protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
             throws ServletException, IOException {
@@ -45,24 +54,60 @@ public class AccessibilityScanService  extends SlingAllMethodsServlet {
             return;
         }
 
-        try {
-            // Fetch HTML from Author instance (could be Publish in prod)
-            String html = HtmlSnapshotFetcher.fetchHtml("http://localhost:4502", scanPath);
+        if (Boolean.parseBoolean(request.getParameter("prescan"))) {
+            writePrescan(request, response, scanPath, Boolean.parseBoolean(request.getParameter("deep")));
+            return;
+        }
 
-            if (html != null) {
-                AxeCoreRunner runner = new AxeCoreRunner();
-                String reportJson = runner.runAccessibilityScan(html);
+        try {
+            // Rendered in-process (or fetched from the instance); unchanged markup reuses the cached result
+            PageScanResult result = pageScanService.scanPage(scanPath);
 
-                response.setContentType("application/json");
-                response.getWriter().write(reportJson);
-            } else {
-                response.setStatus(SlingHttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-                response.getWriter().write("{\"error\":\"Failed to fetch HTML snapshot\"}");
-            }
+            response.setContentType("application/json");
+            response.setHeader("X-A11y-Scan-Cache", result.isCached() ? "HIT" : "MISS");
+            response.getWriter().write(result.getResultJson());
         } catch (Exception e) {
             response.setStatus(SlingHttpServletResponse.SC_INTERNAL_SERVER_ERROR);
             response.getWriter().write("{\"error\":\"" + e.getMessage() + "\"}");
         }
     }
-    
+
+    /**
+     * Content-only pre-scan: checks the page (and with {@code deep=true} every page below it) against
+     * the JCR rules and streams {@code [{pagePath, issues}]}, so pages can be triaged before the
+     * rendered axe-core pass.
+     */
+    private void writePrescan(SlingHttpServletRequest request, SlingHttpServletResponse response,
+                              String scanPath, boolean deep) throws IOException {
+        PageManager pageManager = request.getResourceResolver().adaptTo(PageManager.class);
+        Page root = pageManager != null ? pageManager.getPage(scanPath.replaceAll("\\.html$", "")) : null;
+        if (root == null) {
+            response.setStatus(SlingHttpServletResponse.SC_NOT_FOUND);
+            response.getWriter().write("{\"error\":\"Page not found\"}");
+            return;
+        }
+
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        PrintWriter writer = response.getWriter();
+        writer.write('[');
+        writePrescanEntry(writer, root);
+        if (deep) {
+            Iterator<Page> pages = root.listChildren(null, true);
+            while (pages.hasNext()) {
+                writer.write(',');
+                writePrescanEntry(writer, pages.next());
+            }
+        }
+        writer.write(']');
+    }
+
+    private void writePrescanEntry(PrintWriter writer, Page page) {
+        List<Issue> issues = rulesEngine.scanPage(page);
+        writer.write("{\"pagePath\":");
+        writer.write(gson.toJson(page.getPath()));
+        writer.write(",\"issues\":");
+        writer.write(gson.toJson(issues));
+        writer.write('}');
+    }
 }
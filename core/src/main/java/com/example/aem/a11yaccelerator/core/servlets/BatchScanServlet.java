@@ -0,0 +1,143 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.day.cq.wcm.api.Page;
+import com.day.cq.wcm.api.PageManager;
+import com.example.aem.a11yaccelerator.core.services.BatchScanJob;
+import com.example.aem.a11yaccelerator.core.services.BatchScanService;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.servlets.SlingAllMethodsServlet;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Starts server-side scans of many pages and reports their progress.
+ * <p>
+ * POST a JSON body with either {@code rootPath} (the page and all pages below it are scanned)
+ * or a {@code paths} array. The response carries a {@code jobId} that can be polled with
+ * GET {@code ?jobId=...}.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Batch Scan Servlet",
+        "sling.servlet.paths=/bin/a11yaccelerator/scan-batch",
+        "sling.servlet.methods=GET,POST"
+    }
+)
+public class BatchScanServlet extends SlingAllMethodsServlet {
+
+    @Reference
+    private BatchScanService batchScanService;
+
+    @Override
+    protected void doPost(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        Set<String> pagePaths = new LinkedHashSet<>();
+        try {
+            String body = request.getReader().lines().collect(Collectors.joining(System.lineSeparator()));
+            JSONObject input = body.trim().isEmpty() ? new JSONObject() : new JSONObject(body);
+
+            String rootPath = input.optString("rootPath", request.getParameter("rootPath"));
+            if (rootPath != null && !rootPath.isEmpty()) {
+                collectPages(request.getResourceResolver(), rootPath, pagePaths);
+            }
+            JSONArray paths = input.optJSONArray("paths");
+            if (paths != null) {
+                for (int i = 0; i < paths.length(); i++) {
+                    String path = paths.optString(i);
+                    if (!path.isEmpty()) {
+                        pagePaths.add(path.replaceAll("\\.html$", ""));
+                    }
+                }
+            }
+        } catch (JSONException e) {
+            writeError(response, SlingHttpServletResponse.SC_BAD_REQUEST, "Invalid JSON: " + e.getMessage());
+            return;
+        }
+
+        if (pagePaths.isEmpty()) {
+            writeError(response, SlingHttpServletResponse.SC_BAD_REQUEST, "No pages found to scan. Expected 'rootPath' or 'paths'.");
+            return;
+        }
+
+        try {
+            BatchScanJob job = batchScanService.submit(pagePaths);
+            response.setStatus(SlingHttpServletResponse.SC_ACCEPTED);
+            response.getWriter().write(toJson(job).toString());
+        } catch (IllegalStateException e) {
+            writeError(response, SlingHttpServletResponse.SC_SERVICE_UNAVAILABLE, e.getMessage());
+        } catch (JSONException e) {
+            writeError(response, SlingHttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        BatchScanJob job = batchScanService.getJob(request.getParameter("jobId"));
+        if (job == null) {
+            writeError(response, SlingHttpServletResponse.SC_NOT_FOUND, "Unknown or expired jobId");
+            return;
+        }
+        try {
+            response.getWriter().write(toJson(job).toString());
+        } catch (JSONException e) {
+            writeError(response, SlingHttpServletResponse.SC_INTERNAL_SERVER_ERROR, e.getMessage());
+        }
+    }
+
+    private void collectPages(ResourceResolver resolver, String rootPath, Set<String> pagePaths) {
+        PageManager pageManager = resolver.adaptTo(PageManager.class);
+        Page root = pageManager != null ? pageManager.getPage(rootPath.replaceAll("\\.html$", "")) : null;
+        if (root == null) {
+            return;
+        }
+        pagePaths.add(root.getPath());
+        Iterator<Page> children = root.listChildren(null, true);
+        while (children.hasNext()) {
+            pagePaths.add(children.next().getPath());
+        }
+    }
+
+    private JSONObject toJson(BatchScanJob job) throws JSONException {
+        JSONObject json = new JSONObject();
+        json.put("jobId", job.getId());
+        json.put("status", job.getStatus().name());
+        json.put("total", job.getTotal());
+        json.put("processed", job.getProcessed());
+        json.put("succeeded", job.getSucceeded());
+        json.put("failed", job.getFailed());
+        JSONObject failures = new JSONObject();
+        for (Map.Entry<String, String> failure : job.getFailures().entrySet()) {
+            failures.put(failure.getKey(), failure.getValue());
+        }
+        json.put("failures", failures);
+        return json;
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
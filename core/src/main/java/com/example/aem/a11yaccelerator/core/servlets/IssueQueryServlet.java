@@ -0,0 +1,170 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+import javax.jcr.query.Query;
+import javax.jcr.query.QueryManager;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Finds stored issues below a content path through the a11yIssues Oak index.
+ * <p>
+ * GET {@code ?path=/content/site} with any of the filters {@code ruleId}, {@code impact}, {@code type},
+ * {@code wcagLevel}, {@code wcagCriterion}, {@code resourceType}, {@code componentPath} and
+ * {@code fingerprint}; {@code limit} (at most {@value #MAX_LIMIT}) and {@code offset} page through
+ * the matches.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Issue Query Servlet",
+        "sling.servlet.paths=/bin/a11y/issues",
+        "sling.servlet.methods=GET"
+    }
+)
+public class IssueQueryServlet extends SlingSafeMethodsServlet {
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    /** Request parameter to indexed property; each given parameter becomes an equality constraint. */
+    private static final Map<String, String> FILTERS = new LinkedHashMap<>();
+
+    static {
+        FILTERS.put("ruleId", ScanResultStore.RULE_ID_PROPERTY);
+        FILTERS.put("impact", ScanResultStore.IMPACT_PROPERTY);
+        FILTERS.put("type", ScanResultStore.TYPE_PROPERTY);
+        FILTERS.put("wcagLevel", ScanResultStore.WCAG_LEVEL_PROPERTY);
+        FILTERS.put("wcagCriterion", ScanResultStore.WCAG_CRITERIA_PROPERTY);
+        FILTERS.put("resourceType", ScanResultStore.RESOURCE_TYPE_PROPERTY);
+        FILTERS.put("componentPath", ScanResultStore.COMPONENT_PATH_PROPERTY);
+        FILTERS.put("fingerprint", ScanResultStore.FINGERPRINT_PROPERTY);
+    }
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        String path = request.getParameter("path");
+        if (path == null || !path.startsWith("/") || path.matches(".*[\\[\\]'].*")) {
+            writeError(response, 400, "Missing or invalid 'path' parameter");
+            return;
+        }
+        int limit = Math.min(MAX_LIMIT, Math.max(1, parseInt(request.getParameter("limit"), DEFAULT_LIMIT)));
+        int offset = Math.max(0, parseInt(request.getParameter("offset"), 0));
+
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            String scanPath = ScanResultStore.ROOT_PATH + path.replaceAll("/+$", "");
+
+            StringBuilder statement = new StringBuilder("SELECT * FROM [nt:unstructured] AS i WHERE ISDESCENDANTNODE(i, [")
+                    .append(scanPath).append("])");
+            Map<String, String> bindings = new LinkedHashMap<>();
+            for (Map.Entry<String, String> filter : FILTERS.entrySet()) {
+                String value = request.getParameter(filter.getKey());
+                if (value != null && !value.isEmpty()) {
+                    statement.append(" AND i.[").append(filter.getValue()).append("] = $").append(filter.getKey());
+                    bindings.put(filter.getKey(), value);
+                }
+            }
+            if (!bindings.containsKey("ruleId")) {
+                // Restricts the result to issue nodes and lets the index answer the query
+                statement.append(" AND i.[").append(ScanResultStore.RULE_ID_PROPERTY).append("] IS NOT NULL");
+            }
+
+            QueryManager queryManager = session.getWorkspace().getQueryManager();
+            Query query = queryManager.createQuery(statement.toString(), Query.JCR_SQL2);
+            ValueFactory valueFactory = session.getValueFactory();
+            for (Map.Entry<String, String> binding : bindings.entrySet()) {
+                query.bindValue(binding.getKey(), valueFactory.createValue(binding.getValue()));
+            }
+            // One extra row tells whether another page exists
+            query.setLimit(limit + 1L);
+            query.setOffset(offset);
+
+            JSONArray issues = new JSONArray();
+            NodeIterator nodes = query.execute().getNodes();
+            while (nodes.hasNext() && issues.length() < limit) {
+                issues.put(toJson(nodes.nextNode()));
+            }
+
+            JSONObject result = new JSONObject();
+            result.put("path", path);
+            result.put("offset", offset);
+            result.put("limit", limit);
+            result.put("hasMore", nodes.hasNext());
+            result.put("issues", issues);
+            response.getWriter().write(result.toString());
+        } catch (LoginException | RepositoryException | JSONException e) {
+            writeError(response, 500, e.getMessage());
+        }
+    }
+
+    private static JSONObject toJson(Node issue) throws RepositoryException, JSONException {
+        JSONObject json = new JSONObject();
+        json.put("path", issue.getPath());
+        for (String property : new String[] { "pagePath", ScanResultStore.RULE_ID_PROPERTY,
+                ScanResultStore.IMPACT_PROPERTY, ScanResultStore.TYPE_PROPERTY, ScanResultStore.WCAG_LEVEL_PROPERTY,
+                ScanResultStore.COMPONENT_PATH_PROPERTY, ScanResultStore.RESOURCE_TYPE_PROPERTY,
+                ScanResultStore.FINGERPRINT_PROPERTY, ScanResultStore.TARGET_PROPERTY }) {
+            if (issue.hasProperty(property)) {
+                json.put(property, issue.getProperty(property).getString());
+            }
+        }
+        if (issue.hasProperty(ScanResultStore.WCAG_CRITERIA_PROPERTY)) {
+            JSONArray criteria = new JSONArray();
+            for (Value value : issue.getProperty(ScanResultStore.WCAG_CRITERIA_PROPERTY).getValues()) {
+                criteria.put(value.getString());
+            }
+            json.put(ScanResultStore.WCAG_CRITERIA_PROPERTY, criteria);
+        }
+        return json;
+    }
+
+    private static int parseInt(String value, int defaultValue) {
+        try {
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.RuleDictionary;
+import org.apache.jackrabbit.util.Text;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Serves the rule dictionaries that compact scan results refer to.
+ * <p>
+ * GET {@code ?version=4.10.3} answers with {@code {version, rules}}, where {@code rules} maps each rule id
+ * to its help texts, tags, WCAG level and success criteria. A dictionary only grows while results of its
+ * version are stored, so clients can cache it and refetch when they meet an unknown rule id. Without
+ * {@code version} the recorded versions are listed.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Rule Dictionary Servlet",
+        "sling.servlet.paths=/bin/a11y/rules",
+        "sling.servlet.methods=GET"
+    }
+)
+public class RuleDictionaryServlet extends SlingSafeMethodsServlet {
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private RuleDictionary ruleDictionary;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        String version = request.getParameter("version");
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            JSONObject body = new JSONObject();
+            if (version == null || version.isEmpty()) {
+                JSONArray versions = new JSONArray();
+                if (session.nodeExists(RuleDictionary.ROOT_PATH)) {
+                    NodeIterator versionNodes = session.getNode(RuleDictionary.ROOT_PATH).getNodes();
+                    while (versionNodes.hasNext()) {
+                        versions.put(Text.unescapeIllegalJcrChars(versionNodes.nextNode().getName()));
+                    }
+                }
+                body.put("versions", versions);
+            } else {
+                JSONObject rules = ruleDictionary.getRules(session, version);
+                if (rules == null) {
+                    writeError(response, 404, "No rule dictionary for axe-core " + version);
+                    return;
+                }
+                body.put("version", version);
+                body.put("rules", rules);
+                response.setHeader("Cache-Control", "private, max-age=3600");
+            }
+            response.getWriter().write(body.toString());
+        } catch (LoginException | RepositoryException | JSONException e) {
+            writeError(response, 500, e.getMessage());
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
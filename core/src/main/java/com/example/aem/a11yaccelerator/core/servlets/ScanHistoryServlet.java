@@ -0,0 +1,96 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Returns the scan history of a page.
+ * <p>
+ * GET {@code ?pagePath=/content/site/en} lists the recorded runs with their issue totals and how many
+ * issues each added or removed; adding {@code &run=N} returns the issue entries of that run.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Scan History Servlet",
+        "sling.servlet.paths=/bin/a11y/history",
+        "sling.servlet.methods=GET"
+    }
+)
+public class ScanHistoryServlet extends SlingSafeMethodsServlet {
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        String pagePath = request.getParameter("pagePath");
+        if (pagePath == null || !pagePath.startsWith("/")) {
+            writeError(response, 400, "Missing or invalid 'pagePath' parameter");
+            return;
+        }
+        pagePath = pagePath.replaceAll("\\.html$", "").replaceAll("/+$", "");
+
+        String runParam = request.getParameter("run");
+        long run = 0;
+        if (runParam != null) {
+            try {
+                run = Long.parseLong(runParam);
+            } catch (NumberFormatException e) {
+                writeError(response, 400, "Invalid 'run' parameter");
+                return;
+            }
+        }
+
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            String json = runParam != null
+                    ? scanResultStore.readRun(session, pagePath, run)
+                    : scanResultStore.readHistory(session, pagePath);
+            if (json == null) {
+                writeError(response, 404, runParam != null
+                        ? "Run " + run + " is not recorded for this page."
+                        : "No scan history found for this page.");
+                return;
+            }
+            response.getWriter().write(json);
+        } catch (LoginException | RepositoryException e) {
+            writeError(response, 500, e.getMessage());
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.AxeResults;
+import com.example.aem.a11yaccelerator.core.utils.ReportWriter;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultFilter;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultIterator;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Exports the stored results below a path as a spreadsheet with one row per reported element.
+ * <p>
+ * GET {@code ?pagePath=/content/site&format=xlsx} (or {@code format=csv}) takes the same {@code impact}
+ * and {@code ruleId} filters as /bin/a11y/scanresult, and like it skips subtrees whose rollups show no
+ * match. Rows are written to the response while the subtree is traversed, one page result in memory at
+ * a time, so the browser receives a large report as a plain download instead of assembling it itself.
+ * An export stops after {@value #MAX_VISITED_RESULTS} results and says so in its last row.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Scan Result Export Servlet",
+        "sling.servlet.paths=/bin/a11y/export",
+        "sling.servlet.methods=GET"
+    }
+)
+public class ScanResultExportServlet extends SlingSafeMethodsServlet {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanResultExportServlet.class);
+
+    static final String[] COLUMNS = {
+            "Page Path", "Rule ID", "Type", "Impact", "WCAG Level", "WCAG Criteria", "Help / Description",
+            "Help URL", "Selector", "Failure Summary", "Component Path", "Component Type", "HTML Snippet"
+    };
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+    private static final int FLUSH_EVERY_PAGES = 50;
+
+    /** Results one export looks at before it ends the report with a row saying it was cut short. */
+    private static final int MAX_VISITED_RESULTS = 50000;
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        String pagePath = request.getParameter("pagePath");
+        String format = request.getParameter("format") != null ? request.getParameter("format") : "xlsx";
+        if (pagePath == null || !pagePath.startsWith("/")) {
+            writeError(response, 400, "Missing or invalid 'pagePath' parameter");
+            return;
+        }
+        if (!"xlsx".equals(format) && !"csv".equals(format)) {
+            writeError(response, 400, "Unsupported format '" + format + "', expected xlsx or csv");
+            return;
+        }
+        String contentPath = pagePath.replaceAll("\\.html$", "").replaceAll("/+$", "");
+        ScanResultFilter filter = ScanResultFilter.of(request.getParameterValues("impact"),
+                request.getParameterValues("ruleId"));
+
+        ReportWriter report = null;
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            String basePath = ScanResultStore.ROOT_PATH + contentPath;
+            if (!session.nodeExists(basePath)) {
+                writeError(response, 404, "No scan data found for this page or its children.");
+                return;
+            }
+
+            String name = contentPath.isEmpty() ? "site" : contentPath.substring(contentPath.lastIndexOf('/') + 1);
+            response.setHeader("Content-Disposition",
+                    "attachment; filename=\"a11y-report-" + name.replaceAll("[^\\w.-]", "_") + "." + format + "\"");
+            if ("csv".equals(format)) {
+                response.setContentType("text/csv");
+                response.setCharacterEncoding("UTF-8");
+                report = ReportWriter.csv(response.getOutputStream(), COLUMNS);
+            } else {
+                response.setContentType(XLSX_CONTENT_TYPE);
+                report = ReportWriter.xlsx(response.getOutputStream(), "Issues", COLUMNS);
+            }
+
+            ScanResultIterator results = new ScanResultIterator(session.getNode(basePath), null, filter);
+            int visited = 0;
+            while (results.hasNext() && visited < MAX_VISITED_RESULTS) {
+                Node resultNode = results.next();
+                if (filter.mayMatch(resultNode)) {
+                    writeRows(resultNode, filter, report);
+                }
+                if (++visited % FLUSH_EVERY_PAGES == 0) {
+                    report.flush();
+                }
+            }
+            if (results.hasNext()) {
+                log.warn("Export of {} stopped after {} results", contentPath, visited);
+                report.row("Export stopped after " + visited + " pages; export a subfolder for the rest");
+            }
+            report.finish();
+        } catch (LoginException | RepositoryException e) {
+            if (report != null) {
+                // Part of the file is already on the wire; leave it truncated so the download fails
+                log.error("Exporting scan results for {} failed", contentPath, e);
+                return;
+            }
+            writeError(response, 500, e.getMessage());
+        }
+    }
+
+    /**
+     * Writes a row per element of the rules that pass the filter. Component path and type come from the
+     * result's issue nodes, which were written in the same order.
+     */
+    private void writeRows(Node resultNode, ScanResultFilter filter, ReportWriter report)
+            throws RepositoryException, IOException {
+        String pagePath = resultNode.getParent().getPath().substring(ScanResultStore.ROOT_PATH.length());
+        JSONArray rules;
+        try {
+            rules = new JSONArray(scanResultStore.readResult(resultNode));
+        } catch (JSONException e) {
+            log.warn("Skipping malformed scan result at {}", resultNode.getPath());
+            return;
+        }
+        Node issues = resultNode.hasNode(ScanResultStore.ISSUES_NODE)
+                ? resultNode.getNode(ScanResultStore.ISSUES_NODE) : null;
+        int index = 0;
+        for (int i = 0; i < rules.length(); i++) {
+            JSONObject rule = rules.optJSONObject(i);
+            JSONArray elements = rule != null ? rule.optJSONArray("nodes") : null;
+            if (elements == null) {
+                continue;
+            }
+            boolean matches = filter.matches(rule);
+            JSONArray tags = rule.optJSONArray("tags");
+            for (int j = 0; j < elements.length(); j++) {
+                JSONObject element = elements.optJSONObject(j);
+                if (element == null) {
+                    continue;
+                }
+                String issueName = String.valueOf(index++);
+                if (!matches) {
+                    continue;
+                }
+                Node issue = issues != null && issues.hasNode(issueName) ? issues.getNode(issueName) : null;
+                report.row(
+                        pagePath,
+                        rule.optString("id"),
+                        rule.optString("type"),
+                        element.optString("impact", rule.optString("impact")),
+                        AxeResults.wcagLevel(tags),
+                        String.join(", ", AxeResults.wcagCriteria(tags)),
+                        rule.optString("help", rule.optString("description")),
+                        rule.optString("helpUrl"),
+                        AxeResults.target(element),
+                        element.optString("failureSummary"),
+                        stringProperty(issue, ScanResultStore.COMPONENT_PATH_PROPERTY),
+                        stringProperty(issue, ScanResultStore.RESOURCE_TYPE_PROPERTY),
+                        element.optString("html"));
+            }
+        }
+    }
+
+    private static String stringProperty(Node node, String name) throws RepositoryException {
+        return node != null && node.hasProperty(name) ? node.getProperty(name).getString() : "";
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.HttpCaching;
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+import org.apache.sling.api.resource.LoginException;
+import org.apache.sling.api.resource.ResourceResolver;
+import org.apache.sling.api.resource.ResourceResolverFactory;
+import org.apache.sling.api.servlets.SlingSafeMethodsServlet;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.osgi.framework.Constants;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.servlet.Servlet;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Returns the issue counts of a page or subtree from its rollups.
+ * <p>
+ * GET {@code ?path=/content/site} answers with {@code {path, total, pages, impact, rule, wcagLevel}},
+ * where the last three map each impact, rule id or WCAG level to its count. The path may also be given
+ * as a /var/a11y-scans path. Unchanged subtrees are answered with 304 to conditional requests.
+ */
+@Component(
+    service = Servlet.class,
+    property = {
+        Constants.SERVICE_DESCRIPTION + "=Accessibility Scan Summary Servlet",
+        "sling.servlet.paths=/bin/a11y/summary",
+        "sling.servlet.methods=GET"
+    }
+)
+public class ScanSummaryServlet extends SlingSafeMethodsServlet {
+
+    @Reference
+    private ResourceResolverFactory factory;
+
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    @Override
+    protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
+            throws ServletException, IOException {
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+
+        String path = request.getParameter("path");
+        if (path == null || !path.startsWith("/")) {
+            writeError(response, 400, "Missing or invalid 'path' parameter");
+            return;
+        }
+        String contentPath = path.startsWith(ScanResultStore.ROOT_PATH)
+                ? path.substring(ScanResultStore.ROOT_PATH.length())
+                : path;
+        contentPath = contentPath.replaceAll("\\.html$", "").replaceAll("/+$", "");
+
+        try (ResourceResolver resolver = getServiceResourceResolver()) {
+            Session session = resolver.adaptTo(Session.class);
+            Calendar modified = scanResultStore.getSubtreeModified(session, contentPath);
+            if (modified != null && HttpCaching.notModified(request, response, modified)) {
+                return;
+            }
+            String counts = scanResultStore.readSummary(session, contentPath);
+            if (counts == null) {
+                writeError(response, 404, "No scan results found under this path.");
+                return;
+            }
+
+            JSONObject summary = new JSONObject(counts);
+            summary.put("path", contentPath.isEmpty() ? "/" : contentPath);
+            response.getWriter().write(summary.toString());
+        } catch (LoginException | RepositoryException | JSONException e) {
+            writeError(response, 500, e.getMessage());
+        }
+    }
+
+    private ResourceResolver getServiceResourceResolver() throws LoginException {
+        Map<String, Object> authParams = new HashMap<>();
+        authParams.put(ResourceResolverFactory.SUBSERVICE, "serviceUserA11yAccelerator");
+        return factory.getServiceResourceResolver(authParams);
+    }
+
+    private void writeError(SlingHttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.getWriter().write("{\"error\":" + JSONObject.quote(message) + "}");
+    }
+}
@@ -1,5 +1,17 @@
 package com.example.aem.a11yaccelerator.core.servlets;
 
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.utils.HttpCaching;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultFilter;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultIterator;
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 import org.apache.commons.io.IOUtils;
 import org.apache.log4j.Logger;
 import org.apache.sling.api.SlingHttpServletRequest;
@@ -15,16 +27,24 @@ import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Reference;
 
 import javax.jcr.Node;
-import javax.jcr.NodeIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.servlet.Servlet;
 import javax.servlet.ServletException;
+import java.io.EOFException;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
 import java.util.Calendar;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @Component(service = { Servlet.class }, property = {
         "sling.servlet.paths=/bin/a11y/scanresult",
@@ -32,104 +52,176 @@ import java.util.stream.Collectors;
 })
 public class StoreA11yScanResultServlet extends SlingAllMethodsServlet {
 
+    private static final Logger logger = Logger.getLogger(StoreA11yScanResultServlet.class);
+
+    private static final int MAX_PAGE_SIZE = 500;
+
+    /** Results a paged, filtered request looks at before it returns what it found with a cursor. */
+    private static final int MAX_VISITED_PER_PAGE = 2000;
+
+    private static final String STATUS_SAVED = "saved";
+    private static final String STATUS_SKIPPED = "skipped";
+    private static final String STATUS_FAILED = "failed";
+
+    private final Gson gson = new Gson();
+
     @Reference
     private ResourceResolverFactory factory;
 
+    @Reference
+    private ScanResultStore scanResultStore;
+
+    /**
+     * Stores the results in the {@code pages} array of the request body.
+     * The array is read as a stream and every page is handed to the store's writer queue as soon as it
+     * has been read, so neither memory nor commit size grows with the upload and concurrent uploads share
+     * commits instead of conflicting. The response summarises the outcome per page once all are saved.
+     */
     @Override
     protected void doPost(SlingHttpServletRequest request, SlingHttpServletResponse response)
             throws ServletException, IOException {
 
-                Logger logger = Logger.getLogger(StoreA11yScanResultServlet.class);
-
-        String body = request.getReader().lines().collect(Collectors.joining(System.lineSeparator()));
-
-        if (body == null || body.isEmpty()) {
-            response.setStatus(400);
-            response.getWriter().write("Missing request body");
-            return;
-        }
-
-        try (ResourceResolver resolver = getServiceResourceResolver()) {
-            logger.error(resolver);
-            Session session = resolver.adaptTo(Session.class);
-            JSONObject rootJson = new JSONObject(body);
+        JSONObject summary = new JSONObject();
+        JSONArray pageStatus = new JSONArray();
+        Map<String, CompletableFuture<Void>> submitted = new LinkedHashMap<>();
+        int[] counts = new int[3];
+        // Version of the axe-core build that produced the upload, which lets results be stored compactly
+        String axeVersion = request.getParameter("axeVersion");
 
-            if (!rootJson.has("pages")) {
+        try (JsonReader reader = new JsonReader(request.getReader())) {
+            if (isEmpty(reader)) {
+                response.setStatus(400);
+                response.getWriter().write("Missing request body");
+                return;
+            }
+            if (!seekPagesArray(reader)) {
                 response.setStatus(400);
                 response.getWriter().write("Invalid JSON. Expected 'pages' array.");
                 return;
             }
 
-            JSONArray pagesArray = rootJson.getJSONArray("pages");
-
-            // Ensure /var/a11y-scans exists
-            Node varNode = session.getNode("/var");
-            Node a11yRootNode = varNode.hasNode("a11y-scans")
-                    ? varNode.getNode("a11y-scans")
-                    : varNode.addNode("a11y-scans", "sling:Folder");
-
-            for (int i = 0; i < pagesArray.length(); i++) {
-                JSONObject pageObj = pagesArray.getJSONObject(i);
-                String pagePath = pageObj.optString("pagePath");
-                JSONArray scanResultArray = pageObj.optJSONArray("scanResult");
-
-
-                if (pagePath == null || scanResultArray == null) continue;
-
-                // convert pagePath to relative under /var/a11y-scans
-                String relativePath = pagePath.startsWith("/") ? pagePath.substring(1) : pagePath;
-
-                // Create all intermediate folders
-                Node pageParentNode = createIntermediateNodes(a11yRootNode, relativePath);
-
-                // Create or update scanResult node
-                Node resultNode;
-                if (pageParentNode.hasNode("scanResult")) {
-                    resultNode = pageParentNode.getNode("scanResult");
-                } else {
-                    resultNode = pageParentNode.addNode("scanResult", "nt:unstructured");
+            reader.beginArray();
+            while (reader.hasNext()) {
+                JsonObject pageObj = gson.fromJson(reader, JsonObject.class);
+                JsonElement pagePathElement = pageObj != null ? pageObj.get("pagePath") : null;
+                JsonElement scanResultElement = pageObj != null ? pageObj.get("scanResult") : null;
+                String pagePath = pagePathElement != null && pagePathElement.isJsonPrimitive()
+                        ? pagePathElement.getAsString() : null;
+
+                if (pagePath == null || scanResultElement == null || !scanResultElement.isJsonArray()) {
+                    addStatus(pageStatus, pagePath, STATUS_SKIPPED, null);
+                    counts[1]++;
+                    continue;
                 }
-                logger.error(relativePath);
-
-                // Set or update properties
-                resultNode.setProperty("pagePath", pagePath);
-                resultNode.setProperty("scanResult", scanResultArray.toString());
-                resultNode.setProperty("lastModified", Calendar.getInstance());
+                // A page repeated in the upload is stored once, with its last result
+                submitted.remove(pagePath);
+                submitted.put(pagePath, scanResultStore.submitResult(pagePath, scanResultElement.toString(), null,
+                        axeVersion));
             }
+            reader.endArray();
 
-            session.save();
             response.setStatus(200);
-            response.getWriter().write("All scan results saved successfully.");
 
-        } catch (LoginException e) {
-            response.setStatus(500);
-            response.getWriter().write("LoginException: " + e.getMessage());
-        } catch (RepositoryException e) {
-            response.setStatus(500);
-            response.getWriter().write("RepositoryException: " + e.getMessage());
+        } catch (JsonParseException | IllegalStateException | MalformedJsonException e) {
+            // Pages read before the malformed part are still stored and are listed in the summary
+            logger.warn("Malformed scan result upload: " + e.getMessage());
+            response.setStatus(400);
+            putQuietly(summary, "error", "Invalid JSON: " + e.getMessage());
         } catch (Exception e) {
             response.setStatus(500);
             response.getWriter().write("Error: " + e.getMessage());
+            return;
+        }
+
+        awaitSubmitted(submitted, pageStatus, counts);
+        putQuietly(summary, "saved", counts[0]);
+        putQuietly(summary, "skipped", counts[1]);
+        putQuietly(summary, "failed", counts[2]);
+        putQuietly(summary, "pages", pageStatus);
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.getWriter().write(summary.toString());
+    }
+
+    private static boolean isEmpty(JsonReader reader) throws IOException {
+        try {
+            return reader.peek() == JsonToken.END_DOCUMENT;
+        } catch (EOFException e) {
+            // A reader at the start of an empty document reports its end as an error
+            return true;
         }
     }
 
     /**
-     * Creates intermediate folder nodes under /var/a11y-scans for a given relative path.
+     * Advances the reader into the top-level object up to the value of its {@code pages} member.
      */
-    private Node createIntermediateNodes(Node baseNode, String relativePath) throws RepositoryException {
-        String[] parts = relativePath.split("/");
-        Node current = baseNode;
-        for (String part : parts) {
-            if (part.isEmpty()) continue;
-            if (!current.hasNode(part)) {
-                current = current.addNode(part, "nt:unstructured");
-            } else {
-                current = current.getNode(part);
+    private static boolean seekPagesArray(JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            return false;
+        }
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("pages".equals(reader.nextName()) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                return true;
+            }
+            reader.skipValue();
+        }
+        return false;
+    }
+
+    private static void awaitSubmitted(Map<String, CompletableFuture<Void>> submitted, JSONArray pageStatus,
+                                       int[] counts) {
+        for (Map.Entry<String, CompletableFuture<Void>> entry : submitted.entrySet()) {
+            try {
+                entry.getValue().join();
+                addStatus(pageStatus, entry.getKey(), STATUS_SAVED, null);
+                counts[0]++;
+            } catch (CompletionException | CancellationException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.error("Storing the scan result of " + entry.getKey() + " failed", cause);
+                addStatus(pageStatus, entry.getKey(), STATUS_FAILED, cause.getMessage());
+                counts[2]++;
             }
         }
-        return current;
     }
 
+    private static void addStatus(JSONArray pageStatus, String pagePath, String status, String error) {
+        JSONObject entry = new JSONObject();
+        putQuietly(entry, "pagePath", pagePath != null ? pagePath : JSONObject.NULL);
+        putQuietly(entry, "status", status);
+        if (error != null) {
+            putQuietly(entry, "error", error);
+        }
+        pageStatus.put(entry);
+    }
+
+    private static void putQuietly(JSONObject json, String key, Object value) {
+        try {
+            json.put(key, value);
+        } catch (JSONException e) {
+            // Only thrown for null keys or non-finite numbers
+        }
+    }
+
+    /**
+     * Streams the results below {@code pagePath} as a JSON array of {@code {pagePath, scanResult}} records.
+     * Each record is written as its node is visited and the stored result is decoded straight into the
+     * response without being parsed, so memory use does not grow with the size of the subtree.
+     * <p>
+     * With {@code limit} the response is one page {@code {pages, nextCursor}}; passing {@code nextCursor}
+     * back as {@code cursor} resumes the traversal after the last returned page. {@code impact} and
+     * {@code ruleId} (repeated or comma-separated) restrict the results to matching rules; subtrees
+     * whose rollups show no match are skipped. A page stops after {@value #MAX_VISITED_PER_PAGE} visited
+     * results, so with a selective filter it can hold fewer than {@code limit} results and still have a
+     * {@code nextCursor}.
+     * <p>
+     * Results stored in compact form are expanded with their rule dictionary. With {@code rules=ref} they
+     * are returned compact instead, with the {@code axeVersion} whose dictionary clients fetch from
+     * /bin/a11y/rules once and reuse across pages and requests.
+     * <p>
+     * Responses carry an ETag and Last-Modified derived from the subtree's last change, and conditional
+     * requests for an unchanged subtree are answered with 304 before any result is read.
+     */
     @Override
     protected void doGet(SlingHttpServletRequest request, SlingHttpServletResponse response)
             throws ServletException, IOException {
@@ -139,11 +231,17 @@ public class StoreA11yScanResultServlet extends SlingAllMethodsServlet {
         response.getWriter().write("Missing pagePath parameter");
         return;
     }
+    int limit = parseLimit(request.getParameter("limit"));
+    String cursor = request.getParameter("cursor");
+    ScanResultFilter filter = ScanResultFilter.of(request.getParameterValues("impact"),
+            request.getParameterValues("ruleId"));
+    boolean ruleRefs = "ref".equals(request.getParameter("rules"));
 
+    ScanResultWriter out = null;
     try (ResourceResolver resolver = getServiceResourceResolver()) {
         Session session = resolver.adaptTo(Session.class);
         String relativePath = pagePath.startsWith("/") ? pagePath.substring(1) : pagePath;
-        String basePath = "/var/a11y-scans/" + relativePath;
+        String basePath = ("/var/a11y-scans/" + relativePath).replaceAll("/+$", "");
 
         if (!session.nodeExists(basePath)) {
             response.setStatus(404);
@@ -152,20 +250,52 @@ public class StoreA11yScanResultServlet extends SlingAllMethodsServlet {
         }
 
         Node baseNode = session.getNode(basePath);
-        JSONArray aggregatedResults = new JSONArray();
+        Calendar modified = scanResultStore.getSubtreeModified(session,
+                basePath.substring(ScanResultStore.ROOT_PATH.length()));
+        if (modified != null && HttpCaching.notModified(request, response, modified)) {
+            return;
+        }
+        Node resumeAfter = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String resumePath = decodeCursor(cursor);
+            if (resumePath == null || !(resumePath.equals(basePath) || resumePath.startsWith(basePath + "/"))
+                    || !session.nodeExists(resumePath)) {
+                response.setStatus(400);
+                response.getWriter().write("Invalid or expired cursor");
+                return;
+            }
+            resumeAfter = session.getNode(resumePath);
+        }
 
-        collectScanResults(baseNode, aggregatedResults);
+        out = limit > 0 ? ScanResultWriter.paged(response) : ScanResultWriter.array(response);
+        ScanResultIterator results = new ScanResultIterator(baseNode, resumeAfter, filter);
+        Node last = null;
+        int visited = 0;
+        while (results.hasNext() && (limit <= 0 || out.count < limit && visited < MAX_VISITED_PER_PAGE)) {
+            Node resultNode = results.next();
+            last = resultNode.getParent();
+            visited++;
+            writeScanResult(resultNode, filter, ruleRefs, out);
+        }
 
-        if (aggregatedResults.length() == 0) {
+        if (limit > 0) {
+            out.close(results.hasNext() && last != null ? encodeCursor(last.getPath()) : null);
+            return;
+        }
+        if (out.count == 0) {
             response.setStatus(404);
             response.getWriter().write("No scan results found under this path.");
             return;
         }
 
-        response.setContentType("application/json");
-        response.getWriter().write(aggregatedResults.toString());
+        out.close(null);
 
     } catch (Exception e) {
+        if (out != null && out.isStarted()) {
+            // Status and part of the body are already on the wire; abort and leave the array unterminated
+            logger.error("Streaming scan results for " + pagePath + " failed", e);
+            return;
+        }
         response.setStatus(500);
         response.getWriter().write("Error: " + e.getMessage());
     }
@@ -177,40 +307,137 @@ public class StoreA11yScanResultServlet extends SlingAllMethodsServlet {
         return factory.getServiceResourceResolver(authParams);
     }
 
-private void collectScanResults(Node node, JSONArray aggregatedResults) throws RepositoryException {
-    if ("scanResult".equals(node.getName()) && node.hasProperty("scanResult")) {
-        String resultStr = node.getProperty("scanResult").getString();
-        String pagePath = node.hasProperty("pagePath") ? node.getProperty("pagePath").getString() : "";
+private void writeScanResult(Node node, ScanResultFilter filter, boolean ruleRefs, ScanResultWriter out)
+        throws RepositoryException, IOException, JSONException {
+    String pagePath = node.hasProperty("pagePath") ? node.getProperty("pagePath").getString() : "";
+    String axeVersion = node.hasProperty(ScanResultStore.AXE_VERSION_PROPERTY)
+            ? node.getProperty(ScanResultStore.AXE_VERSION_PROPERTY).getString() : null;
+    // Compact results are passed on as they are only to clients that expand them themselves
+    boolean expand = axeVersion != null && !ruleRefs;
+
+    if (!filter.isEmpty()) {
+        // Only pages whose rollup shows a matching rule are decoded and cut down
+        String matching = filter.mayMatch(node)
+                ? filter.apply(expand ? scanResultStore.readResult(node) : ScanResultCodec.read(node))
+                : null;
+        if (matching != null) {
+            out.write(pagePath, ruleRefs ? axeVersion : null, new StringReader(matching));
+        }
+    } else if (ScanResultCodec.isLegacy(node)) {
+        String resultStr = node.getProperty(ScanResultCodec.LEGACY_PROPERTY).getString().trim();
+        if (isJsonContainer(resultStr)) {
+            out.write(pagePath, null, new StringReader(resultStr));
+        } else {
+            // If not valid JSON, skip
+            logger.warn("Skipping malformed scanResult at node " + node.getPath());
+        }
+    } else if (expand) {
+        out.write(pagePath, null, new StringReader(scanResultStore.readResult(node)));
+    } else {
+        // Decompressed straight into the response
+        try (Reader result = ScanResultCodec.open(node)) {
+            out.write(pagePath, axeVersion, result);
+        }
+    }
+}
+
+    /**
+     * Cheap shape check standing in for the full parse: an array or object literal.
+     */
+    private static boolean isJsonContainer(String value) {
+        return (value.startsWith("[") && value.endsWith("]")) || (value.startsWith("{") && value.endsWith("}"));
+    }
 
+    private static int parseLimit(String value) {
         try {
-            resultStr = resultStr.trim();
-            JSONObject pageData = new JSONObject();
-            pageData.put("pagePath", pagePath);
-
-            if (resultStr.startsWith("[")) {
-                // If scanResult is an array
-                JSONArray arr = new JSONArray(resultStr);
-                pageData.put("scanResult", arr);
-            } else if (resultStr.startsWith("{")) {
-                // If scanResult is a single object
-                JSONObject obj = new JSONObject(resultStr);
-                pageData.put("scanResult", obj);
-            } else {
-                // If not valid JSON, skip
-                return;
-            }
+            return value != null ? Math.min(MAX_PAGE_SIZE, Math.max(1, Integer.parseInt(value))) : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 
-            aggregatedResults.put(pageData);
+    /**
+     * The cursor is the page folder of the last returned result, opaque to clients.
+     */
+    private static String encodeCursor(String folderPath) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(folderPath.getBytes(StandardCharsets.UTF_8));
+    }
 
-        } catch (Exception e) {
-            System.err.println("Error parsing scanResult JSON at node " + node.getPath() + ": " + e.getMessage());
+    private static String decodeCursor(String cursor) {
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            return null;
         }
     }
 
-    // Recurse through all children
-    NodeIterator children = node.getNodes();
-    while (children.hasNext()) {
-        collectScanResults(children.nextNode(), aggregatedResults);
+    /**
+     * Writes records straight to the response, either as a bare array committed with the first record,
+     * or as a page object that also carries the continuation cursor.
+     */
+    private static final class ScanResultWriter {
+        private static final int FLUSH_EVERY = 50;
+
+        private final SlingHttpServletResponse response;
+        private final boolean paged;
+        private PrintWriter writer;
+        private int count;
+
+        private ScanResultWriter(SlingHttpServletResponse response, boolean paged) {
+            this.response = response;
+            this.paged = paged;
+        }
+
+        static ScanResultWriter array(SlingHttpServletResponse response) {
+            return new ScanResultWriter(response, false);
+        }
+
+        static ScanResultWriter paged(SlingHttpServletResponse response) {
+            return new ScanResultWriter(response, true);
+        }
+
+        private boolean isStarted() {
+            return writer != null;
+        }
+
+        private void start() throws IOException {
+            response.setContentType("application/json");
+            response.setCharacterEncoding("UTF-8");
+            writer = response.getWriter();
+            writer.write(paged ? "{\"pages\":[" : "[");
+        }
+
+        private void write(String pagePath, String axeVersion, Reader scanResultJson) throws IOException {
+            if (writer == null) {
+                start();
+            } else if (count > 0) {
+                writer.write(',');
+            }
+            writer.write("{\"pagePath\":");
+            writer.write(JSONObject.quote(pagePath));
+            if (axeVersion != null) {
+                writer.write(",\"axeVersion\":");
+                writer.write(JSONObject.quote(axeVersion));
+            }
+            writer.write(",\"scanResult\":");
+            ScanResultCodec.copy(scanResultJson, writer);
+            writer.write('}');
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+
+        private void close(String nextCursor) throws IOException {
+            if (writer == null) {
+                start();
+            }
+            writer.write(']');
+            if (paged) {
+                writer.write(",\"nextCursor\":");
+                writer.write(nextCursor != null ? JSONObject.quote(nextCursor) : "null");
+                writer.write('}');
+            }
+            writer.flush();
+        }
     }
 }
-}
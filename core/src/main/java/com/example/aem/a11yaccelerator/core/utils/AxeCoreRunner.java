@@ -6,48 +6,104 @@ import org.slf4j.LoggerFactory;
 import javax.script.*;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 
-public class AxeCoreRunner {
+public class AxeCoreRunner implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(AxeCoreRunner.class);
 
+    public static final String DEFAULT_ENGINE_NAME = "nashorn";
+
+    /**
+     * Options passed to axe.run; part of the scan result cache key, so change it together with the rules run.
+     */
+    public static final String RUN_OPTIONS = "{}";
+
+    private static final String AXE_SCRIPT_PATH = "/axe/axe.min.js";
+
+    private static final String SCAN_SCRIPT =
+            "var dom = new DOMParser().parseFromString(pageHtml, 'text/html');" +
+            "var results;" +
+            "axe.run(dom, " + RUN_OPTIONS + ", function (err, res) { " +
+            "   if (err) { results = JSON.stringify({ error: err.toString() }); } " +
+            "   else { results = JSON.stringify(res); }" +
+            "}); results;";
+
     private final ScriptEngine engine;
 
+    private final CompiledScript compiledScan;
+
+    private final String axeVersion;
+
     public AxeCoreRunner() throws ScriptException {
+        this(DEFAULT_ENGINE_NAME);
+    }
+
+    /**
+     * Creates a runner on the named JSR-223 engine ("nashorn", or "graal.js" on GraalVM)
+     * and evaluates axe-core into it once, so that subsequent scans only pay for the axe run.
+     *
+     * @param engineName script engine name to look up
+     * @throws ScriptException if no engine with that name is available
+     */
+    public AxeCoreRunner(String engineName) throws ScriptException {
         ScriptEngineManager manager = new ScriptEngineManager();
-        engine = manager.getEngineByName("nashorn"); // Or "graal.js" if using GraalVM
+        engine = manager.getEngineByName(engineName);
         if (engine == null) {
-            throw new ScriptException("No JS engine found (Nashorn removed in Java 15+, use GraalVM)");
+            throw new ScriptException("No JS engine found for '" + engineName
+                    + "' (Nashorn removed in Java 15+, use GraalVM)");
         }
 
         // Load axe-core into the engine
-        try (InputStream is = getClass().getResourceAsStream("/axe/axe.min.js")) {
+        try (InputStream is = getClass().getResourceAsStream(AXE_SCRIPT_PATH)) {
             if (is != null) {
-                engine.eval(new InputStreamReader(is));
+                engine.eval(new InputStreamReader(is, StandardCharsets.UTF_8));
             } else {
                 log.error("axe.min.js not found in resources!");
             }
         } catch (Exception e) {
             log.error("Error loading axe-core", e);
         }
+
+        // Compile the per-scan wrapper once instead of re-parsing it on every run
+        compiledScan = engine instanceof Compilable ? ((Compilable) engine).compile(SCAN_SCRIPT) : null;
+
+        Object version = engine.eval("typeof axe !== 'undefined' ? String(axe.version) : ''");
+        axeVersion = version != null ? version.toString() : "";
     }
 
-    public String runAccessibilityScan(String html) {
-        try {
-            engine.put("pageHtml", html);
+    /**
+     * @return the version of the loaded axe-core script, or an empty string if it did not load
+     */
+    public String getAxeVersion() {
+        return axeVersion;
+    }
 
-            String script =
-                "var dom = new DOMParser().parseFromString(pageHtml, 'text/html');" +
-                "var results;" +
-                "axe.run(dom, {}, function (err, res) { " +
-                "   if (err) { results = JSON.stringify({ error: err.toString() }); } " +
-                "   else { results = JSON.stringify(res); }" +
-                "}); results;";
+    /**
+     * @param html rendered page markup
+     * @return axe-core results as JSON
+     * @throws ScriptException if the engine failed to run the scan; it may be left in any state
+     */
+    public String runAccessibilityScan(String html) throws ScriptException {
+        Bindings bindings = engine.getBindings(ScriptContext.ENGINE_SCOPE);
+        try {
+            bindings.put("pageHtml", html);
 
-            Object result = engine.eval(script);
+            Object result = compiledScan != null ? compiledScan.eval() : engine.eval(SCAN_SCRIPT);
             return (result != null) ? result.toString() : "{}";
-        } catch (Exception e) {
-            log.error("Failed to run axe-core scan", e);
-            return "{}";
+        } finally {
+            // Drop per-scan state so a pooled engine does not leak one page into the next
+            bindings.remove("pageHtml");
+            bindings.remove("dom");
+            bindings.remove("results");
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Drops axe-core and any page state from the engine, so a runner that is no longer used holds on to
+     * nothing until it is collected.
+     */
+    @Override
+    public void close() {
+        engine.getBindings(ScriptContext.ENGINE_SCOPE).clear();
+    }
+}
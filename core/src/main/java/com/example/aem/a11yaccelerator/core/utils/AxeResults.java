@@ -0,0 +1,113 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Converts raw axe-core output into the shape the console stores per page:
+ * one array with violations typed "violation" and incomplete checks typed "potential".
+ */
+public final class AxeResults {
+
+    /** WCAG level given to rules without a WCAG conformance tag. */
+    public static final String BEST_PRACTICE = "best-practice";
+
+    private static final Pattern LEVEL_TAG = Pattern.compile("^wcag2\\d?(a{1,3})$");
+    private static final Pattern CRITERION_TAG = Pattern.compile("^wcag(\\d)(\\d)(\\d{1,2})$");
+
+    private AxeResults() {
+    }
+
+    /**
+     * @param reportJson JSON returned by {@link AxeCoreRunner#runAccessibilityScan(String)}
+     * @return the page's results as a JSON array string
+     * @throws JSONException if the report is not valid JSON or axe reported an error
+     */
+    public static String toScanResultArray(String reportJson) throws JSONException {
+        JSONObject report = new JSONObject(reportJson);
+        if (report.has("error")) {
+            throw new JSONException("axe-core failed: " + report.optString("error"));
+        }
+        JSONArray results = new JSONArray();
+        appendTyped(results, report.optJSONArray("violations"), "violation");
+        appendTyped(results, report.optJSONArray("incomplete"), "potential");
+        return results.toString();
+    }
+
+    private static void appendTyped(JSONArray target, JSONArray rules, String type) throws JSONException {
+        if (rules == null) {
+            return;
+        }
+        for (int i = 0; i < rules.length(); i++) {
+            JSONObject rule = rules.getJSONObject(i);
+            rule.put("type", type);
+            target.put(rule);
+        }
+    }
+
+    /**
+     * @param tags the {@code tags} of an axe rule, e.g. {@code ["wcag2aa", "wcag143"]}
+     * @return "A", "AA" or "AAA" for the lowest conformance level tagged, {@link #BEST_PRACTICE} if there is none
+     */
+    public static String wcagLevel(JSONArray tags) {
+        String level = null;
+        for (int i = 0; tags != null && i < tags.length(); i++) {
+            Matcher matcher = LEVEL_TAG.matcher(tags.optString(i));
+            if (matcher.matches() && (level == null || matcher.group(1).length() < level.length())) {
+                level = matcher.group(1).toUpperCase();
+            }
+        }
+        return level != null ? level : BEST_PRACTICE;
+    }
+
+    /**
+     * @param tags the {@code tags} of an axe rule
+     * @return the success criteria referenced by the tags, e.g. {@code ["1.4.3"]}
+     */
+    public static List<String> wcagCriteria(JSONArray tags) {
+        List<String> criteria = new ArrayList<>();
+        for (int i = 0; tags != null && i < tags.length(); i++) {
+            Matcher matcher = CRITERION_TAG.matcher(tags.optString(i));
+            if (matcher.matches()) {
+                criteria.add(matcher.group(1) + "." + matcher.group(2) + "." + matcher.group(3));
+            }
+        }
+        return criteria;
+    }
+
+    /**
+     * axe-core reports a selector per frame or shadow root; they are joined into one string.
+     *
+     * @param element an entry of a rule's {@code nodes}
+     */
+    public static String target(JSONObject element) {
+        JSONArray target = element.optJSONArray("target");
+        if (target == null) {
+            return element.optString("target", "");
+        }
+        StringBuilder joined = new StringBuilder();
+        for (int i = 0; i < target.length(); i++) {
+            if (joined.length() > 0) {
+                joined.append(' ');
+            }
+            Object part = target.opt(i);
+            if (part instanceof JSONArray) {
+                // Selectors into shadow roots are nested one level deeper. They are joined as JSON strings
+                // without their quotes, as issue fingerprints have always been computed.
+                JSONArray nested = (JSONArray) part;
+                for (int j = 0; j < nested.length(); j++) {
+                    joined.append(j > 0 ? " " : "").append(JSONObject.quote(nested.optString(j)).replace("\"", ""));
+                }
+            } else {
+                joined.append(part);
+            }
+        }
+        return joined.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.regex.Pattern;
+
+/**
+ * Hashing helpers for caching results keyed by rendered markup.
+ */
+public final class ContentHash {
+
+    private static final Pattern HTML_COMMENTS = Pattern.compile("<!--.*?-->", Pattern.DOTALL);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ContentHash() {
+    }
+
+    /**
+     * Strips comments and collapses whitespace, so markup that only differs in formatting
+     * hashes to the same value.
+     */
+    public static String normalizeHtml(String html) {
+        if (html == null) {
+            return "";
+        }
+        String withoutComments = HTML_COMMENTS.matcher(html).replaceAll("");
+        return WHITESPACE.matcher(withoutComments).replaceAll(" ").trim();
+    }
+
+    /**
+     * @return lower-case hex SHA-256 of the parts, separated so that ("ab", "c") and ("a", "bc") differ
+     */
+    public static String sha256(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update((part != null ? part : "").getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            StringBuilder hex = new StringBuilder();
+            for (byte b : digest.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // every JRE is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import org.apache.sling.api.SlingHttpServletRequest;
+import org.apache.sling.api.SlingHttpServletResponse;
+
+import java.util.Calendar;
+
+/**
+ * Conditional GET support for responses derived from a subtree of /var/a11y-scans.
+ * <p>
+ * The validator is the subtree's last modification: the ETag hashes it, to the millisecond, together with
+ * the request URL, so every query variant has its own tag, and {@code Cache-Control: no-cache} makes
+ * browsers revalidate on every use. An unchanged subtree then costs one property read and an empty 304.
+ * Last-Modified can only carry whole seconds, so a change within the second of the previous one is caught
+ * by the ETag alone.
+ */
+public final class HttpCaching {
+
+    private HttpCaching() {
+    }
+
+    /**
+     * Sets the validators for a response and checks the request's conditional headers against them.
+     *
+     * @param modified last modification of everything the response is built from; it must change on every
+     *                 change, which the writers of subtreeModified ensure by never reusing a value
+     * @return true if a 304 was sent and the response must not be written
+     */
+    public static boolean notModified(SlingHttpServletRequest request, SlingHttpServletResponse response,
+                                      Calendar modified) {
+        String etag = etag(request.getRequestURI(), request.getQueryString(),
+                String.valueOf(modified.getTimeInMillis()));
+        // HTTP dates have second precision
+        long lastModified = modified.getTimeInMillis() / 1000 * 1000;
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+        response.setHeader("Cache-Control", "private, no-cache");
+
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        boolean notModified;
+        if (ifNoneMatch != null) {
+            notModified = matches(ifNoneMatch, etag);
+        } else {
+            long ifModifiedSince;
+            try {
+                ifModifiedSince = request.getDateHeader("If-Modified-Since");
+            } catch (IllegalArgumentException e) {
+                ifModifiedSince = -1;
+            }
+            notModified = ifModifiedSince >= lastModified;
+        }
+        if (notModified) {
+            response.setStatus(SlingHttpServletResponse.SC_NOT_MODIFIED);
+        }
+        return notModified;
+    }
+
+    /**
+     * @return a strong entity tag for the given parts
+     */
+    static String etag(String... parts) {
+        return "\"" + ContentHash.sha256(parts).substring(0, 32) + "\"";
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || etag.equals(tag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a table row by row as CSV or XLSX, straight to an output stream.
+ * <p>
+ * Nothing but the current row is held in memory, so a report can have any number of rows. Rows are
+ * sent on whenever the underlying buffer fills up; {@link #flush()} pushes them out earlier.
+ */
+public abstract class ReportWriter {
+
+    /** Longest text Excel keeps in a cell. */
+    static final int MAX_CELL_LENGTH = 32767;
+
+    protected final String[] header;
+
+    private ReportWriter(String[] header) {
+        this.header = header.clone();
+    }
+
+    /**
+     * CSV as defined by RFC 4180, UTF-8 with a byte order mark so spreadsheet applications detect the encoding.
+     */
+    public static ReportWriter csv(OutputStream out, String... header) throws IOException {
+        return new Csv(out, header);
+    }
+
+    /**
+     * An Office Open XML workbook with inline strings and a bold, frozen header row. A sheet that reaches
+     * Excel's row limit is continued on a new one.
+     */
+    public static ReportWriter xlsx(OutputStream out, String sheetName, String... header) throws IOException {
+        return new Xlsx(out, sheetName, header, Xlsx.MAX_ROWS);
+    }
+
+    /**
+     * Writes one row; null cells are written empty and missing trailing cells are left out.
+     */
+    public abstract void row(String... cells) throws IOException;
+
+    public abstract void flush() throws IOException;
+
+    /**
+     * Completes the document. The underlying stream is flushed but not closed.
+     */
+    public abstract void finish() throws IOException;
+
+    private static final class Csv extends ReportWriter {
+
+        private final Writer writer;
+
+        Csv(OutputStream out, String[] header) throws IOException {
+            super(header);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write('\uFEFF');
+            row(header);
+        }
+
+        @Override
+        public void row(String... cells) throws IOException {
+            for (int i = 0; i < cells.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(cells[i] != null ? cells[i] : "");
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(String value) throws IOException {
+            if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+                // Keeps spreadsheet applications from evaluating page content as a formula
+                value = "'" + value;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Sheets are written as zip entries while rows arrive. The workbook part listing them comes last,
+     * once their number is known; everything else is fixed and written up front.
+     */
+    static final class Xlsx extends ReportWriter {
+
+        static final int MAX_ROWS = 1048576;
+
+        private static final String XML_DECLARATION = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+        private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+        private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+        private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private final String sheetName;
+        private final int maxRows;
+        private int sheets;
+        private int rows;
+
+        Xlsx(OutputStream out, String sheetName, String[] header, int maxRows) throws IOException {
+            super(header);
+            this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+            this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8));
+            // Sheet names are limited to 31 characters, which leaves room for the number of a continuation
+            String name = sheetName.replaceAll("[\\[\\]:*?/\\\\]", " ");
+            this.sheetName = name.length() > 25 ? name.substring(0, 25) : name;
+            this.maxRows = maxRows;
+
+            entry("[Content_Types].xml", XML_DECLARATION
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.styles+xml\"/>"
+                    + "</Types>");
+            entry("_rels/.rels", XML_DECLARATION
+                    + "<Relationships xmlns=\"" + PACKAGE_REL_NS + "\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + REL_NS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            // Style 1 is the bold header
+            entry("xl/styles.xml", XML_DECLARATION
+                    + "<styleSheet xmlns=\"" + MAIN_NS + "\">"
+                    + "<fonts count=\"2\"><font><sz val=\"11\"/><name val=\"Calibri\"/></font>"
+                    + "<font><b/><sz val=\"11\"/><name val=\"Calibri\"/></font></fonts>"
+                    + "<fills count=\"2\"><fill><patternFill patternType=\"none\"/></fill>"
+                    + "<fill><patternFill patternType=\"gray125\"/></fill></fills>"
+                    + "<borders count=\"1\"><border><left/><right/><top/><bottom/><diagonal/></border></borders>"
+                    + "<cellStyleXfs count=\"1\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\"/></cellStyleXfs>"
+                    + "<cellXfs count=\"2\"><xf numFmtId=\"0\" fontId=\"0\" fillId=\"0\" borderId=\"0\" xfId=\"0\"/>"
+                    + "<xf numFmtId=\"0\" fontId=\"1\" fillId=\"0\" borderId=\"0\" xfId=\"0\" applyFont=\"1\"/></cellXfs>"
+                    + "</styleSheet>");
+            startSheet();
+        }
+
+        @Override
+        public void row(String... cells) throws IOException {
+            if (rows == maxRows) {
+                endSheet();
+                startSheet();
+            }
+            writeRow(cells, false);
+        }
+
+        private void startSheet() throws IOException {
+            sheets++;
+            rows = 0;
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+            writer.write(XML_DECLARATION);
+            writer.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetViews><sheetView workbookViewId=\"0\">"
+                    + "<pane ySplit=\"1\" topLeftCell=\"A2\" activePane=\"bottomLeft\" state=\"frozen\"/>"
+                    + "</sheetView></sheetViews><cols><col min=\"1\" max=\"" + Math.max(1, header.length)
+                    + "\" width=\"30\" customWidth=\"1\"/></cols><sheetData>");
+            writeRow(header, true);
+        }
+
+        private void writeRow(String[] cells, boolean bold) throws IOException {
+            writer.write("<row>");
+            for (String cell : cells) {
+                writer.write(bold ? "<c t=\"inlineStr\" s=\"1\">" : "<c t=\"inlineStr\">");
+                writer.write("<is><t xml:space=\"preserve\">");
+                writeText(cell != null ? cell : "");
+                writer.write("</t></is></c>");
+            }
+            writer.write("</row>");
+            rows++;
+        }
+
+        private void writeText(String value) throws IOException {
+            int length = Math.min(value.length(), MAX_CELL_LENGTH);
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        writer.write("&amp;");
+                        break;
+                    case '<':
+                        writer.write("&lt;");
+                        break;
+                    case '>':
+                        writer.write("&gt;");
+                        break;
+                    default:
+                        // Control characters other than tab and line breaks are not allowed in XML
+                        if ((c >= 0x20 && c != 0xFFFE && c != 0xFFFF) || c == '\t' || c == '\n' || c == '\r') {
+                            writer.write(c);
+                        }
+                }
+            }
+        }
+
+        private void endSheet() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void flush() throws IOException {
+            writer.flush();
+            zip.flush();
+        }
+
+        @Override
+        public void finish() throws IOException {
+            endSheet();
+            StringBuilder workbook = new StringBuilder(XML_DECLARATION)
+                    .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS)
+                    .append("\"><sheets>");
+            StringBuilder rels = new StringBuilder(XML_DECLARATION)
+                    .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">");
+            for (int i = 1; i <= sheets; i++) {
+                workbook.append("<sheet name=\"").append(escapeAttribute(i == 1 ? sheetName : sheetName + " " + i))
+                        .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+                rels.append("<Relationship Id=\"rId").append(i).append("\" Type=\"").append(REL_NS)
+                        .append("/worksheet\" Target=\"worksheets/sheet").append(i).append(".xml\"/>");
+            }
+            rels.append("<Relationship Id=\"rId").append(sheets + 1).append("\" Type=\"").append(REL_NS)
+                    .append("/styles\" Target=\"styles.xml\"/></Relationships>");
+            entry("xl/workbook.xml", workbook.append("</sheets></workbook>").toString());
+            entry("xl/_rels/workbook.xml.rels", rels.toString());
+            zip.finish();
+            zip.flush();
+        }
+
+        private void entry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writer.write(content);
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        private static String escapeAttribute(String value) {
+            return value.replace("&", "&amp;").replace("<", "&lt;").replace("\"", "&quot;");
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import javax.jcr.Binary;
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Reads and writes the result JSON of a scanResult node.
+ * <p>
+ * Results are stored gzip-compressed in a binary {@value #DATA_PROPERTY} property: the axe output repeats
+ * the same rule texts for every element and page, so it compresses by an order of magnitude. Nodes
+ * written before that still carry the plain {@value #LEGACY_PROPERTY} string and are read transparently.
+ */
+public final class ScanResultCodec {
+
+    public static final String DATA_PROPERTY = "jcr:data";
+
+    public static final String MIME_TYPE_PROPERTY = "jcr:mimeType";
+
+    public static final String CONTENT_ENCODING_PROPERTY = "contentEncoding";
+
+    public static final String GZIP = "gzip";
+
+    /** String property used before results were compressed. */
+    public static final String LEGACY_PROPERTY = "scanResult";
+
+    private ScanResultCodec() {
+    }
+
+    /**
+     * @return whether the node holds a result in either format
+     */
+    public static boolean hasResult(Node resultNode) throws RepositoryException {
+        return resultNode.hasProperty(DATA_PROPERTY) || resultNode.hasProperty(LEGACY_PROPERTY);
+    }
+
+    /**
+     * @return whether the node still holds its result as a plain string
+     */
+    public static boolean isLegacy(Node resultNode) throws RepositoryException {
+        return resultNode.hasProperty(LEGACY_PROPERTY);
+    }
+
+    /**
+     * Stores the result compressed and drops a plain string left from the old format.
+     */
+    public static void write(Node resultNode, String json) throws RepositoryException {
+        Binary binary = resultNode.getSession().getValueFactory().createBinary(new ByteArrayInputStream(gzip(json)));
+        try {
+            resultNode.setProperty(DATA_PROPERTY, binary);
+        } finally {
+            binary.dispose();
+        }
+        resultNode.setProperty(MIME_TYPE_PROPERTY, "application/json");
+        resultNode.setProperty(CONTENT_ENCODING_PROPERTY, GZIP);
+        if (resultNode.hasProperty(LEGACY_PROPERTY)) {
+            resultNode.getProperty(LEGACY_PROPERTY).remove();
+        }
+    }
+
+    /**
+     * Opens the decoded result JSON for streaming; the caller closes the reader.
+     *
+     * @return the reader, or null if the node holds no result
+     */
+    public static Reader open(Node resultNode) throws RepositoryException, IOException {
+        if (resultNode.hasProperty(LEGACY_PROPERTY)) {
+            return new StringReader(resultNode.getProperty(LEGACY_PROPERTY).getString());
+        }
+        if (!resultNode.hasProperty(DATA_PROPERTY)) {
+            return null;
+        }
+        InputStream data = resultNode.getProperty(DATA_PROPERTY).getBinary().getStream();
+        boolean gzipped = resultNode.hasProperty(CONTENT_ENCODING_PROPERTY)
+                && GZIP.equals(resultNode.getProperty(CONTENT_ENCODING_PROPERTY).getString());
+        return new InputStreamReader(gzipped ? new GZIPInputStream(data) : data, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the decoded result JSON, or null if the node holds no result
+     */
+    public static String read(Node resultNode) throws RepositoryException, IOException {
+        try (Reader reader = open(resultNode)) {
+            if (reader == null) {
+                return null;
+            }
+            StringWriter json = new StringWriter();
+            copy(reader, json);
+            return json.toString();
+        }
+    }
+
+    /**
+     * Copies a result reader to a writer in chunks.
+     */
+    public static void copy(Reader reader, Writer writer) throws IOException {
+        char[] buffer = new char[8192];
+        int read;
+        while ((read = reader.read(buffer)) != -1) {
+            writer.write(buffer, 0, read);
+        }
+    }
+
+    static byte[] gzip(String json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(64, json.length() / 8));
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Restricts stored results to rules of the given impacts and ids.
+ * <p>
+ * Pages and folders are first checked against their rollup counts, so pages and subtrees without a
+ * matching rule are skipped without decoding their results; only the results of matching pages are
+ * parsed and cut down.
+ */
+public final class ScanResultFilter {
+
+    private static final ScanResultFilter NONE = new ScanResultFilter(Collections.emptySet(), Collections.emptySet());
+
+    private final Set<String> impacts;
+    private final Set<String> ruleIds;
+
+    private ScanResultFilter(Set<String> impacts, Set<String> ruleIds) {
+        this.impacts = impacts;
+        this.ruleIds = ruleIds;
+    }
+
+    /**
+     * @param impacts accepted impacts, or null/empty for any
+     * @param ruleIds accepted rule ids, or null/empty for any
+     */
+    public static ScanResultFilter of(String[] impacts, String[] ruleIds) {
+        Set<String> impactSet = toSet(impacts);
+        Set<String> ruleSet = toSet(ruleIds);
+        return impactSet.isEmpty() && ruleSet.isEmpty() ? NONE : new ScanResultFilter(impactSet, ruleSet);
+    }
+
+    public boolean isEmpty() {
+        return impacts.isEmpty() && ruleIds.isEmpty();
+    }
+
+    /**
+     * @param owner a scanResult node, or a folder whose rollup counts its subtree
+     * @return false if the rollup shows that none of the counted rules can match
+     */
+    public boolean mayMatch(Node owner) throws RepositoryException {
+        if (isEmpty() || !owner.hasNode(ScanResultStore.ROLLUP_NODE)) {
+            return true;
+        }
+        Node rollup = owner.getNode(ScanResultStore.ROLLUP_NODE);
+        return anyCounted(rollup, ScanResultStore.ROLLUP_IMPACT, impacts)
+                && anyCounted(rollup, ScanResultStore.ROLLUP_RULE, ruleIds);
+    }
+
+    /**
+     * @return the matching rules of a result as a JSON array, or null if none match
+     */
+    public String apply(String scanResultJson) throws JSONException {
+        JSONArray rules = new JSONArray(scanResultJson);
+        JSONArray matching = new JSONArray();
+        for (int i = 0; i < rules.length(); i++) {
+            JSONObject rule = rules.optJSONObject(i);
+            if (rule != null && matches(rule)) {
+                matching.put(rule);
+            }
+        }
+        return matching.length() > 0 ? matching.toString() : null;
+    }
+
+    /**
+     * @return whether a rule object of a stored result passes the filter
+     */
+    public boolean matches(JSONObject rule) {
+        String impact = rule.optString("impact", "");
+        // Rules without an impact are counted as minor in the rollups
+        impact = impact.isEmpty() || "null".equals(impact) ? "minor" : impact;
+        return (impacts.isEmpty() || impacts.contains(impact))
+                && (ruleIds.isEmpty() || ruleIds.contains(rule.optString("id")));
+    }
+
+    private static boolean anyCounted(Node rollup, String group, Set<String> keys) throws RepositoryException {
+        if (keys.isEmpty()) {
+            return true;
+        }
+        if (!rollup.hasNode(group)) {
+            return false;
+        }
+        Node counts = rollup.getNode(group);
+        for (String key : keys) {
+            if (counts.hasProperty(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> toSet(String[] values) {
+        Set<String> set = new LinkedHashSet<>();
+        if (values != null) {
+            // Accept both repeated parameters and comma-separated lists
+            for (String value : values) {
+                Arrays.stream(value.split(",")).map(String::trim).filter(v -> !v.isEmpty()).forEach(set::add);
+            }
+        }
+        return set;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Visits the scanResult nodes below a folder of /var/a11y-scans in a stable order: a page's own result
+ * first, then the pages below it in repository child order.
+ * <p>
+ * A traversal can be resumed after any page folder. Only the siblings that precede the path to that
+ * folder are skipped again, so resuming deep in a large tree does not restart at its root.
+ * <p>
+ * With a filter, folders whose rollup shows no matching rule are not entered, so a selective filter
+ * visits the matching branches only instead of the whole tree.
+ */
+public final class ScanResultIterator {
+
+    private final Deque<NodeIterator> pending = new ArrayDeque<>();
+    private final ScanResultFilter filter;
+    private Node nextFolder;
+    private Node next;
+
+    /**
+     * @param base folder whose subtree is visited
+     * @param resumeAfter page folder below or equal to base whose result was the last one returned
+     *                    by an earlier traversal, or null to start at base
+     */
+    public ScanResultIterator(Node base, Node resumeAfter) throws RepositoryException {
+        this(base, resumeAfter, ScanResultFilter.of(null, null));
+    }
+
+    /**
+     * @param base folder whose subtree is visited
+     * @param resumeAfter page folder below or equal to base whose result was the last one returned
+     *                    by an earlier traversal, or null to start at base
+     * @param filter subtrees that cannot hold a result passing it are skipped; the returned results
+     *               may still need to be checked against it
+     */
+    public ScanResultIterator(Node base, Node resumeAfter, ScanResultFilter filter) throws RepositoryException {
+        this.filter = filter;
+        if (resumeAfter == null) {
+            nextFolder = base;
+        } else {
+            List<Node> path = new ArrayList<>();
+            for (Node folder = resumeAfter; !folder.isSame(base); folder = folder.getParent()) {
+                path.add(0, folder);
+            }
+            for (Node folder : path) {
+                NodeIterator siblings = folder.getParent().getNodes();
+                while (siblings.hasNext() && !siblings.nextNode().isSame(folder)) {
+                    // skip to the position after the folder
+                }
+                pending.push(siblings);
+            }
+            pending.push(resumeAfter.getNodes());
+        }
+        advance();
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    /**
+     * @return the next scanResult node; its parent is the page folder to resume after
+     */
+    public Node next() throws RepositoryException {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        Node result = next;
+        advance();
+        return result;
+    }
+
+    private void advance() throws RepositoryException {
+        next = null;
+        while (next == null) {
+            if (nextFolder != null) {
+                Node folder = nextFolder;
+                nextFolder = null;
+                if (!filter.mayMatch(folder)) {
+                    continue;
+                }
+                pending.push(folder.getNodes());
+                if (folder.hasNode(ScanResultStore.RESULT_NODE)
+                        && ScanResultCodec.hasResult(folder.getNode(ScanResultStore.RESULT_NODE))) {
+                    next = folder.getNode(ScanResultStore.RESULT_NODE);
+                }
+            } else if (pending.isEmpty()) {
+                return;
+            } else if (!pending.peek().hasNext()) {
+                pending.pop();
+            } else {
+                Node child = pending.peek().nextNode();
+                if (!isReserved(child.getName())) {
+                    nextFolder = child;
+                }
+            }
+        }
+    }
+
+    private static boolean isReserved(String name) {
+        return ScanResultStore.RESULT_NODE.equals(name) || ScanResultStore.ROLLUP_NODE.equals(name);
+    }
+}
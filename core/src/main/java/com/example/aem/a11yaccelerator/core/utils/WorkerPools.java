@@ -0,0 +1,44 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the bundle's background work. Their threads are numbered daemon threads, so they show up
+ * by name in thread dumps and never keep the JVM from stopping.
+ */
+public final class WorkerPools {
+
+    private WorkerPools() {
+    }
+
+    /**
+     * Creates a fixed number of workers with a bounded queue; workers exit after a minute without work.
+     *
+     * @param threadNamePrefix e.g. "a11y-batch-scan-", followed by the thread number
+     * @param threads tasks run in parallel
+     * @param queueCapacity tasks waiting for a worker; further tasks are rejected
+     */
+    public static ThreadPoolExecutor bounded(String threadNamePrefix, int threads, int queueCapacity) {
+        int workers = Math.max(1, threads);
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(workers, workers, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(Math.max(1, queueCapacity)), daemonThreads(threadNamePrefix));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param namePrefix e.g. "a11y-batch-scan-", followed by the thread number
+     */
+    public static ThreadFactory daemonThreads(String namePrefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, namePrefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.aem.a11yaccelerator.core.jobs;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.impl.RuleDictionaryImpl;
+import com.example.aem.a11yaccelerator.core.services.impl.ScanResultStoreImpl;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.JobManager;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class ResultStorageMigrationJobExecutorTest {
+
+    private static final String REGION = "[{\"id\":\"region\",\"impact\":\"moderate\",\"type\":\"violation\","
+            + "\"tags\":[],\"nodes\":[{\"target\":[\"div\"],\"html\":\"<div>\"}]}]";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ScanResultStore store;
+    private Session session;
+    private JobExecutionContext jobContext;
+    private JobExecutionContext.ResultBuilder result;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        context.registerService(JobManager.class, mock(JobManager.class));
+        session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+        for (int i = 0; i < 5; i++) {
+            String pagePath = "/content/site/en/legacy" + i;
+            store.writeResult(session, pagePath, REGION, null, null);
+            // Results written before compression held the JSON as a plain string
+            Node resultNode = session.getNode(ScanResultStore.ROOT_PATH + pagePath + "/" + ScanResultStore.RESULT_NODE);
+            resultNode.getProperty(ScanResultCodec.DATA_PROPERTY).remove();
+            resultNode.setProperty(ScanResultCodec.LEGACY_PROPERTY, REGION);
+        }
+        session.save();
+
+        jobContext = mock(JobExecutionContext.class);
+        result = mock(JobExecutionContext.ResultBuilder.class, RETURNS_SELF);
+        when(jobContext.result()).thenReturn(result);
+    }
+
+    @Test
+    void convertsLegacyResultsThroughTheWriterWhileResultsAreStored() throws Exception {
+        JobExecutor executor = context.registerInjectActivateService(new ResultStorageMigrationJobExecutor(),
+                "migrateOnStartup", false, "batchSize", 2);
+        List<Exception> crawlErrors = new CopyOnWriteArrayList<>();
+        Thread crawl = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    store.storeResult("/content/site/en/page" + i, REGION, null, null);
+                } catch (Exception e) {
+                    crawlErrors.add(e);
+                }
+            }
+        });
+        crawl.start();
+        executor.process(mock(Job.class), jobContext);
+        crawl.join(30000);
+
+        verify(result).succeeded();
+        assertTrue(crawlErrors.isEmpty());
+        session.refresh(false);
+        for (int i = 0; i < 5; i++) {
+            Node resultNode = session.getNode(ScanResultStore.ROOT_PATH + "/content/site/en/legacy" + i
+                    + "/" + ScanResultStore.RESULT_NODE);
+            assertFalse(ScanResultCodec.isLegacy(resultNode));
+            assertEquals(REGION, ScanResultCodec.read(resultNode));
+        }
+        assertEquals(ScanResultCodec.GZIP, session.getNode(ScanResultStore.ROOT_PATH)
+                .getProperty(ResultStorageMigrationJobExecutor.STORAGE_FORMAT_PROPERTY).getString());
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.aem.a11yaccelerator.core.jobs;
+
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import com.example.aem.a11yaccelerator.core.services.impl.RuleDictionaryImpl;
+import com.example.aem.a11yaccelerator.core.services.impl.ScanResultStoreImpl;
+import com.example.aem.a11yaccelerator.core.services.impl.SuggestionCacheImpl;
+import org.apache.sling.event.jobs.Job;
+import org.apache.sling.event.jobs.consumer.JobExecutionContext;
+import org.apache.sling.event.jobs.consumer.JobExecutor;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class ScanRetentionJobExecutorTest {
+
+    private static final String IMAGE_ALT = "[{\"id\":\"image-alt\",\"impact\":\"critical\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2a\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"}]}]";
+    private static final String REGION = "[{\"id\":\"region\",\"impact\":\"moderate\",\"type\":\"violation\","
+            + "\"tags\":[],\"nodes\":[{\"target\":[\"div\"],\"html\":\"<div>\"}]}]";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ScanResultStore store;
+    private Session session;
+    private JobExecutionContext jobContext;
+    private JobExecutionContext.ResultBuilder result;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        context.registerInjectActivateService(new SuggestionCacheImpl(), "maxAgeDays", 30);
+        session = context.resourceResolver().adaptTo(Session.class);
+        Node var = session.getRootNode().addNode("var", "nt:unstructured");
+        Calendar created = Calendar.getInstance();
+        created.add(Calendar.DAY_OF_MONTH, -40);
+        var.addNode("a11y-suggestions", "sling:Folder").addNode("image-alt", "sling:Folder")
+                .addNode("ab", "sling:Folder").addNode("ab12", "nt:unstructured")
+                .setProperty("created", created);
+        Node site = session.getRootNode().addNode("content", "nt:unstructured").addNode("site", "nt:unstructured");
+        site.addNode("en", "nt:unstructured");
+        store.writeResult(session, "/content/site/en", IMAGE_ALT, null, null);
+        store.writeResult(session, "/content/site/en", REGION, null, null);
+        // The page was deleted after it was scanned
+        store.writeResult(session, "/content/site/old", IMAGE_ALT, null, null);
+        session.save();
+
+        jobContext = mock(JobExecutionContext.class);
+        result = mock(JobExecutionContext.ResultBuilder.class, RETURNS_SELF);
+        when(jobContext.result()).thenReturn(result);
+    }
+
+    @Test
+    void prunesHistoryAndRemovesOrphansAndExpiredSuggestionsInBatches() throws Exception {
+        JobExecutor executor = context.registerInjectActivateService(new ScanRetentionJobExecutor(),
+                "maxRunsPerPage", 1, "maxAgeDays", 0, "batchSize", 1, "pauseMillis", 0L);
+
+        executor.process(mock(Job.class), jobContext);
+
+        verify(result).succeeded();
+        // One save each for the pruned run, the removed orphan and the expired suggestion
+        verify(jobContext, times(3)).log("Saved {0} removals", 1);
+        assertEquals(1, new JSONArray(store.readHistory(session, "/content/site/en")).length());
+        assertFalse(session.nodeExists(ScanResultStore.ROOT_PATH + "/content/site/old"));
+        assertTrue(session.nodeExists(ScanResultStore.ROOT_PATH + "/content/site/en/" + ScanResultStore.RESULT_NODE));
+        assertFalse(session.nodeExists(SuggestionCache.ROOT_PATH + "/image-alt/ab/ab12"));
+    }
+
+    @Test
+    void stoppedJobIsCancelledAndNotRetried() throws Exception {
+        JobExecutor executor = context.registerInjectActivateService(new ScanRetentionJobExecutor(),
+                "batchSize", 1, "pauseMillis", 0L);
+        when(jobContext.isStopped()).thenReturn(true);
+
+        executor.process(mock(Job.class), jobContext);
+
+        verify(result).cancelled();
+        verify(result, never()).failed();
+        assertTrue(session.nodeExists(ScanResultStore.ROOT_PATH + "/content/site/old/" + ScanResultStore.RESULT_NODE));
+    }
+
+    @Test
+    void cleanupRunsThroughTheWriterWhileResultsAreStored() throws Exception {
+        Node en = session.getNode("/content/site/en");
+        for (int i = 0; i < 20; i++) {
+            en.addNode("page" + i, "nt:unstructured");
+        }
+        session.save();
+        JobExecutor executor = context.registerInjectActivateService(new ScanRetentionJobExecutor(),
+                "maxRunsPerPage", 1, "batchSize", 1, "pauseMillis", 0L);
+        List<Exception> crawlErrors = new CopyOnWriteArrayList<>();
+        Thread crawl = new Thread(() -> {
+            for (int i = 0; i < 20; i++) {
+                try {
+                    store.storeResult("/content/site/en/page" + i, REGION, null, null);
+                } catch (Exception e) {
+                    crawlErrors.add(e);
+                }
+            }
+        });
+
+        crawl.start();
+        executor.process(mock(Job.class), jobContext);
+        crawl.join(30000);
+
+        verify(result).succeeded();
+        assertTrue(crawlErrors.isEmpty());
+        session.refresh(false);
+        assertFalse(session.nodeExists(ScanResultStore.ROOT_PATH + "/content/site/old"));
+        assertEquals(21, new JSONObject(store.readSummary(session, "/content/site"))
+                .getLong(ScanResultStore.ROLLUP_PAGES));
+    }
+}
@@ -17,12 +17,14 @@ package com.example.aem.a11yaccelerator.core.listeners;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Arrays;
 import java.util.List;
 
 import org.apache.sling.api.resource.observation.ResourceChange;
 import org.apache.sling.api.resource.observation.ResourceChange.ChangeType;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import uk.org.lidalia.slf4jext.Level;
@@ -36,6 +38,11 @@ class SimpleResourceListenerTest {
 
     private TestLogger logger = TestLoggerFactory.getTestLogger(fixture.getClass());
 
+    @BeforeEach
+    void setup() {
+        TestLoggerFactory.clear();
+    }
+
     @Test
     void handleEvent() {
         
@@ -55,4 +62,16 @@ class SimpleResourceListenerTest {
                 () -> assertEquals(Boolean.FALSE,event.getArguments().get(2))
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    void coalescesChangesPerPage() {
+        fixture.onChange(Arrays.asList(
+                new ResourceChange(ChangeType.CHANGED, "/content/site/en/jcr:content/root/text", false),
+                new ResourceChange(ChangeType.CHANGED, "/content/site/en/jcr:content", false),
+                new ResourceChange(ChangeType.ADDED, "/content/site/en/about", false)));
+
+        assertEquals(2, fixture.getDirtyPaths().size());
+        assertTrue(fixture.getDirtyPaths().contains("/content/site/en"));
+        assertTrue(fixture.getDirtyPaths().contains("/content/site/en/about"));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2018 Adobe Systems Incorporated
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package com.example.aem.a11yaccelerator.core.schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import com.example.aem.a11yaccelerator.core.jobs.PageScanJobExecutor;
+import org.apache.sling.event.jobs.JobManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(AemContextExtension.class)
+class SiteCrawlSchedulerTest {
+
+    private final AemContext context = new AemContext();
+
+    private final JobManager jobManager = mock(JobManager.class);
+
+    @BeforeEach
+    void setup() {
+        context.create().page("/content/site");
+        context.create().page("/content/site/a");
+        context.create().page("/content/site/a/b");
+        context.create().page("/content/site/c");
+        context.create().page("/content/site/d");
+        context.registerService(JobManager.class, jobManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void submitsOneJobPerBatch() {
+        SiteCrawlScheduler fixture = context.registerInjectActivateService(new SiteCrawlScheduler(),
+                "enabled", true,
+                "rootPaths", new String[] { "/content/site" },
+                "pagesPerJob", 2);
+
+        fixture.run();
+
+        ArgumentCaptor<Map<String, Object>> props = ArgumentCaptor.forClass(Map.class);
+        verify(jobManager, times(3)).addJob(eq(PageScanJobExecutor.TOPIC), props.capture());
+        List<String> pages = new ArrayList<>();
+        for (Map<String, Object> job : props.getAllValues()) {
+            String[] batch = (String[]) job.get(PageScanJobExecutor.PROPERTY_PAGE_PATHS);
+            pages.addAll(Arrays.asList(batch));
+        }
+        assertEquals(2, ((String[]) props.getAllValues().get(0).get(PageScanJobExecutor.PROPERTY_PAGE_PATHS)).length);
+        assertEquals(5, pages.size());
+        assertEquals("/content/site", pages.get(0));
+    }
+
+    @Test
+    void doesNothingWhenDisabled() {
+        SiteCrawlScheduler fixture = context.registerInjectActivateService(new SiteCrawlScheduler(),
+                "enabled", false);
+
+        fixture.run();
+
+        verify(jobManager, never()).addJob(eq(PageScanJobExecutor.TOPIC), anyMap());
+    }
+}
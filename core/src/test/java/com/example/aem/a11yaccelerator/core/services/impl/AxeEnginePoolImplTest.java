@@ -0,0 +1,122 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.script.ScriptException;
+
+import com.example.aem.a11yaccelerator.core.utils.AxeCoreRunner;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AxeEnginePoolImplTest {
+
+    private final List<AxeCoreRunner> runners = new ArrayList<>();
+    private int failingCreations;
+
+    @Test
+    void fillsThePoolOnActivationAndReusesReleasedEngines() throws Exception {
+        AxeEnginePoolImpl pool = pool(2);
+
+        assertEquals(2, runners.size());
+        assertEquals(2, pool.getAvailableCount());
+        assertEquals("4.8.0", pool.getAxeVersion());
+        AxeCoreRunner runner = pool.borrow();
+        assertEquals(1, pool.getAvailableCount());
+        pool.release(runner);
+
+        assertEquals(2, pool.getAvailableCount());
+        assertEquals(1, pool.getBorrowCount());
+        assertEquals(1, pool.getReturnCount());
+        assertEquals(2, runners.size());
+    }
+
+    @Test
+    void neverCreatesMoreEnginesThanThePoolSize() throws Exception {
+        AxeEnginePoolImpl pool = pool(2);
+        pool.borrow();
+        pool.borrow();
+
+        assertThrows(ScriptException.class, pool::borrow);
+        assertEquals(1, pool.getBorrowTimeoutCount());
+        assertEquals(2, runners.size());
+    }
+
+    @Test
+    void enginesThatFailedToWarmUpAreCreatedOnBorrow() throws Exception {
+        failingCreations = 1;
+        AxeEnginePoolImpl pool = pool(2);
+        assertEquals(0, pool.getAvailableCount());
+
+        pool.borrow();
+        pool.borrow();
+
+        assertEquals(2, runners.size());
+        assertEquals(2, pool.getBorrowCount());
+    }
+
+    @Test
+    void anEngineFailingDuringAScanIsReplaced() throws Exception {
+        AxeEnginePoolImpl pool = pool(1);
+        AxeCoreRunner broken = runners.get(0);
+        when(broken.runAccessibilityScan("<html>")).thenThrow(new ScriptException("Stack overflow"));
+
+        assertThrows(ScriptException.class, () -> pool.runAccessibilityScan("<html>"));
+
+        verify(broken).close();
+        assertEquals(2, runners.size());
+        assertEquals(1, pool.getAvailableCount());
+        AxeCoreRunner replacement = pool.borrow();
+        assertNotSame(broken, replacement);
+        assertSame(runners.get(1), replacement);
+        assertEquals(pool.getBorrowCount() - 1, pool.getReturnCount());
+    }
+
+    @Test
+    void deactivateClosesIdleEnginesAndThoseReleasedLater() throws Exception {
+        AxeEnginePoolImpl pool = pool(2);
+        AxeCoreRunner borrowed = pool.borrow();
+        AxeCoreRunner idle = runners.get(0) == borrowed ? runners.get(1) : runners.get(0);
+
+        pool.deactivate();
+
+        verify(idle).close();
+        verify(borrowed, never()).close();
+        assertEquals(0, pool.getAvailableCount());
+        pool.release(borrowed);
+        verify(borrowed).close();
+        assertThrows(ScriptException.class, pool::borrow);
+    }
+
+    private AxeEnginePoolImpl pool(int size) {
+        AxeEnginePoolImpl pool = new AxeEnginePoolImpl() {
+            @Override
+            AxeCoreRunner newRunner(String engineName) throws ScriptException {
+                if (failingCreations > 0) {
+                    failingCreations--;
+                    throw new ScriptException("No JS engine found for '" + engineName + "'");
+                }
+                AxeCoreRunner runner = mock(AxeCoreRunner.class);
+                when(runner.getAxeVersion()).thenReturn("4.8.0");
+                when(runner.runAccessibilityScan(anyString())).thenReturn("{}");
+                runners.add(runner);
+                return runner;
+            }
+        };
+        AxeEnginePoolImpl.Config config = mock(AxeEnginePoolImpl.Config.class);
+        when(config.poolSize()).thenReturn(size);
+        when(config.borrowTimeoutMs()).thenReturn(0L);
+        when(config.engineName()).thenReturn(AxeCoreRunner.DEFAULT_ENGINE_NAME);
+        pool.activate(config);
+        return pool;
+    }
+}
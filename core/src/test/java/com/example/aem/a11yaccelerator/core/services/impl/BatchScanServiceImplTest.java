@@ -0,0 +1,108 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.example.aem.a11yaccelerator.core.services.BatchScanJob;
+import com.example.aem.a11yaccelerator.core.services.BatchScanService;
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class BatchScanServiceImplTest {
+
+    private final AemContext context = new AemContext();
+
+    private final AtomicLong now = new AtomicLong(System.currentTimeMillis());
+
+    private PageScanService pageScanService;
+    private ScanResultStore store;
+    private BatchScanService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        pageScanService = mock(PageScanService.class);
+        when(pageScanService.scanPage(anyString())).thenAnswer(invocation -> new PageScanResult(
+                invocation.getArgument(0), "[]", "hash", "4.8.0", false, false));
+        store = mock(ScanResultStore.class);
+        context.registerService(PageScanService.class, pageScanService);
+        context.registerService(ScanResultStore.class, store);
+        service = context.registerInjectActivateService(new BatchScanServiceImpl(now::get),
+                "workerThreads", 1, "maxQueuedPages", 2, "jobRetentionMinutes", 60L);
+    }
+
+    @Test
+    void rejectsMorePagesThanTheQueueCanTake() {
+        assertThrows(IllegalStateException.class,
+                () -> service.submit(Arrays.asList("/content/site/en", "/content/site/de", "/content/site/fr")));
+        verifyNoInteractions(pageScanService);
+    }
+
+    @Test
+    void recordsFailedPagesOnTheJob() throws Exception {
+        when(pageScanService.scanPage("/content/site/de")).thenThrow(new IOException("Failed to fetch HTML snapshot"));
+
+        BatchScanJob job = awaitCompletion(service.submit(Arrays.asList("/content/site/en", "/content/site/de")));
+
+        assertEquals(1, job.getSucceeded());
+        assertEquals(1, job.getFailed());
+        assertEquals(Collections.singletonMap("/content/site/de", "Failed to fetch HTML snapshot"),
+                job.getFailures());
+        verify(store).storeResult("/content/site/en", "[]", "hash", "4.8.0");
+    }
+
+    @Test
+    void resultsThatAreAlreadyStoredAreNotWrittenAgain() throws Exception {
+        when(pageScanService.scanPage("/content/site/en")).thenReturn(
+                new PageScanResult("/content/site/en", "[]", "hash", "4.8.0", true, true));
+
+        BatchScanJob job = awaitCompletion(service.submit(Arrays.asList("/content/site/en", "/content/site/de")));
+
+        assertEquals(2, job.getSucceeded());
+        verify(store, never()).storeResult("/content/site/en", "[]", "hash", "4.8.0");
+        verify(store).storeResult("/content/site/de", "[]", "hash", "4.8.0");
+    }
+
+    @Test
+    void finishedJobsArePurgedAfterTheRetention() throws Exception {
+        BatchScanJob job = awaitCompletion(service.submit(Collections.singletonList("/content/site/en")));
+        now.addAndGet(TimeUnit.MINUTES.toMillis(59));
+        service.submit(Collections.emptyList());
+        assertNotNull(service.getJob(job.getId()));
+
+        now.addAndGet(TimeUnit.MINUTES.toMillis(2));
+        service.submit(Collections.emptyList());
+
+        assertNull(service.getJob(job.getId()));
+    }
+
+    private static BatchScanJob awaitCompletion(BatchScanJob job) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (job.getStatus() != BatchScanJob.Status.COMPLETED && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(BatchScanJob.Status.COMPLETED, job.getStatus());
+        return job;
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.LlmClient;
+import com.example.aem.a11yaccelerator.core.services.LlmException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(AemContextExtension.class)
+class LlmClientImplTest {
+
+    private final AemContext context = new AemContext();
+
+    private HttpServer server;
+
+    @AfterEach
+    void tearDown() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void streamsTokensFromProvider() throws Exception {
+        LlmClient client = clientFor(exchange -> {
+            String auth = exchange.getRequestHeaders().getFirst("Authorization");
+            respond(exchange, "Bearer test-key".equals(auth) ? 200 : 401, "text/event-stream",
+                    "data: {\"choices\":[{\"delta\":{\"content\":\"Add \"}}]}\n\n"
+                            + "data: {\"choices\":[{\"delta\":{\"content\":\"alt text.\"}}]}\n\n"
+                            + "data: [DONE]\n\n");
+        });
+
+        List<String> tokens = new ArrayList<>();
+        assertEquals("Add alt text.", client.complete("system", "user", tokens::add));
+        assertEquals(Arrays.asList("Add ", "alt text."), tokens);
+        assertEquals(1, client.getCallCount());
+        assertEquals(0, client.getFailureCount());
+    }
+
+    @Test
+    void failsFastAfterRepeatedProviderErrors() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        LlmClient client = clientFor(exchange -> {
+            hits.incrementAndGet();
+            respond(exchange, 500, "application/json", "{\"error\":\"overloaded\"}");
+        }, "failureThreshold", 2, "circuitOpenMs", 60000);
+
+        assertEquals(500, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+        assertEquals(500, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+        assertEquals(503, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+
+        assertEquals(2, hits.get());
+        assertEquals("OPEN", client.getCircuitState());
+        assertEquals(1, client.getRejectedCount());
+    }
+
+    @Test
+    void rejectedRequestsDoNotResetTheFailureRun() throws Exception {
+        AtomicInteger hits = new AtomicInteger();
+        LlmClient client = clientFor(exchange -> respond(exchange, hits.incrementAndGet() % 2 == 0 ? 401 : 500,
+                "application/json", "{}"), "failureThreshold", 2, "circuitOpenMs", 60000);
+
+        assertEquals(500, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+        assertEquals(401, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+        assertEquals(500, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+
+        assertEquals("OPEN", client.getCircuitState());
+        assertEquals(503, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+    }
+
+    @Test
+    void slowProviderTimesOut() throws Exception {
+        LlmClient client = clientFor(exchange -> {
+            try {
+                Thread.sleep(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "application/json", "{}");
+        }, "socketTimeoutMs", 200);
+
+        assertEquals(504, assertThrows(LlmException.class, () -> client.complete("s", "u", null)).getStatus());
+        assertEquals(1, client.getFailureCount());
+    }
+
+    private LlmClient clientFor(Handler handler, Object... properties) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            try {
+                handler.handle(exchange);
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+
+        Object[] config = Arrays.copyOf(properties, properties.length + 4);
+        config[properties.length] = "endpoint";
+        config[properties.length + 1] = "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/chat/completions";
+        config[properties.length + 2] = "apiKey";
+        config[properties.length + 3] = "test-key";
+        return context.registerInjectActivateService(new LlmClientImpl(), config);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private interface Handler {
+        void handle(HttpExchange exchange) throws IOException;
+    }
+}
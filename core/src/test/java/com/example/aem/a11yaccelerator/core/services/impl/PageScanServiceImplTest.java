@@ -0,0 +1,140 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.AxeEnginePool;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshot;
+import com.example.aem.a11yaccelerator.core.services.HtmlSnapshotService;
+import com.example.aem.a11yaccelerator.core.services.PageScanResult;
+import com.example.aem.a11yaccelerator.core.services.PageScanService;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class PageScanServiceImplTest {
+
+    private static final String HTML = "<html><body><img src=a.png></body></html>";
+    private static final String REPORT = "{\"violations\":[{\"id\":\"image-alt\",\"impact\":\"critical\","
+            + "\"tags\":[\"wcag2a\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"}]}]}";
+    private static final String RESULT = "[{\"id\":\"image-alt\",\"impact\":\"critical\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2a\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"}]}]";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ScanResultStore store;
+    private AxeEnginePool pool;
+    private HtmlSnapshotService snapshots;
+    private Session session;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        pool = mock(AxeEnginePool.class);
+        when(pool.getAxeVersion()).thenReturn("4.8.0");
+        when(pool.runAccessibilityScan(HTML)).thenReturn(REPORT);
+        context.registerService(AxeEnginePool.class, pool);
+        snapshots = mock(HtmlSnapshotService.class);
+        when(snapshots.fetchSnapshot(anyString())).thenReturn(HtmlSnapshot.of(HTML));
+        when(snapshots.fetchHtml(anyString())).thenReturn(HTML);
+        context.registerService(HtmlSnapshotService.class, snapshots);
+        session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+        session.save();
+    }
+
+    @Test
+    void aMissRunsTheEngineAndFillsTheCache() throws Exception {
+        PageScanService service = context.registerInjectActivateService(new PageScanServiceImpl());
+
+        PageScanResult first = service.scanPage("/content/site/en");
+
+        assertFalse(first.isCached());
+        assertFalse(first.isStored());
+        JSONObject rule = new JSONArray(first.getResultJson()).getJSONObject(0);
+        assertEquals("image-alt", rule.getString("id"));
+        assertEquals("violation", rule.getString("type"));
+        assertEquals("4.8.0", first.getAxeVersion());
+        verify(pool).runAccessibilityScan(HTML);
+
+        PageScanResult second = service.scanPage("/content/site/en");
+        assertTrue(second.isCached());
+        assertEquals(first.getContentHash(), second.getContentHash());
+        verify(pool, times(1)).runAccessibilityScan(HTML);
+    }
+
+    @Test
+    void identicalMarkupOnAnotherPageIsServedFromMemory() throws Exception {
+        PageScanService service = context.registerInjectActivateService(new PageScanServiceImpl());
+        PageScanResult original = service.scanPage("/content/site/en");
+
+        PageScanResult copy = service.scanPage("/content/site/de");
+
+        assertTrue(copy.isCached());
+        assertFalse(copy.isStored());
+        assertEquals("/content/site/de", copy.getPagePath());
+        assertEquals(original.getResultJson(), copy.getResultJson());
+        verify(pool, times(1)).runAccessibilityScan(HTML);
+    }
+
+    @Test
+    void aStoredResultWithTheSameHashIsReturnedWithoutScanning() throws Exception {
+        String contentHash = context.registerInjectActivateService(new PageScanServiceImpl(), "resultCacheSize", 0)
+                .scanPage("/content/site/en").getContentHash();
+        store.writeResult(session, "/content/site/en", RESULT, contentHash, null);
+        session.save();
+        // Unchanged since the stored scan, so the page is answered with its markup hash alone
+        when(snapshots.fetchSnapshot("/content/site/en"))
+                .thenReturn(HtmlSnapshot.notModified(HtmlSnapshot.markupHash(HTML)));
+        PageScanService service = context.registerInjectActivateService(new PageScanServiceImpl(),
+                "resultCacheSize", 0);
+
+        PageScanResult result = service.scanPage("/content/site/en");
+
+        assertTrue(result.isStored());
+        assertTrue(result.isCached());
+        assertEquals(RESULT, result.getResultJson());
+        verify(pool, times(1)).runAccessibilityScan(HTML);
+        verify(snapshots, never()).fetchHtml(anyString());
+    }
+
+    @Test
+    void anotherAxeVersionInvalidatesTheStoredAndCachedResult() throws Exception {
+        PageScanService service = context.registerInjectActivateService(new PageScanServiceImpl());
+        PageScanResult before = service.scanPage("/content/site/en");
+        store.writeResult(session, "/content/site/en", RESULT, before.getContentHash(), null);
+        session.save();
+        when(snapshots.fetchSnapshot("/content/site/en"))
+                .thenReturn(HtmlSnapshot.notModified(HtmlSnapshot.markupHash(HTML)));
+        when(pool.getAxeVersion()).thenReturn("4.9.0");
+
+        PageScanResult after = service.scanPage("/content/site/en");
+
+        assertFalse(after.isCached());
+        assertFalse(after.isStored());
+        assertEquals("4.9.0", after.getAxeVersion());
+        assertNotEquals(before.getContentHash(), after.getContentHash());
+        // The page did not change, so its markup is fetched again for the new engine
+        verify(snapshots).fetchHtml("/content/site/en");
+        verify(pool, times(2)).runAccessibilityScan(HTML);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.day.cq.wcm.api.Page;
+import com.example.aem.a11yaccelerator.core.models.Issue;
+import com.example.aem.a11yaccelerator.core.rules.ImageAltRule;
+import com.example.aem.a11yaccelerator.core.rules.LinkTextRule;
+import com.example.aem.a11yaccelerator.core.rules.PageLanguageRule;
+import com.example.aem.a11yaccelerator.core.rules.PageTitleRule;
+import com.example.aem.a11yaccelerator.core.services.RulesEngineService;
+import org.apache.sling.api.resource.ModifiableValueMap;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class RulesEngineServiceImplTest {
+
+    private static final String IMAGE = "core/wcm/components/image/v2/image";
+
+    private final AemContext context = new AemContext();
+
+    private RulesEngineService rulesEngine;
+
+    @BeforeEach
+    void setup() {
+        context.registerInjectActivateService(new PageTitleRule());
+        context.registerInjectActivateService(new PageLanguageRule());
+        context.registerInjectActivateService(new ImageAltRule());
+        context.registerInjectActivateService(new LinkTextRule());
+        rulesEngine = context.registerInjectActivateService(new RulesEngineServiceImpl());
+
+        context.create().page("/content/site", null, "jcr:title", "Site", "jcr:language", "en");
+    }
+
+    @Test
+    void cleanPageHasNoIssues() {
+        Page page = context.create().page("/content/site/clean", null, "jcr:title", "Clean");
+        context.create().resource(page.getContentResource().getPath() + "/root/image",
+                "sling:resourceType", IMAGE, "alt", "A cat");
+        context.create().resource(page.getContentResource().getPath() + "/root/deco",
+                "sling:resourceType", IMAGE, "isDecorative", true);
+        context.create().resource(page.getContentResource().getPath() + "/root/button",
+                "linkURL", "/content/site", "text", "Home");
+
+        assertTrue(rulesEngine.scanPage(page).isEmpty());
+    }
+
+    @Test
+    void reportsContentIssues() {
+        Page page = context.create().page("/content/other");
+        page.getContentResource().adaptTo(ModifiableValueMap.class).remove("jcr:title");
+        String root = page.getContentResource().getPath() + "/root";
+        context.create().resource(root + "/image", "sling:resourceType", IMAGE);
+        context.create().resource(root + "/button", "linkURL", "/content/site");
+        context.create().resource(root + "/text", "textIsRich", true,
+                "text", "<p>Read <a href=\"/content/site\"> &nbsp;</a></p>");
+
+        List<Issue> issues = rulesEngine.scanPage(page);
+
+        List<String> ids = issues.stream().map(Issue::getId).collect(Collectors.toList());
+        assertTrue(ids.contains("page-title-missing"));
+        assertTrue(ids.contains("page-language-missing"));
+        assertTrue(ids.contains("image-alt-missing"));
+        assertEquals(2, ids.stream().filter("link-name-missing"::equals).count());
+        Issue image = issues.stream().filter(i -> "image-alt-missing".equals(i.getId())).findFirst().get();
+        assertEquals(root + "/image", image.getComponentPath());
+    }
+}
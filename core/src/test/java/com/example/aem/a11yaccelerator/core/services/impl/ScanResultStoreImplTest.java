@@ -0,0 +1,370 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Node;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.RuleDictionary;
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.impl.ScanResultStoreImpl.PendingWrite;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.osgi.framework.Constants;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class ScanResultStoreImplTest {
+
+    private static final String CONTRAST = "{\"id\":\"color-contrast\",\"impact\":\"serious\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2aa\",\"wcag143\"],\"nodes\":[{\"target\":[\"#title-0123456789 > h1\"],\"html\":\"<h1>Hi</h1>\"}]}";
+    private static final String IMAGE_ALT = "{\"id\":\"image-alt\",\"impact\":\"critical\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2a\",\"wcag111\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"},"
+            + "{\"target\":[\"img:nth-child(2)\"],\"html\":\"<img src=b.png>\"}]}";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ScanResultStore store;
+    private Session session;
+
+    @BeforeEach
+    void setup() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+    }
+
+    @Test
+    void storesCompressedResultWithIssueNodes() throws Exception {
+        String json = "[" + CONTRAST + "," + IMAGE_ALT + "]";
+
+        Node result = store.writeResult(session, "/content/site/en", json, "hash", null);
+
+        assertEquals(json, ScanResultCodec.read(result));
+        assertFalse(ScanResultCodec.isLegacy(result));
+        Node issues = result.getNode(ScanResultStore.ISSUES_NODE);
+        assertEquals(3, issues.getNodes().getSize());
+        Node contrast = issues.getNode("0");
+        assertEquals("color-contrast", contrast.getProperty(ScanResultStore.RULE_ID_PROPERTY).getString());
+        assertEquals("AA", contrast.getProperty(ScanResultStore.WCAG_LEVEL_PROPERTY).getString());
+    }
+
+    @Test
+    void issuesAreMappedToTheirComponentWithStableFingerprints() throws Exception {
+        Node page = session.getRootNode().addNode("content", "nt:unstructured").addNode("site", "nt:unstructured")
+                .addNode("en", "nt:unstructured");
+        Node title = page.addNode("jcr:content", "nt:unstructured").addNode("title", "nt:unstructured");
+        title.setProperty("sling:resourceType", "site/components/title");
+        String hash = DigestUtils.sha256Hex(title.getPath()).substring(0, 10);
+        String contrast = CONTRAST.replace("#title-0123456789", "#title-" + hash);
+
+        Node issue = store.writeResult(session, "/content/site/en", "[" + contrast + "]", null, null)
+                .getNode(ScanResultStore.ISSUES_NODE + "/0");
+        String fingerprint = issue.getProperty(ScanResultStore.FINGERPRINT_PROPERTY).getString();
+
+        assertEquals(title.getPath(), issue.getProperty(ScanResultStore.COMPONENT_PATH_PROPERTY).getString());
+        assertEquals("site/components/title", issue.getProperty(ScanResultStore.RESOURCE_TYPE_PROPERTY).getString());
+        assertEquals("1.4.3", issue.getProperty(ScanResultStore.WCAG_CRITERIA_PROPERTY).getValues()[0].getString());
+        Node rescanned = store.writeResult(session, "/content/site/en", "[" + contrast + "," + IMAGE_ALT + "]", null, null)
+                .getNode(ScanResultStore.ISSUES_NODE + "/0");
+        assertEquals(fingerprint, rescanned.getProperty(ScanResultStore.FINGERPRINT_PROPERTY).getString());
+    }
+
+    @Test
+    void issueNodesAreCappedPerPage() throws Exception {
+        ScanResultStore store = context.registerInjectActivateService(new ScanResultStoreImpl(),
+                "maxIssuesPerPage", 2, "maxHtmlLength", 5);
+
+        Node result = store.writeResult(session, "/content/site/en", "[" + CONTRAST + "," + IMAGE_ALT + "]", null, null);
+
+        Node issues = result.getNode(ScanResultStore.ISSUES_NODE);
+        assertEquals(2, issues.getNodes().getSize());
+        assertEquals("<h1>H", issues.getNode("0").getProperty(ScanResultStore.HTML_PROPERTY).getString());
+        // Elements beyond the cap are still counted and kept in the result
+        assertEquals(2, new JSONObject(store.readSummary(session, "/content/site/en")).getLong(ScanResultStore.ROLLUP_TOTAL));
+        assertEquals("[" + CONTRAST + "," + IMAGE_ALT + "]", ScanResultCodec.read(result));
+    }
+
+    @Test
+    void rollupsFollowRewrites() throws Exception {
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "," + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/site/de", "[" + CONTRAST + "]", null, null);
+
+        Node siteRollup = session.getNode("/var/a11y-scans/content/site/" + ScanResultStore.ROLLUP_NODE);
+        assertEquals(3, siteRollup.getProperty(ScanResultStore.ROLLUP_TOTAL).getLong());
+        assertEquals(2, siteRollup.getProperty(ScanResultStore.ROLLUP_PAGES).getLong());
+        assertEquals(2, siteRollup.getNode(ScanResultStore.ROLLUP_RULE).getProperty("color-contrast").getLong());
+
+        // The contrast issue on the English page was fixed
+        store.writeResult(session, "/content/site/en", "[" + IMAGE_ALT + "]", null, null);
+
+        JSONObject all = new JSONObject(store.readSummary(session, ""));
+        assertEquals(2, all.getLong(ScanResultStore.ROLLUP_TOTAL));
+        assertEquals(2, all.getLong(ScanResultStore.ROLLUP_PAGES));
+        assertEquals(1, all.getJSONObject(ScanResultStore.ROLLUP_IMPACT).getLong("serious"));
+        assertEquals(1, all.getJSONObject(ScanResultStore.ROLLUP_WCAG_LEVEL).getLong("A"));
+    }
+
+    @Test
+    void foldersAboveTheRollupLevelAreSummedWhenRead() throws Exception {
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "," + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/other/en", "[" + CONTRAST + "]", null, null);
+
+        // Writes to different sites share no folder
+        for (String shared : new String[] { ScanResultStore.ROOT_PATH, ScanResultStore.ROOT_PATH + "/content" }) {
+            assertFalse(session.getNode(shared).hasNode(ScanResultStore.ROLLUP_NODE));
+            assertFalse(session.getNode(shared).hasProperty(ScanResultStore.SUBTREE_MODIFIED_PROPERTY));
+        }
+        assertEquals(3, new JSONObject(store.readSummary(session, "")).getLong(ScanResultStore.ROLLUP_TOTAL));
+        assertEquals(1, new JSONObject(store.readSummary(session, "/content/other")).getLong(ScanResultStore.ROLLUP_TOTAL));
+        assertNull(store.readSummary(session, "/content/none"));
+
+        // Removing a whole site still moves the shared folders' latest change forward
+        long modified = subtreeModified("");
+        assertTrue(store.removeResult(session, "/content/site/en"));
+        assertTrue(subtreeModified("") > modified);
+        assertEquals(1, new JSONObject(store.readSummary(session, "")).getLong(ScanResultStore.ROLLUP_PAGES));
+    }
+
+    @Test
+    void onlyChangedResultsAdvanceTheSubtreeModification() throws Exception {
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "]", null, null);
+        long written = subtreeModified("");
+
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "]", null, null);
+        assertEquals(written, subtreeModified(""));
+
+        // Changes within the same millisecond still get a new value
+        store.writeResult(session, "/content/site/en", "[" + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "]", null, null);
+        assertTrue(subtreeModified("") >= written + 2);
+        assertEquals(subtreeModified(""), subtreeModified("/content/site/en"));
+    }
+
+    private long subtreeModified(String contentPath) throws Exception {
+        return store.getSubtreeModified(session, contentPath).getTimeInMillis();
+    }
+
+    @Test
+    void historyRebuildsEveryRunFromDeltas() throws Exception {
+        // Runs 1 and 3 are keyframes, run 2 is a delta
+        ScanResultStore store = context.registerInjectActivateService(new ScanResultStoreImpl(),
+                "historyKeyframeInterval", 2);
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "," + IMAGE_ALT + "]", "h1", null);
+        store.writeResult(session, "/content/site/en", "[" + IMAGE_ALT + "]", "h2", null);
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "]", "h3", null);
+
+        JSONArray runs = new JSONArray(store.readHistory(session, "/content/site/en"));
+        assertEquals(3, runs.length());
+        assertEquals(0, runs.getJSONObject(1).getLong("added"));
+        assertEquals(1, runs.getJSONObject(1).getLong("removed"));
+
+        assertEquals(3, new JSONArray(store.readRun(session, "/content/site/en", 1)).length());
+        JSONArray second = new JSONArray(store.readRun(session, "/content/site/en", 2));
+        assertEquals(2, second.length());
+        assertEquals("image-alt", second.getJSONObject(0).getString(ScanResultStore.RULE_ID_PROPERTY));
+        JSONArray third = new JSONArray(store.readRun(session, "/content/site/en", 3));
+        assertEquals(1, third.length());
+        assertEquals("color-contrast", third.getJSONObject(0).getString(ScanResultStore.RULE_ID_PROPERTY));
+        assertNull(store.readRun(session, "/content/site/en", 4));
+    }
+
+    @Test
+    void pruningRebasesTheOldestKeptRun() throws Exception {
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "," + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/site/en", "[" + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/site/en", "[" + IMAGE_ALT + "," + CONTRAST + "]", null, null);
+
+        assertEquals(1, store.pruneHistory(session, "/content/site/en", 2, null));
+
+        assertNull(store.readRun(session, "/content/site/en", 1));
+        assertEquals(2, new JSONArray(store.readRun(session, "/content/site/en", 2)).length());
+        assertEquals(3, new JSONArray(store.readRun(session, "/content/site/en", 3)).length());
+        JSONObject rebased = new JSONArray(store.readHistory(session, "/content/site/en")).getJSONObject(0);
+        assertEquals(0, rebased.getLong("added"));
+        assertEquals(0, rebased.getLong("removed"));
+    }
+
+    @Test
+    void removingResultsUpdatesRollupsAndDropsEmptyFolders() throws Exception {
+        store.writeResult(session, "/content/site/en/old", "[" + CONTRAST + "," + IMAGE_ALT + "]", null, null);
+        store.writeResult(session, "/content/site/de", "[" + CONTRAST + "]", null, null);
+
+        assertTrue(store.removeResult(session, "/content/site/en/old"));
+
+        assertFalse(session.nodeExists("/var/a11y-scans/content/site/en"));
+        JSONObject all = new JSONObject(store.readSummary(session, ""));
+        assertEquals(1, all.getLong(ScanResultStore.ROLLUP_TOTAL));
+        assertEquals(1, all.getLong(ScanResultStore.ROLLUP_PAGES));
+        assertFalse(all.getJSONObject(ScanResultStore.ROLLUP_RULE).has("image-alt"));
+        assertFalse(store.removeResult(session, "/content/site/en/old"));
+    }
+
+    @Test
+    void compactResultsReferenceTheRuleDictionary() throws Exception {
+        String contrast = CONTRAST.replace("\"tags\"", "\"help\":\"Elements must meet contrast\",\"tags\"");
+
+        Node result = store.writeResult(session, "/content/site/en", "[" + contrast + "]", null, "4.10.3");
+
+        JSONArray stored = new JSONArray(ScanResultCodec.read(result));
+        assertFalse(stored.getJSONObject(0).has("help"));
+        assertFalse(stored.getJSONObject(0).has("tags"));
+        Node rule = session.getNode(RuleDictionary.ROOT_PATH + "/4.10.3/color-contrast");
+        assertEquals("Elements must meet contrast", rule.getProperty("help").getString());
+        assertEquals("AA", rule.getProperty("wcagLevel").getString());
+
+        JSONObject expanded = new JSONArray(store.readResult(result)).getJSONObject(0);
+        assertEquals("Elements must meet contrast", expanded.getString("help"));
+        assertEquals(2, expanded.getJSONArray("tags").length());
+        assertEquals(1, new JSONObject(store.readSummary(session, ""))
+                .getJSONObject(ScanResultStore.ROLLUP_WCAG_LEVEL).getLong("AA"));
+    }
+
+    @Test
+    void conflictingRuleMetadataStaysInTheResult() throws Exception {
+        String contrast = CONTRAST.replace("\"tags\"", "\"help\":\"Elements must meet contrast\",\"tags\"");
+        String localized = CONTRAST.replace("\"tags\"", "\"help\":\"Les elements doivent etre contrastes\",\"tags\"");
+        store.writeResult(session, "/content/site/en", "[" + contrast + "]", null, "4.10.3");
+
+        Node result = store.writeResult(session, "/content/site/fr", "[" + localized + "]", null, "4.10.3");
+
+        assertEquals("Les elements doivent etre contrastes",
+                new JSONArray(ScanResultCodec.read(result)).getJSONObject(0).getString("help"));
+        assertEquals("Elements must meet contrast",
+                session.getNode(RuleDictionary.ROOT_PATH + "/4.10.3/color-contrast").getProperty("help").getString());
+        assertEquals("Les elements doivent etre contrastes",
+                new JSONArray(store.readResult(result)).getJSONObject(0).getString("help"));
+        JSONObject english = new JSONArray(store.readResult(
+                session.getNode("/var/a11y-scans/content/site/en/" + ScanResultStore.RESULT_NODE))).getJSONObject(0);
+        assertEquals("Elements must meet contrast", english.getString("help"));
+    }
+
+    @Test
+    void submittedResultsAreSavedInBatchesByTheWriter() throws Exception {
+        ScanResultStoreImpl store = context.registerInjectActivateService(new ScanResultStoreImpl(),
+                "writeBatchSize", 2);
+        // The writer uses its own session
+        session.save();
+        List<CompletableFuture<Void>> submitted = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            submitted.add(store.submitResult("/content/site/page" + i, "[" + CONTRAST + "]", null, null));
+        }
+
+        for (CompletableFuture<Void> future : submitted) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        session.refresh(false);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(session.nodeExists("/var/a11y-scans/content/site/page" + i + "/" + ScanResultStore.RESULT_NODE));
+        }
+        assertEquals(5, new JSONObject(store.readSummary(session, "")).getLong(ScanResultStore.ROLLUP_PAGES));
+    }
+
+    @Test
+    void storeResultWaitsForTheWriter() throws Exception {
+        session.save();
+
+        store.storeResult("/content/site/en", "[" + IMAGE_ALT + "]", "hash", null);
+
+        session.refresh(false);
+        Node result = session.getNode("/var/a11y-scans/content/site/en/" + ScanResultStore.RESULT_NODE);
+        assertEquals("[" + IMAGE_ALT + "]", ScanResultCodec.read(result));
+    }
+
+    @Test
+    void coalescingKeepsTheLaterResultOfAPage() throws Exception {
+        PendingWrite first = new PendingWrite("/content/site/en", "[" + CONTRAST + "]", null, null);
+        PendingWrite other = new PendingWrite("/content/site/de", "[" + CONTRAST + "]", null, null);
+        PendingWrite second = new PendingWrite("/content/site/en", "[" + IMAGE_ALT + "]", null, null);
+
+        List<PendingWrite> coalesced = ScanResultStoreImpl.coalesce(Arrays.asList(first, other, second));
+        assertEquals(Arrays.asList(other, second), coalesced);
+
+        // The writer uses its own session
+        session.save();
+        ((ScanResultStoreImpl) store).commit(coalesced);
+        first.future.get();
+        assertEquals("[" + IMAGE_ALT + "]",
+                ScanResultCodec.read(session.getNode("/var/a11y-scans/content/site/en/" + ScanResultStore.RESULT_NODE)));
+    }
+
+    @Test
+    void changesKeepTheirPlaceAmongCoalescedResults() throws Exception {
+        PendingWrite first = new PendingWrite("/content/site/en", "[" + CONTRAST + "]", null, null);
+        PendingWrite removal = new PendingWrite("/content/site/en", s -> store.removeResult(s, "/content/site/en"));
+        PendingWrite second = new PendingWrite("/content/site/en", "[" + IMAGE_ALT + "]", null, null);
+
+        List<PendingWrite> coalesced = ScanResultStoreImpl.coalesce(Arrays.asList(first, removal, second));
+
+        assertEquals(Arrays.asList(first, removal, second), coalesced);
+    }
+
+    @Test
+    void submittedChangesAreSavedByTheWriter() throws Exception {
+        store.writeResult(session, "/content/site/en", "[" + CONTRAST + "]", null, null);
+        session.save();
+
+        CompletableFuture<Void> stored = store.submitResult("/content/site/de", "[" + IMAGE_ALT + "]", null, null);
+        CompletableFuture<Boolean> removed = store.submitChange("/content/site/en",
+                writerSession -> store.removeResult(writerSession, "/content/site/en"));
+
+        stored.get(10, TimeUnit.SECONDS);
+        assertTrue(removed.get(10, TimeUnit.SECONDS));
+        session.refresh(false);
+        assertFalse(session.nodeExists("/var/a11y-scans/content/site/en"));
+        assertEquals(1, new JSONObject(store.readSummary(session, "")).getLong(ScanResultStore.ROLLUP_PAGES));
+    }
+
+    @Test
+    void aResultThatCannotBeWrittenFailsAlone() throws Exception {
+        RuleDictionary broken = mock(RuleDictionary.class);
+        when(broken.compact(any(), eq("broken"), any())).thenThrow(new RepositoryException("Dictionary unavailable"));
+        context.registerService(RuleDictionary.class, broken, Constants.SERVICE_RANKING, Integer.MAX_VALUE);
+        ScanResultStoreImpl store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        PendingWrite failing = new PendingWrite("/content/site/en", "[" + CONTRAST + "]", null, "broken");
+        PendingWrite saved = new PendingWrite("/content/site/de", "[" + CONTRAST + "]", null, null);
+        // The writer uses its own session
+        session.save();
+
+        store.commit(Arrays.asList(failing, saved));
+
+        assertTrue(failing.future.isCompletedExceptionally());
+        saved.future.get();
+        assertTrue(session.nodeExists("/var/a11y-scans/content/site/de/" + ScanResultStore.RESULT_NODE));
+    }
+
+    @Test
+    void resultsSubmittedAfterStoppingFail() {
+        ((ScanResultStoreImpl) store).deactivate();
+
+        CompletableFuture<Void> submitted = store.submitResult("/content/site/en", "[" + CONTRAST + "]", null, null);
+
+        assertTrue(submitted.isCompletedExceptionally());
+        assertThrows(RepositoryException.class,
+                () -> store.storeResult("/content/site/en", "[" + CONTRAST + "]", null, null));
+    }
+}
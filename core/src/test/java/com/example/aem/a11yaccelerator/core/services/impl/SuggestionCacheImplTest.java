@@ -0,0 +1,74 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@ExtendWith(AemContextExtension.class)
+class SuggestionCacheImplTest {
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private SuggestionCacheImpl cache;
+    private Session session;
+
+    @BeforeEach
+    void setup() throws Exception {
+        cache = context.registerInjectActivateService(new SuggestionCacheImpl(), "maxAgeDays", 30);
+        session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+    }
+
+    @Test
+    void keyIgnoresFormattingAndGeneratedValues() {
+        String header = "<div id=\"teaser-4f0a8a3e5c\" data-cmp-data-layer='{\"teaser-4f0a8a3e5c\":{}}'>\n"
+                + "  <img src=\"/logo.png\">\n</div>";
+        String otherPage = "<div id=\"teaser-91c2d7e0b4\" data-cmp-data-layer='{\"teaser-91c2d7e0b4\":{}}'> "
+                + "<img src=\"/logo.png\"> </div>";
+
+        assertEquals(SuggestionCacheImpl.key("image-alt", header), SuggestionCacheImpl.key("image-alt", otherPage));
+        assertNotEquals(SuggestionCacheImpl.key("image-alt", header), SuggestionCacheImpl.key("region", header));
+        assertNotEquals(SuggestionCacheImpl.key("image-alt", header),
+                SuggestionCacheImpl.key("image-alt", header.replace("logo", "banner")));
+    }
+
+    @Test
+    void onlyIdValuesLoseTheirGeneratedSuffix() {
+        String labelled = "<button aria-labelledby=\"title-4f0a8a3e5c\"><img src=\"/img/4f0a8a3e5c.png\"></button>";
+
+        assertEquals(SuggestionCacheImpl.key("button-name", labelled),
+                SuggestionCacheImpl.key("button-name", labelled.replace("title-4f0a8a3e5c", "title-91c2d7e0b4")));
+        assertNotEquals(SuggestionCacheImpl.key("image-alt", "<img src=\"/img/logo-4f0a8a3e5c.png\">"),
+                SuggestionCacheImpl.key("image-alt", "<img src=\"/img/logo-91c2d7e0b4.png\">"));
+    }
+
+    @Test
+    void persistedEntriesExpire() throws Exception {
+        String key = SuggestionCacheImpl.key("image-alt", "<img src=\"/logo.png\">");
+        cache.store(session, "image-alt", key,
+                new SuggestionCacheImpl.CachedSuggestion("Add an alt attribute.", System.currentTimeMillis()));
+
+        assertEquals("Add an alt attribute.", cache.load(session, "image-alt", key).suggestion);
+        assertNull(cache.load(session, "region", SuggestionCacheImpl.key("region", "<div>")));
+
+        long expired = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(31);
+        cache.store(session, "image-alt", key, new SuggestionCacheImpl.CachedSuggestion("Old", expired));
+        assertNull(cache.load(session, "image-alt", key));
+        assertEquals(Collections.singletonList(SuggestionCache.ROOT_PATH + "/image-alt/" + key.substring(0, 2)
+                + "/" + key), cache.findExpired(session));
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionCache;
+import com.example.aem.a11yaccelerator.core.services.SuggestionProvider;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import com.example.aem.a11yaccelerator.core.services.SuggestionService;
+import com.example.aem.a11yaccelerator.core.services.SuggestionStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class SuggestionServiceImplTest {
+
+    private final AemContext context = new AemContext();
+
+    @BeforeEach
+    void setUp() {
+        SuggestionProvider remote = mock(SuggestionProvider.class);
+        when(remote.getName()).thenReturn(ChatCompletionSuggestionProvider.NAME);
+        when(remote.isCacheable()).thenReturn(true);
+        context.registerService(SuggestionProvider.class, remote);
+    }
+
+    @Test
+    void batchLooksUpEquivalentItemsOnce() {
+        SuggestionCache cache = mock(SuggestionCache.class);
+        when(cache.get(anyString(), anyString())).thenReturn("Add an alt attribute.");
+        context.registerService(SuggestionCache.class, cache);
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl());
+
+        List<Suggestion> suggestions = service.suggestAll(Arrays.asList(
+                new SuggestionRequest("image-alt", "<img id=\"logo-4f0a8a3e5c\" src=\"/logo.png\">", "help"),
+                new SuggestionRequest("region", "<div>", "help"),
+                new SuggestionRequest("image-alt", "<img  id=\"logo-91c2d7e0b4\" src=\"/logo.png\">", "help")));
+
+        assertEquals(3, suggestions.size());
+        assertEquals("region", suggestions.get(1).getRuleId());
+        assertTrue(suggestions.get(2).isCached());
+        verify(cache, times(2)).get(anyString(), anyString());
+    }
+
+    @Test
+    void oversizedBatchIsRejected() {
+        context.registerService(SuggestionCache.class, mock(SuggestionCache.class));
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl(),
+                "maxBatchSize", 2);
+
+        assertThrows(IllegalArgumentException.class, () -> service.suggestAll(
+                Collections.nCopies(3, new SuggestionRequest("region", "<div>", ""))));
+    }
+
+    @Test
+    void cachedSuggestionStreamsAsOneFinishedChunk() throws InterruptedException {
+        SuggestionCache cache = mock(SuggestionCache.class);
+        when(cache.get(anyString(), anyString())).thenReturn("Add an alt attribute.");
+        context.registerService(SuggestionCache.class, cache);
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl());
+
+        SuggestionStream stream = service.stream(new SuggestionRequest("image-alt", "<img src=\"/logo.png\">", ""));
+
+        assertSame(stream, service.getStream(stream.getId()));
+        assertEquals(Collections.singletonList("Add an alt attribute."), stream.await(0, 0));
+        assertTrue(stream.await(1, 0).isEmpty());
+        assertTrue(stream.getResult().isCached());
+    }
+
+    @Test
+    void localProviderAnswersWithoutTheCache() {
+        SuggestionCache cache = mock(SuggestionCache.class);
+        context.registerService(SuggestionCache.class, cache);
+        context.registerInjectActivateService(new TemplateSuggestionProvider());
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl(),
+                "provider", "local");
+
+        Suggestion suggestion = service.suggest(new SuggestionRequest("image-alt", "<img src=\"/logo.png\">",
+                "Images must have alternate text"));
+
+        assertFalse(suggestion.isFailed());
+        assertFalse(suggestion.isCached());
+        assertTrue(suggestion.getText().contains("alt attribute"));
+        verify(cache, never()).get(anyString(), anyString());
+        verify(cache, never()).put(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void streamsAndWaitingCallersShareOneProviderCall() throws Exception {
+        context.registerService(SuggestionCache.class, mock(SuggestionCache.class));
+        CountDownLatch release = new CountDownLatch(1);
+        SuggestionProvider provider = blockingProvider(release);
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl(),
+                "provider", "stub");
+
+        SuggestionStream stream = service.stream(new SuggestionRequest("image-alt", "<img src=\"/a.png\">", ""));
+        verify(provider, timeout(5000)).suggest(any(), any());
+        CompletableFuture<Suggestion> answer = new CompletableFuture<>();
+        Thread waiting = new Thread(() -> answer.complete(
+                service.suggest(new SuggestionRequest("image-alt", "<img  src=\"/a.png\">", ""))));
+        waiting.start();
+        while (waiting.isAlive() && waiting.getState() != Thread.State.WAITING) {
+            Thread.sleep(10);
+        }
+
+        assertSame(stream, service.stream(new SuggestionRequest("image-alt", "<img src=\"/a.png\">", "")));
+        release.countDown();
+
+        assertEquals("Add an alt attribute.", answer.get(5, TimeUnit.SECONDS).getText());
+        assertEquals(Arrays.asList("Add an alt ", "attribute."), stream.await(0, 5000));
+        verify(provider, times(1)).suggest(any(), any());
+    }
+
+    @Test
+    void callsBeyondTheQueueAreRejected() throws Exception {
+        context.registerService(SuggestionCache.class, mock(SuggestionCache.class));
+        CountDownLatch release = new CountDownLatch(1);
+        blockingProvider(release);
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl(),
+                "provider", "stub", "maxConcurrentRequests", 1, "maxQueuedRequests", 1);
+        try {
+            SuggestionStream running = service.stream(new SuggestionRequest("image-alt", "<img>", ""));
+            SuggestionStream queued = service.stream(new SuggestionRequest("region", "<div>", ""));
+            SuggestionStream rejected = service.stream(new SuggestionRequest("list", "<ul>", ""));
+
+            assertEquals(503, rejected.getResult().getStatus());
+            assertNull(running.getResult());
+            assertNull(queued.getResult());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void batchItemsNotAnsweredInTimeAreReportedAsTimedOut() {
+        SuggestionCache cache = mock(SuggestionCache.class);
+        when(cache.get(eq("region"), anyString())).thenReturn("Put the content in a landmark.");
+        context.registerService(SuggestionCache.class, cache);
+        CountDownLatch release = new CountDownLatch(1);
+        blockingProvider(release);
+        SuggestionService service = context.registerInjectActivateService(new SuggestionServiceImpl(),
+                "provider", "stub", "batchTimeoutSeconds", 1);
+        try {
+            List<Suggestion> suggestions = service.suggestAll(Arrays.asList(
+                    new SuggestionRequest("region", "<div>", ""),
+                    new SuggestionRequest("image-alt", "<img>", "")));
+
+            assertEquals("Put the content in a landmark.", suggestions.get(0).getText());
+            assertEquals(504, suggestions.get(1).getStatus());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Registers a provider "stub" that writes half of its answer and then waits for the latch.
+     */
+    private SuggestionProvider blockingProvider(CountDownLatch release) {
+        SuggestionProvider provider = mock(SuggestionProvider.class);
+        when(provider.getName()).thenReturn("stub");
+        when(provider.isCacheable()).thenReturn(true);
+        when(provider.suggest(any(), any())).thenAnswer(invocation -> {
+            SuggestionRequest request = invocation.getArgument(0);
+            Consumer<String> onToken = invocation.getArgument(1);
+            onToken.accept("Add an alt ");
+            release.await();
+            onToken.accept("attribute.");
+            return Suggestion.of(request.getRuleId(), "Add an alt attribute.", false);
+        });
+        context.registerService(SuggestionProvider.class, provider);
+        return provider;
+    }
+}
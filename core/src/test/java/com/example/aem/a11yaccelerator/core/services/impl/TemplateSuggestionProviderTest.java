@@ -0,0 +1,52 @@
+package com.example.aem.a11yaccelerator.core.services.impl;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionRequest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class TemplateSuggestionProviderTest {
+
+    private final AemContext context = new AemContext();
+
+    @Test
+    void writesTheSameSuggestionWhetherStreamedOrNot() {
+        TemplateSuggestionProvider provider = context.registerInjectActivateService(new TemplateSuggestionProvider());
+        SuggestionRequest request = new SuggestionRequest("button-name", "<button><svg></svg></button>",
+                "Buttons must have discernible text");
+
+        List<String> tokens = new ArrayList<>();
+        Suggestion streamed = provider.suggest(request, tokens::add);
+        Suggestion whole = provider.suggest(request, null);
+
+        assertEquals(whole.getText(), streamed.getText());
+        assertEquals(whole.getText(), String.join("", tokens));
+        assertTrue(tokens.size() > 1);
+        assertTrue(whole.getText().contains("aria-label"));
+        assertTrue(whole.getText().contains("<button><svg></svg></button>"));
+    }
+
+    @Test
+    void configuredFixReplacesCatalogueAndUnknownRulesUseHelpText() {
+        TemplateSuggestionProvider provider = context.registerInjectActivateService(new TemplateSuggestionProvider(),
+                "fixes", new String[] { "image-alt=Set the alt text in the image component's dialog." });
+
+        String imageAlt = provider.suggest(new SuggestionRequest("image-alt", "<img>", ""), null).getText();
+        String unknown = provider.suggest(new SuggestionRequest("custom-rule", "<div>", "Widgets must be labelled"),
+                null).getText();
+
+        assertTrue(imageAlt.startsWith("Fix: Set the alt text in the image component's dialog."));
+        assertTrue(imageAlt.contains("Why: Screen readers read the alt text"));
+        assertTrue(unknown.startsWith("Issue (custom-rule): Widgets must be labelled"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import java.util.Collections;
+
+import com.example.aem.a11yaccelerator.core.services.Suggestion;
+import com.example.aem.a11yaccelerator.core.services.SuggestionService;
+import com.example.aem.a11yaccelerator.core.services.SuggestionStream;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class A11yAIStreamServletTest {
+
+    private final AemContext context = new AemContext();
+
+    @Test
+    void reconnectingReaderResumesAfterTheLastEventId() throws Exception {
+        SuggestionStream stream = new SuggestionStream("s1", "image-alt");
+        stream.append("Add ");
+        stream.append("an alt ");
+        stream.append("attribute.");
+        stream.complete(Suggestion.of("image-alt", "Add an alt attribute.", false));
+        SuggestionService service = mock(SuggestionService.class);
+        when(service.getStream("s1")).thenReturn(stream);
+        context.registerService(SuggestionService.class, service);
+        A11yAIStreamServlet servlet = context.registerInjectActivateService(new A11yAIStreamServlet());
+
+        MockSlingHttpServletRequest request = context.request();
+        request.setParameterMap(Collections.singletonMap("id", "s1"));
+        request.addHeader("Last-Event-ID", "1");
+        MockSlingHttpServletResponse response = context.response();
+        servlet.doGet(request, response);
+
+        String events = response.getOutputAsString();
+        assertFalse(events.contains("\"Add \""));
+        assertTrue(events.contains("id: 2\nevent: token\ndata: \"an alt \""));
+        assertTrue(events.contains("id: 3\nevent: token\ndata: \"attribute.\""));
+        assertTrue(events.contains("event: done"));
+    }
+
+    @Test
+    void unknownStreamIsNotFound() throws Exception {
+        context.registerService(SuggestionService.class, mock(SuggestionService.class));
+        A11yAIStreamServlet servlet = context.registerInjectActivateService(new A11yAIStreamServlet());
+
+        context.request().setParameterMap(Collections.singletonMap("id", "expired"));
+        servlet.doGet(context.request(), context.response());
+
+        assertEquals(404, context.response().getStatus());
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.impl.RuleDictionaryImpl;
+import com.example.aem.a11yaccelerator.core.services.impl.ScanResultStoreImpl;
+import com.example.aem.a11yaccelerator.core.utils.ScanResultCodec;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class ScanResultExportServletTest {
+
+    private static final String IMAGE_ALT = "[{\"id\":\"image-alt\",\"impact\":\"critical\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2a\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"}]}]";
+    private static final String REGION = "[{\"id\":\"region\",\"impact\":\"moderate\",\"type\":\"violation\","
+            + "\"tags\":[],\"nodes\":[{\"target\":[\"div\"],\"html\":\"<div>\"}]}]";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private ScanResultExportServlet servlet;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        ScanResultStore store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        servlet = context.registerInjectActivateService(new ScanResultExportServlet());
+        Session session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+        store.writeResult(session, "/content/site/en", IMAGE_ALT, null, null);
+        store.writeResult(session, "/content/site/de", REGION, null, null);
+        // Stored before rollups existed, so the de folder does not count it; only a traversal that
+        // enters de finds it
+        Node uncounted = session.getNode(ScanResultStore.ROOT_PATH + "/content/site/de")
+                .addNode("legacy", "sling:Folder").addNode(ScanResultStore.RESULT_NODE, "nt:unstructured");
+        uncounted.setProperty(ScanResultCodec.LEGACY_PROPERTY, IMAGE_ALT);
+        session.save();
+    }
+
+    @Test
+    void exportsEveryResultWithoutAFilter() throws Exception {
+        String csv = export(null);
+
+        assertTrue(csv.contains("/content/site/en,image-alt"));
+        assertTrue(csv.contains("/content/site/de,region"));
+        assertTrue(csv.contains("/content/site/de/legacy,image-alt"));
+    }
+
+    @Test
+    void filteredExportSkipsSubtreesWithoutMatches() throws Exception {
+        String csv = export("critical");
+
+        assertTrue(csv.contains("/content/site/en,image-alt"));
+        assertFalse(csv.contains("/content/site/de"));
+    }
+
+    private String export(String impact) throws Exception {
+        Map<String, Object> params = new HashMap<>();
+        params.put("pagePath", "/content/site");
+        params.put("format", "csv");
+        if (impact != null) {
+            params.put("impact", impact);
+        }
+        context.request().setParameterMap(params);
+        MockSlingHttpServletResponse response = context.response();
+        servlet.doGet(context.request(), response);
+        assertEquals(200, response.getStatus());
+        return response.getOutputAsString();
+    }
+}
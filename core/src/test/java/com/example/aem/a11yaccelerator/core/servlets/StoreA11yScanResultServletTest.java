@@ -0,0 +1,130 @@
+package com.example.aem.a11yaccelerator.core.servlets;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.jcr.RepositoryException;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(AemContextExtension.class)
+class StoreA11yScanResultServletTest {
+
+    private final AemContext context = new AemContext();
+
+    @Test
+    void postReportsTheOutcomeOfEveryPage() throws Exception {
+        ScanResultStore store = mock(ScanResultStore.class);
+        CompletableFuture<Void> conflict = new CompletableFuture<>();
+        conflict.completeExceptionally(new RepositoryException("Conflicting change"));
+        when(store.submitResult(eq("/content/site/en"), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+        when(store.submitResult(eq("/content/site/de"), anyString(), any(), any())).thenReturn(conflict);
+        context.registerService(ScanResultStore.class, store);
+        StoreA11yScanResultServlet servlet = context.registerInjectActivateService(new StoreA11yScanResultServlet());
+
+        MockSlingHttpServletRequest request = context.request();
+        request.setMethod("POST");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(("{\"pages\":[{\"pagePath\":\"/content/site/en\",\"scanResult\":[]},"
+                + "{\"pagePath\":\"/content/site/de\",\"scanResult\":[]},"
+                + "{\"pagePath\":\"/content/site/fr\"}]}").getBytes(StandardCharsets.UTF_8));
+        MockSlingHttpServletResponse response = context.response();
+        servlet.doPost(request, response);
+
+        assertEquals(200, response.getStatus());
+        JSONObject summary = new JSONObject(response.getOutputAsString());
+        assertEquals(1, summary.getInt("saved"));
+        assertEquals(1, summary.getInt("skipped"));
+        assertEquals(1, summary.getInt("failed"));
+        Map<String, JSONObject> pages = new HashMap<>();
+        JSONArray entries = summary.getJSONArray("pages");
+        for (int i = 0; i < entries.length(); i++) {
+            pages.put(entries.getJSONObject(i).getString("pagePath"), entries.getJSONObject(i));
+        }
+        assertEquals("saved", pages.get("/content/site/en").getString("status"));
+        assertEquals("failed", pages.get("/content/site/de").getString("status"));
+        assertEquals("Conflicting change", pages.get("/content/site/de").getString("error"));
+        assertEquals("skipped", pages.get("/content/site/fr").getString("status"));
+    }
+
+    @Test
+    void pagesReadBeforeAMalformedPartAreStillStored() throws Exception {
+        ScanResultStore store = mock(ScanResultStore.class);
+        when(store.submitResult(anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        MockSlingHttpServletResponse response = post(store,
+                "{\"pages\":[{\"pagePath\":\"/content/site/en\",\"scanResult\":[]},{\"pagePath\":");
+
+        assertEquals(400, response.getStatus());
+        JSONObject summary = new JSONObject(response.getOutputAsString());
+        assertTrue(summary.getString("error").startsWith("Invalid JSON"));
+        assertEquals(1, summary.getInt("saved"));
+        verify(store).submitResult(eq("/content/site/en"), eq("[]"), any(), any());
+    }
+
+    @Test
+    void aRepeatedPageIsReportedOnceWithItsLastResult() throws Exception {
+        ScanResultStore store = mock(ScanResultStore.class);
+        when(store.submitResult(anyString(), anyString(), any(), any()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        MockSlingHttpServletResponse response = post(store, "{\"axe\":{\"skipped\":[1]},\"pages\":["
+                + "{\"pagePath\":\"/content/site/en\",\"scanResult\":[]},"
+                + "{\"pagePath\":\"/content/site/en\",\"scanResult\":[{\"id\":\"region\"}]}]}");
+
+        assertEquals(200, response.getStatus());
+        JSONObject summary = new JSONObject(response.getOutputAsString());
+        assertEquals(1, summary.getInt("saved"));
+        assertEquals(1, summary.getJSONArray("pages").length());
+        InOrder order = inOrder(store);
+        order.verify(store).submitResult(eq("/content/site/en"), eq("[]"), any(), any());
+        order.verify(store).submitResult(eq("/content/site/en"), eq("[{\"id\":\"region\"}]"), any(), any());
+    }
+
+    @Test
+    void uploadWithoutPagesIsRejected() throws Exception {
+        ScanResultStore store = mock(ScanResultStore.class);
+
+        assertEquals(400, post(store, "{\"results\":[]}").getStatus());
+        assertEquals(400, post(store, "").getStatus());
+        verifyNoInteractions(store);
+    }
+
+    private MockSlingHttpServletResponse post(ScanResultStore store, String body) throws Exception {
+        context.registerService(ScanResultStore.class, store);
+        StoreA11yScanResultServlet servlet = context.registerInjectActivateService(new StoreA11yScanResultServlet());
+        MockSlingHttpServletRequest request = new MockSlingHttpServletRequest(context.resourceResolver(),
+                context.bundleContext());
+        request.setMethod("POST");
+        request.setCharacterEncoding("UTF-8");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockSlingHttpServletResponse response = new MockSlingHttpServletResponse();
+        servlet.doPost(request, response);
+        return response;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.util.Arrays;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AxeResultsTest {
+
+    @Test
+    void wcagLevelFromTags() {
+        assertEquals("AA", AxeResults.wcagLevel(new JSONArray(Arrays.asList("cat.color", "wcag2aa", "wcag143"))));
+        assertEquals("A", AxeResults.wcagLevel(new JSONArray(Arrays.asList("wcag21aa", "wcag2a"))));
+        assertEquals(AxeResults.BEST_PRACTICE, AxeResults.wcagLevel(new JSONArray(Arrays.asList("best-practice"))));
+        assertEquals(AxeResults.BEST_PRACTICE, AxeResults.wcagLevel(null));
+    }
+
+    @Test
+    void wcagCriteriaFromTags() {
+        assertEquals(Arrays.asList("1.4.3", "1.4.12"),
+                AxeResults.wcagCriteria(new JSONArray(Arrays.asList("wcag2aa", "wcag143", "wcag1412"))));
+    }
+
+    @Test
+    void targetJoinsFrameAndShadowSelectors() throws Exception {
+        assertEquals("#main > img", AxeResults.target(new JSONObject("{\"target\":[\"#main > img\"]}")));
+        // Quotes in shadow-root selectors are dropped, which keeps fingerprints of stored issues stable
+        assertEquals("iframe #host my-el input[name=\\q\\]", AxeResults.target(new JSONObject(
+                "{\"target\":[\"iframe\",[\"#host\",\"my-el input[name=\\\"q\\\"]\"]]}")));
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class ContentHashTest {
+
+    @Test
+    void formattingDifferencesHashTheSame() {
+        String a = "<html>\n  <body><!-- rendered 10:15 --><p>Hi</p></body>\n</html>";
+        String b = "<html> <body><p>Hi</p></body> </html>";
+
+        assertEquals(ContentHash.sha256(ContentHash.normalizeHtml(a), "4.9.1"),
+                ContentHash.sha256(ContentHash.normalizeHtml(b), "4.9.1"));
+    }
+
+    @Test
+    void axeVersionIsPartOfTheKey() {
+        String html = ContentHash.normalizeHtml("<p>Hi</p>");
+
+        assertNotEquals(ContentHash.sha256(html, "4.9.1"), ContentHash.sha256(html, "4.10.2"));
+        assertNotEquals(ContentHash.sha256("ab", "c"), ContentHash.sha256("a", "bc"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.util.Calendar;
+
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletRequest;
+import org.apache.sling.testing.mock.sling.servlet.MockSlingHttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(AemContextExtension.class)
+class HttpCachingTest {
+
+    @Test
+    void matchingEtagIsNotModified(AemContext context) {
+        Calendar modified = Calendar.getInstance();
+        MockSlingHttpServletResponse first = context.response();
+
+        assertFalse(HttpCaching.notModified(context.request(), first, modified));
+        String etag = first.getHeader("ETag");
+
+        MockSlingHttpServletRequest revalidation = new MockSlingHttpServletRequest(context.bundleContext());
+        revalidation.addHeader("If-None-Match", etag);
+        MockSlingHttpServletResponse second = new MockSlingHttpServletResponse();
+        assertTrue(HttpCaching.notModified(revalidation, second, modified));
+        assertEquals(304, second.getStatus());
+
+        Calendar later = (Calendar) modified.clone();
+        later.add(Calendar.SECOND, 5);
+        assertFalse(HttpCaching.notModified(revalidation, new MockSlingHttpServletResponse(), later));
+    }
+
+    @Test
+    void changesWithinOneSecondGetDifferentEtags(AemContext context) {
+        Calendar modified = Calendar.getInstance();
+        modified.set(Calendar.MILLISECOND, 100);
+        Calendar changed = (Calendar) modified.clone();
+        changed.set(Calendar.MILLISECOND, 101);
+        MockSlingHttpServletResponse first = context.response();
+        HttpCaching.notModified(context.request(), first, modified);
+
+        MockSlingHttpServletRequest revalidation = new MockSlingHttpServletRequest(context.bundleContext());
+        revalidation.addHeader("If-None-Match", first.getHeader("ETag"));
+        MockSlingHttpServletResponse second = new MockSlingHttpServletResponse();
+        assertFalse(HttpCaching.notModified(revalidation, second, changed));
+        assertEquals(first.getHeader("Last-Modified"), second.getHeader("Last-Modified"));
+    }
+
+    @Test
+    void ifModifiedSinceIsUsedWithoutEtag(AemContext context) {
+        Calendar modified = Calendar.getInstance();
+        MockSlingHttpServletRequest request = context.request();
+        request.addDateHeader("If-Modified-Since", modified.getTimeInMillis());
+
+        assertTrue(HttpCaching.notModified(request, context.response(), modified));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReportWriterTest {
+
+    @Test
+    void csvQuotesFieldsAndNeutralisesFormulas() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter csv = ReportWriter.csv(out, "Rule ID", "HTML Snippet");
+        csv.row("image-alt", "<img src=\"a.png\">, missing alt");
+        csv.row("=HYPERLINK(\"x\")", null);
+        csv.finish();
+
+        assertEquals("\uFEFFRule ID,HTML Snippet\r\n"
+                + "image-alt,\"<img src=\"\"a.png\"\">, missing alt\"\r\n"
+                + "\"'=HYPERLINK(\"\"x\"\")\",\r\n", new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void xlsxContinuesOnNewSheetAtRowLimit() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ReportWriter xlsx = new ReportWriter.Xlsx(out, "Issues", new String[] { "Rule ID", "HTML Snippet" }, 3);
+        xlsx.row("image-alt", "<img src=\"a.png\">");
+        xlsx.row("label", "a & b\u0001");
+        xlsx.row("region", "");
+        xlsx.finish();
+
+        Map<String, String> parts = unzip(out.toByteArray());
+        assertTrue(parts.containsKey("[Content_Types].xml"));
+        assertTrue(parts.containsKey("xl/styles.xml"));
+        String first = parts.get("xl/worksheets/sheet1.xml");
+        assertTrue(first.contains("&lt;img src=\"a.png\"&gt;"));
+        assertTrue(first.contains(">a &amp; b</t>"));
+        assertFalse(first.contains("region"));
+        // The continuation repeats the header
+        String second = parts.get("xl/worksheets/sheet2.xml");
+        assertTrue(second.contains(">Rule ID</t>"));
+        assertTrue(second.contains(">region</t>"));
+        assertTrue(parts.get("xl/workbook.xml").contains("<sheet name=\"Issues 2\" sheetId=\"2\" r:id=\"rId2\"/>"));
+        assertTrue(parts.get("xl/_rels/workbook.xml.rels").contains("Target=\"worksheets/sheet2.xml\""));
+    }
+
+    private static Map<String, String> unzip(byte[] bytes) throws IOException {
+        Map<String, String> parts = new HashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                ByteArrayOutputStream content = new ByteArrayOutputStream();
+                byte[] buffer = new byte[4096];
+                int read;
+                while ((read = zip.read(buffer)) != -1) {
+                    content.write(buffer, 0, read);
+                }
+                parts.put(entry.getName(), new String(content.toByteArray(), StandardCharsets.UTF_8));
+            }
+        }
+        return parts;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScanResultFilterTest {
+
+    private static final String RESULT = "[{\"id\":\"image-alt\",\"impact\":\"critical\"},"
+            + "{\"id\":\"region\",\"impact\":\"moderate\"},{\"id\":\"list\",\"impact\":null}]";
+
+    @Test
+    void acceptsRepeatedAndCommaSeparatedValues() throws Exception {
+        ScanResultFilter filter = ScanResultFilter.of(new String[] {"critical, moderate", "serious"}, null);
+
+        JSONArray matching = new JSONArray(filter.apply(RESULT));
+        assertEquals(2, matching.length());
+        assertEquals("image-alt", matching.getJSONObject(0).getString("id"));
+        assertEquals("region", matching.getJSONObject(1).getString("id"));
+    }
+
+    @Test
+    void combinesImpactsAndRuleIds() throws Exception {
+        ScanResultFilter filter = ScanResultFilter.of(new String[] {"critical"}, new String[] {"region"});
+
+        assertNull(filter.apply(RESULT));
+        assertFalse(filter.matches(new JSONObject("{\"id\":\"region\",\"impact\":\"moderate\"}")));
+    }
+
+    @Test
+    void rulesWithoutAnImpactCountAsMinor() throws Exception {
+        ScanResultFilter filter = ScanResultFilter.of(new String[] {"minor"}, null);
+
+        assertTrue(filter.matches(new JSONObject("{\"id\":\"list\",\"impact\":null}")));
+        assertTrue(filter.matches(new JSONObject("{\"id\":\"list\"}")));
+        assertEquals(1, new JSONArray(filter.apply(RESULT)).length());
+    }
+
+    @Test
+    void blankValuesLeaveTheFilterEmpty() {
+        assertTrue(ScanResultFilter.of(new String[] {" , "}, null).isEmpty());
+        assertTrue(ScanResultFilter.of(null, new String[0]).isEmpty());
+    }
+}
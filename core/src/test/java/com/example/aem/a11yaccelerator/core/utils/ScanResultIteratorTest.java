@@ -0,0 +1,95 @@
+package com.example.aem.a11yaccelerator.core.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.jcr.Node;
+import javax.jcr.Session;
+
+import com.example.aem.a11yaccelerator.core.services.ScanResultStore;
+import com.example.aem.a11yaccelerator.core.services.impl.RuleDictionaryImpl;
+import com.example.aem.a11yaccelerator.core.services.impl.ScanResultStoreImpl;
+import org.apache.sling.testing.mock.sling.ResourceResolverType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import io.wcm.testing.mock.aem.junit5.AemContext;
+import io.wcm.testing.mock.aem.junit5.AemContextExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(AemContextExtension.class)
+class ScanResultIteratorTest {
+
+    private static final String IMAGE_ALT = "[{\"id\":\"image-alt\",\"impact\":\"critical\",\"type\":\"violation\","
+            + "\"tags\":[\"wcag2a\"],\"nodes\":[{\"target\":[\"img\"],\"html\":\"<img src=a.png>\"}]}]";
+    private static final String REGION = "[{\"id\":\"region\",\"impact\":\"moderate\",\"type\":\"violation\","
+            + "\"tags\":[],\"nodes\":[{\"target\":[\"div\"],\"html\":\"<div>\"}]}]";
+
+    private final AemContext context = new AemContext(ResourceResolverType.JCR_MOCK);
+
+    private Session session;
+    private Node root;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        context.registerInjectActivateService(new RuleDictionaryImpl());
+        ScanResultStore store = context.registerInjectActivateService(new ScanResultStoreImpl());
+        session = context.resourceResolver().adaptTo(Session.class);
+        session.getRootNode().addNode("var", "nt:unstructured");
+        store.writeResult(session, "/content/site/en", IMAGE_ALT, null, null);
+        store.writeResult(session, "/content/site/en/about", REGION, null, null);
+        store.writeResult(session, "/content/site/de", REGION, null, null);
+        store.writeResult(session, "/content/other/fr", IMAGE_ALT, null, null);
+        session.save();
+        root = session.getNode(ScanResultStore.ROOT_PATH);
+    }
+
+    @Test
+    void visitsPagesBeforeTheirChildrenInChildOrder() throws Exception {
+        assertEquals(Arrays.asList("/content/site/en", "/content/site/en/about", "/content/site/de",
+                "/content/other/fr"), pages(new ScanResultIterator(root, null)));
+    }
+
+    @Test
+    void resumesAfterTheCursorFolder() throws Exception {
+        assertEquals(Arrays.asList("/content/site/de", "/content/other/fr"),
+                pages(new ScanResultIterator(root, folder("/content/site/en/about"))));
+        assertEquals(Arrays.asList("/content/site/en/about", "/content/site/de", "/content/other/fr"),
+                pages(new ScanResultIterator(root, folder("/content/site/en"))));
+    }
+
+    @Test
+    void skipsSubtreesWhoseRollupsCannotMatch() throws Exception {
+        // en is visited for its child's region issue; the caller cuts its own result down
+        assertEquals(Arrays.asList("/content/site/en", "/content/site/en/about", "/content/site/de"),
+                pages(new ScanResultIterator(root, null, ScanResultFilter.of(null, new String[] {"region"}))));
+        assertEquals(Arrays.asList("/content/site/en", "/content/other/fr"),
+                pages(new ScanResultIterator(root, null, ScanResultFilter.of(new String[] {"critical"}, null))));
+    }
+
+    @Test
+    void filteredTraversalResumesAfterTheCursorFolder() throws Exception {
+        ScanResultFilter filter = ScanResultFilter.of(new String[] {"critical"}, null);
+        ScanResultIterator firstPage = new ScanResultIterator(root, null, filter);
+        Node last = firstPage.next().getParent();
+
+        assertEquals(Arrays.asList("/content/other/fr"), pages(new ScanResultIterator(root, last, filter)));
+        assertEquals(Arrays.asList("/content/other/fr"),
+                pages(new ScanResultIterator(root, folder("/content/site/en/about"), filter)));
+    }
+
+    private Node folder(String contentPath) throws Exception {
+        return session.getNode(ScanResultStore.ROOT_PATH + contentPath);
+    }
+
+    private static List<String> pages(ScanResultIterator results) throws Exception {
+        List<String> pages = new ArrayList<>();
+        while (results.hasNext()) {
+            pages.add(results.next().getParent().getPath().substring(ScanResultStore.ROOT_PATH.length()));
+        }
+        return pages;
+    }
+}
@@ -185,7 +185,10 @@
         const htmlText = await fetchPageHTML(pageUrl);
         await runAxeCore(htmlText, resultsContainer, statusAlert, pathValue);
       } else {
-        await runMultiPageScan(pathValue, resultsContainer, statusAlert);
+        const started = await runServerBatchScan(pathValue, resultsContainer, statusAlert);
+        if (!started) {
+          await runMultiPageScan(pathValue, resultsContainer, statusAlert);
+        }
       }
     } catch (err) {
       console.error("Error fetching rendered HTML:", err);
@@ -591,7 +594,8 @@
          // POST to server
       $.ajax({
         type: "POST",
-        url: "/bin/a11y/scanresult",
+        // Lets the server store the results compactly against the rule dictionary of this axe build
+        url: "/bin/a11y/scanresult" + (window.axe && axe.version ? "?axeVersion=" + encodeURIComponent(axe.version) : ""),
         data: JSON.stringify(payload),
         contentType: "application/json",
         success: function (res) {
@@ -652,15 +656,168 @@
     }
     //renderSummaryView(payload);
   }
-  async function fetchScanResults(parentPath) {
-  const url = '/bin/a11y/scanresult?pagePath=' + encodeURIComponent(parentPath || '');
+  // Server-side multi-page scan: the bundle fetches, scans and stores every page,
+  // the console only polls the job. Returns false if the endpoint is unavailable.
+  async function runServerBatchScan(rootPath, resultsContainer, statusAlert) {
+    localStorage.setItem("a11y-scan-path", rootPath);
+    let job;
+    try {
+      const res = await fetch("/bin/a11yaccelerator/scan-batch", {
+        method: "POST",
+        credentials: "same-origin",
+        headers: { "Content-Type": "application/json" },
+        body: JSON.stringify({ rootPath: rootPath }),
+      });
+      if (!res.ok) {
+        console.warn("Server batch scan unavailable:", res.status);
+        return false;
+      }
+      job = await res.json();
+    } catch (err) {
+      console.warn("Server batch scan unavailable:", err);
+      return false;
+    }
+
+    while (job.status !== "COMPLETED") {
+      statusAlert.querySelector("p").textContent =
+        `Scanning on server: ${job.processed} of ${job.total} pages done` +
+        (job.failed ? ` (${job.failed} failed)` : "") + "...";
+      await new Promise((r) => setTimeout(r, 2000));
+      const res = await fetch(
+        "/bin/a11yaccelerator/scan-batch?jobId=" + encodeURIComponent(job.jobId),
+        { credentials: "same-origin", headers: { Accept: "application/json" } }
+      );
+      if (!res.ok) throw new Error("Polling batch scan failed " + res.status);
+      job = await res.json();
+    }
+
+    if (job.failed) {
+      console.warn("Pages that failed to scan:", job.failures);
+    }
+    statusAlert.setAttribute("variant", job.succeeded ? "success" : "warning");
+    statusAlert.querySelector("p").textContent =
+      `Completed scanning ${job.succeeded} of ${job.total} pages` +
+      (job.failed ? `, ${job.failed} failed.` : ".");
+    hideLoadingUI(statusAlert);
+
+    if (job.succeeded) {
+      const raw = await fetchScanResults(rootPath);
+      const stored = Array.isArray(raw) ? raw : (raw && raw.pages) || [];
+      renderSummaryTable(
+        stored.map((p) => ({
+          path: p.pagePath || p.path,
+          results: p.scanResult || p.results || [],
+        }))
+      );
+    }
+    return true;
+  }
+  const SCAN_RESULT_PAGE_SIZE = 200;
+
+  const RULE_DICTIONARY_PREFIX = 'a11y-rules-';
+  const ruleDictionaries = {};
+
+  // Rule metadata per axe version, fetched once and kept in localStorage across visits
+  async function loadRuleDictionary(version, refresh) {
+  if (!refresh && ruleDictionaries[version]) return ruleDictionaries[version];
+  if (!refresh) {
+    const cached = localStorage.getItem(RULE_DICTIONARY_PREFIX + version);
+    if (cached) {
+      try {
+        return (ruleDictionaries[version] = JSON.parse(cached));
+      } catch (e) {
+        localStorage.removeItem(RULE_DICTIONARY_PREFIX + version);
+      }
+    }
+  }
+  let res;
+  try {
+    res = await fetch('/bin/a11y/rules?version=' + encodeURIComponent(version),
+      { method: 'GET', credentials: 'same-origin', headers: { 'Accept': 'application/json' }});
+  } catch (e) {
+    res = null;
+  }
+  if (!res || !res.ok) {
+    // Not cached, so a later batch asks again instead of expanding with an empty dictionary for good
+    console.warn('Rule dictionary ' + version + ' could not be loaded', res ? res.status : '');
+    return ruleDictionaries[version] || {};
+  }
+  const rules = (await res.json()).rules || {};
+  try {
+    localStorage.setItem(RULE_DICTIONARY_PREFIX + version, JSON.stringify(rules));
+  } catch (e) {
+    // Storage full; the in-memory copy still serves this visit
+  }
+  return (ruleDictionaries[version] = rules);
+}
+
+  // Restores help texts and tags of compact results from their rule dictionary. A version is fetched
+  // again at most once per batch, when a rule of the batch is missing from the cached copy
+  async function expandScanResults(pages) {
+  const compact = pages.filter((page) => page.axeVersion && Array.isArray(page.scanResult));
+  const dictionaries = {};
+  for (const page of compact) {
+    if (!dictionaries[page.axeVersion]) dictionaries[page.axeVersion] = await loadRuleDictionary(page.axeVersion);
+  }
+  for (const version of Object.keys(dictionaries)) {
+    const rules = dictionaries[version];
+    if (compact.some((page) => page.axeVersion === version && page.scanResult.some((r) => r.id && !rules[r.id]))) {
+      // Rules recorded after the dictionary was cached
+      dictionaries[version] = await loadRuleDictionary(version, true);
+    }
+  }
+  for (const page of compact) {
+    const rules = dictionaries[page.axeVersion];
+    page.scanResult = page.scanResult.map((r) => Object.assign({}, rules[r.id], r));
+  }
+  return pages;
+}
+
+  async function fetchScanResultPage(parentPath, cursor, limit) {
+  let url = '/bin/a11y/scanresult?pagePath=' + encodeURIComponent(parentPath || '') +
+    '&limit=' + (limit || SCAN_RESULT_PAGE_SIZE) + '&rules=ref';
+  if (cursor) url += '&cursor=' + encodeURIComponent(cursor);
   const res = await fetch(url, { method: 'GET', credentials: 'same-origin', headers: { 'Accept': 'application/json' }});
   if (!res.ok) {
     const txt = await res.text().catch(()=> '');
     throw new Error('Fetch failed ' + res.status + ' ' + txt);
   }
-  return await res.json();
+  const body = await res.json();
+  if (body && Array.isArray(body.pages)) await expandScanResults(body.pages);
+  return body;
 }
+  // Loads results page by page; onPage, if given, receives each batch as soon as it arrives
+  async function fetchScanResults(parentPath, onPage) {
+  const pages = [];
+  let cursor = null;
+  do {
+    const body = await fetchScanResultPage(parentPath, cursor);
+    const batch = (body && body.pages) || [];
+    if (onPage) onPage(batch);
+    batch.forEach((p) => pages.push(p));
+    cursor = body && body.nextCursor;
+  } while (cursor);
+  return pages;
+}
+// Reports are built and streamed by the server, so the browser only handles a plain download
+function renderExportBar(container, parentPath) {
+  const bar = document.createElement('div');
+  bar.style.display = 'flex';
+  bar.style.gap = '8px';
+  bar.style.justifyContent = 'flex-end';
+  bar.style.marginBottom = '12px';
+  ['xlsx', 'csv'].forEach((format) => {
+    const link = document.createElement('a');
+    link.setAttribute('is', 'coral-anchorbutton');
+    link.href = '/bin/a11y/export?pagePath=' + encodeURIComponent(parentPath) + '&format=' + format;
+    link.setAttribute('download', '');
+    link.title = 'Download the stored results below ' + parentPath;
+    link.innerHTML = `<coral-icon icon="download" size="S"></coral-icon><coral-anchorbutton-label>${format}</coral-anchorbutton-label>`;
+    bar.appendChild(link);
+  });
+  container.insertBefore(bar, container.firstChild);
+}
+
 async function initSummaryDashboard() {
   const container = document.getElementById('summary-container');
   if (!container) return;
@@ -685,6 +842,7 @@ async function initSummaryDashboard() {
 
     // Render into summary container
     renderSummaryTable(pages);
+    if (parentPath) renderExportBar(container, parentPath);
   } catch (err) {
     console.error('Failed to load scan results:', err);
     container.innerHTML = `<coral-alert variant="error"><coral-alert-content>Failed to load scan summary: ${err.message}</coral-alert-content></coral-alert>`;
@@ -42,6 +42,40 @@
     }
 
     renderPageSummary(pages, container);
+    renderSubtreeSummary(parentPath, container);
+  }
+
+  /**
+   * Prepends the totals of the whole subtree, read from its server-side rollup in one request.
+   */
+  async function renderSubtreeSummary(parentPath, container) {
+    let summary = null;
+    try {
+      const res = await fetch("/bin/a11y/summary?path=" + encodeURIComponent(parentPath), {
+        credentials: "same-origin",
+        headers: { "Accept": "application/json" },
+        cache: "no-store"
+      });
+      if (!res.ok) return;
+      summary = await res.json();
+    } catch (err) {
+      console.warn("Failed to fetch subtree summary:", err);
+      return;
+    }
+
+    const counts = Object.assign({ critical: 0, serious: 0, moderate: 0, minor: 0 }, summary.impact || {});
+    const card = document.createElement("div");
+    card.className = "summary-card summary-card-total";
+    card.innerHTML = `
+      <div class="summary-card-header">
+        <h3>${escapeHtml(summary.path || parentPath)}</h3>
+        <span>${summary.total || 0} issues on ${summary.pages || 0} pages</span>
+      </div>
+      <div class="summary-card-body">
+        <div class="summary-bar">${renderImpactBar(counts)}</div>
+      </div>
+    `;
+    container.insertBefore(card, container.firstChild);
   }
 
   function renderPageSummary(storedResults, container) {
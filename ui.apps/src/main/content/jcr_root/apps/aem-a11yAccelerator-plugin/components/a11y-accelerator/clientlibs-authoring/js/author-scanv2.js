@@ -1456,79 +1456,136 @@ ${htmlContext}
               btn.innerHTML = "Loading...";
               console.log(ruleId + snippet + helpText);
 
+              const escapeHtml = (str) =>
+                String(str)
+                  .replace(/&/g, "&amp;")
+                  .replace(/</g, "&lt;")
+                  .replace(/>/g, "&gt;")
+                  .replace(/"/g, "&quot;")
+                  .replace(/'/g, "&#039;");
+              const openSuggestionDialog = (html) => {
+                const dialog = new Coral.Dialog().set({
+                  id: "aiSuggestionDialog",
+                  header: {
+                    innerHTML: "<h3>AI Suggestions</h3>",
+                  },
+                  content: {
+                    innerHTML: `<pre class="a11y-ai-suggestion-text" style="white-space:pre-wrap;">${html}</pre>`,
+                  },
+                  footer: {
+                    innerHTML: `<button is="coral-button" variant="primary" coral-close>Close</button>`,
+                  },
+                });
+
+                dialog.style.width = "480px";
+                dialog.style.maxWidth = "90vw";
+                dialog.style.zIndex = "99999";
+                // stay above side panel
+                dialog.style.position = "fixed";
+                dialog.style.top = "10%";
+                dialog.style.left = "50%";
+                dialog.style.transform = "translateX(-50%)";
+                dialog.classList.add("ai-suggestion-popup");
+                document.body.appendChild(dialog);
+                dialog.show();
+                return dialog;
+              };
+              const openErrorDialog = (status, text) => {
+                const dialog = new Coral.Dialog().set({
+                  id: "aiErrorDialog",
+                  header: {
+                    innerHTML: "<h3>Error</h3>",
+                  },
+                  content: {
+                    innerHTML: `<p>Failed to fetch AI suggestions.<br>Status: ${status}<br>${escapeHtml(text)}</p>`,
+                  },
+                  footer: {
+                    innerHTML: `<button is="coral-button" variant="primary" coral-close>Close</button>`,
+                  },
+                });
+
+                document.body.appendChild(dialog);
+                dialog.show();
+              };
+              const fetchWhole = () =>
+                $.ajax({
+                  type: "POST",
+                  url: "/bin/a11yaccelerator/a11y-ai-suggestions",
+                  data: JSON.stringify({
+                    ruleId,
+                    snippet,
+                    helpText,
+                  }),
+                  contentType: "application/json",
+                  success: function (res) {
+                    console.log("Response:", res);
+                    openSuggestionDialog(
+                      escapeHtml(
+                        res.suggestion || JSON.stringify(res, null, 2)
+                      )
+                    );
+                  },
+                  error: function (xhr, status, error) {
+                    console.error("AJAX Error:", status, error, xhr.responseText);
+                    openErrorDialog(xhr.status, xhr.responseText);
+                  },
+                });
+
+              if (!window.EventSource) {
+                fetchWhole();
+                return;
+              }
+
+              // Stream the suggestion: the dialog opens at once and fills in as the model writes
               $.ajax({
                 type: "POST",
-                url: "/bin/a11yaccelerator/a11y-ai-suggestions",
+                url: "/bin/a11yaccelerator/a11y-ai-suggestions/stream",
                 data: JSON.stringify({
                   ruleId,
                   snippet,
                   helpText,
                 }),
                 contentType: "application/json",
-                success: function (res) {
-                  console.log("Response:", res);
-                  let suggestionText = "";
-                  const escapeHtml = (str) =>
-                    String(str)
-                      .replace(/&/g, "&amp;")
-                      .replace(/</g, "&lt;")
-                      .replace(/>/g, "&gt;")
-                      .replace(/"/g, "&quot;")
-                      .replace(/'/g, "&#039;");
-                  if (res.suggestion) {
-                    suggestionText = `<pre style="white-space:pre-wrap;">${escapeHtml(
-                      res.suggestion
-                    )}</pre>`;
-                  } else {
-                    suggestionText = `<pre style="white-space:pre-wrap;">${escapeHtml(
-                      JSON.stringify(res, null, 2)
-                    )}</pre>`;
-                  }
-                  const dialog = new Coral.Dialog().set({
-                    id: "aiSuggestionDialog",
-                    header: {
-                      innerHTML: "<h3>AI Suggestions</h3>",
-                    },
-                    content: {
-                      innerHTML: `<pre style="white-space:pre-wrap;">${suggestionText}</pre>`,
-                    },
-                    footer: {
-                      innerHTML: `<button is="coral-button" variant="primary" coral-close>Close</button>`,
-                    },
+                success: function (accepted) {
+                  const dialog = openSuggestionDialog("");
+                  const output = dialog.querySelector(".a11y-ai-suggestion-text");
+                  output.textContent = "Generating…";
+                  let received = false;
+                  const source = new EventSource(
+                    "/bin/a11yaccelerator/a11y-ai-suggestions/stream?id=" +
+                      encodeURIComponent(accepted.id)
+                  );
+                  // The server ends each response after a while; EventSource reconnects
+                  // and resumes after the last token it received
+                  source.addEventListener("token", (event) => {
+                    if (!received) {
+                      output.textContent = "";
+                      received = true;
+                    }
+                    output.textContent += JSON.parse(event.data);
                   });
-
-                  dialog.style.width = "480px";
-                  dialog.style.maxWidth = "90vw";
-                  dialog.style.zIndex = "99999";
-                  // stay above side panel
-                  dialog.style.position = "fixed";
-                  dialog.style.top = "10%";
-                  dialog.style.left = "50%";
-                  dialog.style.transform = "translateX(-50%)";
-                  dialog.classList.add("ai-suggestion-popup");
-                  document.body.appendChild(dialog);
-                  dialog.show();
-                },
-                error: function (xhr, status, error) {
-                  // console.error("AJAX Error:", xhr.status, xhr.responseText);
-
-                  console.error("AJAX Error:", status, error, xhr.responseText);
-
-                  const dialog = new Coral.Dialog().set({
-                    id: "aiErrorDialog",
-                    header: {
-                      innerHTML: "<h3>Error</h3>",
-                    },
-                    content: {
-                      innerHTML: `<p>Failed to fetch AI suggestions.<br>Status: ${xhr.status}<br>${xhr.responseText}</p>`,
-                    },
-                    footer: {
-                      innerHTML: `<button is="coral-button" variant="primary" coral-close>Close</button>`,
-                    },
+                  source.addEventListener("done", (event) => {
+                    source.close();
+                    output.textContent = JSON.parse(event.data).suggestion || "";
                   });
-
-                  document.body.appendChild(dialog);
-                  dialog.show();
+                  source.addEventListener("failure", (event) => {
+                    source.close();
+                    const res = JSON.parse(event.data);
+                    output.textContent = res.message
+                      ? res.error + "\n" + res.message
+                      : res.error;
+                  });
+                  source.onerror = () => {
+                    // An unknown or expired stream answers 404, which EventSource does not retry
+                    if (source.readyState === EventSource.CLOSED) {
+                      output.textContent =
+                        output.textContent + "\n\n(The suggestion stream was interrupted.)";
+                    }
+                  };
+                  dialog.on("coral-overlay:close", () => source.close());
+                },
+                error: function () {
+                  fetchWhole();
                 },
               });
             }